@@ -33,6 +33,7 @@ import org.springframework.ai.tool.definition.DefaultToolDefinition;
 import org.springframework.ai.tool.method.MethodToolCallback;
 import org.springframework.ai.tool.support.ToolUtils;
 import org.springframework.ai.util.json.schema.JsonSchemaGenerator;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
@@ -65,8 +66,16 @@ public class CalculateAgent implements NodeAction {
 
 		List<ToolCallback> toolCallbacks = new ArrayList<>();
 		for (Document document : documents) {
-			var toolMethod = ReflectionUtils.findMethod(Math.class, document.getMetadata().get(Constant.METHOD_NAME).toString(),
-					(Class<?>[]) document.getMetadata().get(Constant.METHOD_PARAMETER_TYPES));
+			Map<String, Object> metadata = document.getMetadata();
+			Class<?> toolClass = ClassUtils.resolveClassName(metadata.get(Constant.METHOD_CLASS).toString(), null);
+			if (!(metadata.get(Constant.METHOD_PARAMETER_TYPES) instanceof List<?> typeNames)) {
+				throw new IllegalStateException("Tool document " + document.getId() + " has no parameter types");
+			}
+			Class<?>[] parameterTypes = typeNames.stream()
+				.map(typeName -> ClassUtils.resolveClassName(String.valueOf(typeName), null))
+				.toArray(Class<?>[]::new);
+			var toolMethod = ReflectionUtils.findMethod(toolClass, metadata.get(Constant.METHOD_NAME).toString(),
+					parameterTypes);
 
 			DefaultToolDefinition.Builder toolDefinitionBuilder = DefaultToolDefinition.builder()
 				.name(ToolUtils.getToolName(toolMethod))
@@ -30,4 +30,6 @@ public class Constant {
 
 	public static final String METHOD_NAME = "method_name";
 
+	public static final String METHOD_CLASS = "method_class";
+
 }
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.graph.bigtool.service;
+
+import com.alibaba.cloud.ai.graph.bigtool.agent.Tool;
+import com.alibaba.cloud.ai.graph.bigtool.constants.Constant;
+import com.alibaba.cloud.ai.graph.bigtool.utils.MethodUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Builds the tool documents and their embeddings, persisted in a local index file.
+ * <p>
+ * Tools are the public static methods of the configured classes. An indexed method reuses the
+ * stored description, so the (online) Javadoc lookup only happens for new methods, and an
+ * embedding is only requested for a description whose hash is not in the index yet. Later
+ * boots load everything from the index and do not call the network or the embedding model.
+ * The index stores the embedding model name and the vector dimensions, stored embeddings are only
+ * reused for the same model name and when their length matches the stored dimensions. The
+ * dimensions of new embeddings are taken from the vectors the model returns, if they differ from
+ * the stored ones every description is embedded again.
+ */
+@Service
+public class ToolIndexer {
+
+	private static final Logger logger = LoggerFactory.getLogger(ToolIndexer.class);
+
+	/**
+	 * DashScope embedding 单次请求的最大文本数
+	 */
+	private static final int EMBEDDING_BATCH_SIZE = 25;
+
+	private final EmbeddingModel embeddingModel;
+
+	private final VectorStoreService vectorStoreService;
+
+	private final Path indexPath;
+
+	private final List<String> toolClasses;
+
+	private final String embeddingModelName;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	public ToolIndexer(EmbeddingModel embeddingModel, VectorStoreService vectorStoreService,
+			@Value("${big-tool.index.path:tool-index/tool-index.json}") String indexPath,
+			@Value("${big-tool.index.classes:java.lang.Math}") List<String> toolClasses,
+			@Value("${spring.ai.dashscope.embedding.options.model:text-embedding-v1}") String embeddingModelName) {
+		this.embeddingModel = embeddingModel;
+		this.vectorStoreService = vectorStoreService;
+		this.indexPath = Path.of(indexPath);
+		this.toolClasses = toolClasses;
+		this.embeddingModelName = embeddingModelName;
+	}
+
+	/**
+	 * Index the tools into the vector store.
+	 * @return the tool documents, in the order of the index
+	 */
+	public List<Document> index() {
+		long start = System.nanoTime();
+
+		// 不调用 embeddingModel.dimensions()，默认实现会发起一次 embedding 请求；维度保存在索引中
+		ToolIndex previous = readIndex();
+		Map<String, ToolIndexEntry> indexed = new HashMap<>();
+		Map<String, float[]> embeddings = new HashMap<>();
+		int dimensions = 0;
+		if (previous != null) {
+			previous.entries().forEach(entry -> indexed.put(entry.signature(), entry));
+			// 切换 embedding 模型后已有的向量不能复用
+			if (Objects.equals(previous.model(), embeddingModelName) && previous.dimensions() > 0) {
+				dimensions = previous.dimensions();
+				int stored = dimensions;
+				previous.entries()
+					.stream()
+					.filter(entry -> entry.embedding() != null && entry.embedding().length == stored)
+					.forEach(entry -> embeddings.put(entry.descriptionHash(), entry.embedding()));
+			}
+		}
+
+		List<ToolIndexEntry> entries = new ArrayList<>();
+		List<ToolIndexEntry> missing = new ArrayList<>();
+		for (Method method : toolMethods()) {
+			String signature = signature(method);
+			ToolIndexEntry entry = indexed.get(signature);
+			if (entry == null) {
+				entry = describe(method, signature);
+				if (entry == null) {
+					continue;
+				}
+			}
+
+			float[] embedding = embeddings.get(entry.descriptionHash());
+			if (embedding == null) {
+				missing.add(entry);
+			}
+			else {
+				entry = entry.withEmbedding(embedding);
+			}
+			entries.add(entry);
+		}
+
+		Map<String, float[]> created = embed(missing);
+		int embedded = missing.size();
+		if (!created.isEmpty()) {
+			int createdDimensions = created.values().iterator().next().length;
+			if (dimensions > 0 && createdDimensions != dimensions) {
+				// 同名模型的向量维度变了，已有的向量不能与新向量混用，全部重新生成
+				logger.info("Embedding dimensions changed from {} to {}, embed all tool descriptions again.",
+						dimensions, createdDimensions);
+				entries.replaceAll(entry -> entry.withEmbedding(null));
+				created = embed(entries);
+				embedded = entries.size();
+			}
+			dimensions = createdDimensions;
+		}
+		Map<String, float[]> fresh = created;
+		entries.replaceAll(entry -> entry.embedding() == null ? entry.withEmbedding(fresh.get(entry.descriptionHash())) : entry);
+
+		if (embedded > 0 || previous == null || previous.entries().size() != entries.size()
+				|| !Objects.equals(previous.model(), embeddingModelName) || previous.dimensions() != dimensions) {
+			writeIndex(new ToolIndex(embeddingModelName, dimensions, entries));
+		}
+
+		List<Document> documents = entries.stream().map(ToolIndexEntry::toDocument).toList();
+		vectorStoreService.addEmbeddedDocuments(documents, entries.stream().map(ToolIndexEntry::embedding).toList());
+
+		logger.info("Indexed {} tools, embedded {} new descriptions, cost {} ms.", entries.size(), embedded,
+				(System.nanoTime() - start) / 1_000_000);
+		return documents;
+	}
+
+	private List<Method> toolMethods() {
+		List<Method> methods = new ArrayList<>();
+		for (String className : toolClasses) {
+			Class<?> toolClass = ClassUtils.resolveClassName(className.trim(), null);
+			Arrays.stream(toolClass.getMethods())
+				.filter(method -> Modifier.isStatic(method.getModifiers()))
+				.sorted(Comparator.comparing(ToolIndexer::signature))
+				.forEach(methods::add);
+		}
+		return methods;
+	}
+
+	private static ToolIndexEntry describe(Method method, String signature) {
+		Tool tool = MethodUtils.convertMethodToTool(method);
+		if (tool == null) {
+			return null;
+		}
+
+		List<String> parameterTypes = Arrays.stream(method.getParameterTypes()).map(Class::getName).toList();
+		return new ToolIndexEntry(signature, method.getDeclaringClass().getName(), method.getName(), parameterTypes,
+				tool.getDescription(), sha256(tool.getDescription()), null);
+	}
+
+	private Map<String, float[]> embed(List<ToolIndexEntry> entries) {
+		List<String> descriptions = entries.stream().map(ToolIndexEntry::description).distinct().toList();
+
+		Map<String, float[]> embeddings = new HashMap<>();
+		for (int i = 0; i < descriptions.size(); i += EMBEDDING_BATCH_SIZE) {
+			List<String> batch = descriptions.subList(i, Math.min(i + EMBEDDING_BATCH_SIZE, descriptions.size()));
+			List<float[]> vectors = embeddingModel.embed(batch);
+			for (int j = 0; j < batch.size(); j++) {
+				embeddings.put(sha256(batch.get(j)), vectors.get(j));
+			}
+		}
+		return embeddings;
+	}
+
+	private ToolIndex readIndex() {
+		if (!Files.exists(indexPath)) {
+			return null;
+		}
+
+		try {
+			return objectMapper.readValue(indexPath.toFile(), ToolIndex.class);
+		}
+		catch (IOException e) {
+			logger.warn("Failed to read tool index {}, rebuild it: {}", indexPath, e.getMessage());
+			return null;
+		}
+	}
+
+	private void writeIndex(ToolIndex index) {
+		try {
+			Path parent = indexPath.toAbsolutePath().getParent();
+			Files.createDirectories(parent);
+
+			// 先写临时文件再替换，避免中断时留下不完整的索引
+			Path tmp = Files.createTempFile(parent, "tool-index", ".tmp");
+			objectMapper.writeValue(tmp.toFile(), index);
+			Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			logger.warn("Failed to write tool index {}: {}", indexPath, e.getMessage());
+		}
+	}
+
+	private static String signature(Method method) {
+		return method.getDeclaringClass().getName() + "#" + method.getName() + Arrays.stream(method.getParameterTypes())
+			.map(Class::getName)
+			.toList();
+	}
+
+	private static String sha256(String text) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @param model embedding model name
+	 * @param dimensions length of every stored embedding
+	 */
+	record ToolIndex(String model, int dimensions, List<ToolIndexEntry> entries) {
+	}
+
+	record ToolIndexEntry(String signature, String className, String methodName, List<String> parameterTypes,
+			String description, String descriptionHash, float[] embedding) {
+
+		ToolIndexEntry withEmbedding(float[] embedding) {
+			return new ToolIndexEntry(signature, className, methodName, parameterTypes, description, descriptionHash,
+					embedding);
+		}
+
+		Document toDocument() {
+			return new Document(sha256(signature), description, Map.of(Constant.METHOD_CLASS, className,
+					Constant.METHOD_NAME, methodName, Constant.METHOD_PARAMETER_TYPES, parameterTypes));
+		}
+	}
+
+}
@@ -16,22 +16,29 @@
 
 package com.alibaba.cloud.ai.graph.bigtool.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.embedding.EmbeddingModel;
 
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.SimpleVectorStore;
-import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.SimpleVectorStoreContent;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class VectorStoreService {
 
 	private final EmbeddingModel embeddingModel;
 
-	private final VectorStore vectorStore;
+	private final SimpleVectorStore vectorStore;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
 
 	public VectorStoreService(EmbeddingModel embeddingModel) {
 		this.embeddingModel = embeddingModel;
@@ -42,6 +49,25 @@ public class VectorStoreService {
 		vectorStore.add(documents);
 	}
 
+	/**
+	 * Add documents whose embeddings are already computed, the embedding model is not called.
+	 */
+	public void addEmbeddedDocuments(List<Document> documents, List<float[]> embeddings) {
+		Map<String, SimpleVectorStoreContent> contents = new LinkedHashMap<>();
+		for (int i = 0; i < documents.size(); i++) {
+			Document document = documents.get(i);
+			contents.put(document.getId(), new SimpleVectorStoreContent(document.getId(), document.getText(),
+					document.getMetadata(), embeddings.get(i)));
+		}
+
+		try {
+			vectorStore.load(new ByteArrayResource(objectMapper.writeValueAsBytes(contents)));
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException("Failed to load embedded documents", e);
+		}
+	}
+
 	public List<Document> search(String query, int topK) {
 		return vectorStore.similaritySearch(SearchRequest.builder().query(query).topK(topK).build());
 	}
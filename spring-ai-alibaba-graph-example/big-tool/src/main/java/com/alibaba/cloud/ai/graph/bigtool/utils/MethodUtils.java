@@ -37,15 +37,14 @@ public class MethodUtils {
 
 	// Cache for retrieved Javadoc to avoid repeated requests
 	private static final Map<String, String> JAVADOC_CACHE = new ConcurrentHashMap<>();
-	static ConcurrentHashMap<String, String> methodMap;
 
-	static {
-		try {
-			methodMap = fetchMathMethodJavadoc();
-		}
-		catch (Exception e) {
-			throw new RuntimeException(e);
-		}
+	/**
+	 * Math Javadoc, fetched on first use only, i.e. when a method is not in the tool index yet
+	 */
+	private static final class MathJavadocHolder {
+
+		static final Map<String, String> METHOD_MAP = fetchMathMethodJavadoc();
+
 	}
 
 	/**
@@ -137,6 +136,11 @@ public class MethodUtils {
 	 * @return The method's Javadoc description, or null if unavailable
 	 */
 	private static String getMethodJavadoc(Method method) {
+		if (method.getDeclaringClass() != Math.class) {
+			return null;
+		}
+
+		Map<String, String> methodMap = MathJavadocHolder.METHOD_MAP;
 		for (String s : methodMap.keySet()) {
 			if (s.contains(method.getName())) {
 				return methodMap.get(s);
@@ -149,7 +153,7 @@ public class MethodUtils {
 	 * Fetch Javadoc for Math class methods from Oracle's online documentation
 	 * @return Method Javadoc descriptions
 	 */
-	private static ConcurrentHashMap<String, String> fetchMathMethodJavadoc() throws Exception {
+	private static Map<String, String> fetchMathMethodJavadoc() {
 
 		// Network request implementation to get documentation (simplified version)
 		try {
@@ -191,7 +195,7 @@ public class MethodUtils {
 			System.out.println("Failed to retrieve online documentation: " + e.getMessage());
 		}
 
-		return null;
+		return Map.of();
 	}
 
 	/**
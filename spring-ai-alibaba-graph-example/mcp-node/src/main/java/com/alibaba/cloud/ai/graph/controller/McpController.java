@@ -6,13 +6,17 @@ import com.alibaba.cloud.ai.graph.RunnableConfig;
 import com.alibaba.cloud.ai.graph.StateGraph;
 import com.alibaba.cloud.ai.graph.exception.GraphRunnerException;
 import com.alibaba.cloud.ai.graph.exception.GraphStateException;
+import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -44,4 +48,27 @@ public class McpController {
         return invoke.map(OverAllState::data).orElse(new HashMap<>());
     }
 
+    /**
+     * 流式调用：mcp 节点生成的 token 以 mcp-node 事件逐个推送，其余节点完成时推送当前的 mcp_content
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> stream(@RequestParam(value = "query", defaultValue = "北京时间现在几点钟", required = false) String query,
+                                                @RequestParam(value = "thread_id", defaultValue = "yingzi", required = false) String threadId) throws GraphRunnerException {
+        RunnableConfig runnableConfig = RunnableConfig.builder().threadId(threadId).build();
+        Map<String, Object> objectMap = new HashMap<>();
+        objectMap.put("query", query);
+
+        return this.compiledGraph.fluxStream(objectMap, runnableConfig)
+                .map(output -> {
+                    if (output instanceof StreamingOutput streamingOutput) {
+                        return ServerSentEvent.builder(streamingOutput.chunk()).event(output.node()).build();
+                    }
+                    return ServerSentEvent.builder(String.valueOf(output.state().value("mcp_content", "")))
+                            .event(output.node())
+                            .build();
+                })
+                .doOnCancel(() -> logger.info("Client disconnected from stream"))
+                .doOnError(e -> logger.error("Error occurred during streaming", e));
+    }
+
 }
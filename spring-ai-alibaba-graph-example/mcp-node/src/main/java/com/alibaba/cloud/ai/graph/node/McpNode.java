@@ -1,15 +1,18 @@
 package com.alibaba.cloud.ai.graph.node;
 
+import com.alibaba.cloud.ai.graph.GraphResponse;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
 import com.alibaba.cloud.ai.graph.tool.McpClientToolCallbackProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.tool.ToolCallback;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -38,15 +41,39 @@ public class McpNode implements NodeAction {
     }
 
 
+    /**
+     * Stream the tool-enabled chat as a graph streaming output.
+     * <p>
+     * Every token is emitted as a {@link StreamingOutput} of this node as soon as it arrives and appended to a
+     * {@link StringBuilder}; when the model finishes, the accumulated text is written to {@code mcp_content}.
+     * The graph thread is not blocked while the model is generating.
+     */
     @Override
     public Map<String, Object> apply(OverAllState state) {
         String query = state.value("query", "");
-        Flux<String> streamResult = chatClient.prompt(query).stream().content();
-        String result = streamResult.reduce("", (acc, item) -> acc + item).block();
+        Flux<ChatResponse> chatResponseFlux = chatClient.prompt(query).stream().chatResponse();
 
-        HashMap<String, Object> resultMap = new HashMap<>();
-        resultMap.put("mcp_content", result);
+        Flux<GraphResponse<StreamingOutput>> generator = Flux.defer(() -> {
+            StringBuilder content = new StringBuilder();
+            return chatResponseFlux
+                    .map(McpNode::textOf)
+                    .filter(chunk -> !chunk.isEmpty())
+                    .map(chunk -> {
+                        content.append(chunk);
+                        return GraphResponse.of(new StreamingOutput(chunk, NODE_NAME, state));
+                    })
+                    .concatWith(Mono.fromSupplier(
+                            () -> GraphResponse.<StreamingOutput>done(Map.of("mcp_content", content.toString()))));
+        });
 
-        return resultMap;
+        return Map.of("mcp_content", generator);
+    }
+
+    private static String textOf(ChatResponse response) {
+        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) {
+            return "";
+        }
+        String text = response.getResult().getOutput().getText();
+        return text == null ? "" : text;
     }
 }
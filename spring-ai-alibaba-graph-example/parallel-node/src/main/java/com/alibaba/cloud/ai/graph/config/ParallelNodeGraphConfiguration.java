@@ -21,11 +21,11 @@ import com.alibaba.cloud.ai.graph.KeyStrategy;
 import com.alibaba.cloud.ai.graph.KeyStrategyFactory;
 import com.alibaba.cloud.ai.graph.KeyStrategyFactoryBuilder;
 import com.alibaba.cloud.ai.graph.StateGraph;
-import com.alibaba.cloud.ai.graph.dispatcher.CollectorDispatcher;
 import com.alibaba.cloud.ai.graph.exception.GraphStateException;
-import com.alibaba.cloud.ai.graph.node.CollectorNode;
 import com.alibaba.cloud.ai.graph.node.DispatcherNode;
 import com.alibaba.cloud.ai.graph.node.ExpanderNode;
+import com.alibaba.cloud.ai.graph.node.JoinBarrier;
+import com.alibaba.cloud.ai.graph.node.JoinNode;
 import com.alibaba.cloud.ai.graph.node.TranslateNode;
 import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
 import org.slf4j.Logger;
@@ -36,11 +36,9 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
 
 import static com.alibaba.cloud.ai.graph.StateGraph.END;
-import static com.alibaba.cloud.ai.graph.action.AsyncEdgeAction.edge_async;
 import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
 
 /**
@@ -53,24 +51,35 @@ public class ParallelNodeGraphConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(ParallelNodeGraphConfiguration.class);
 
+    private static final Duration JOIN_TIMEOUT = Duration.ofSeconds(60);
+
     @Bean
     public StateGraph parallelNodeGraph(ChatClient.Builder chatClientBuilder) throws GraphStateException {
+        JoinBarrier barrier = new JoinBarrier();
+
         KeyStrategyFactory keyStrategyFactory = new KeyStrategyFactoryBuilder()
                 .addPatternStrategy("query", new ReplaceStrategy())
                 .addPatternStrategy("expander_number", new ReplaceStrategy())
                 .addPatternStrategy("expander_content", new ReplaceStrategy())
                 .addPatternStrategy("translate_language", new ReplaceStrategy())
                 .addPatternStrategy("translate_content", new ReplaceStrategy())
-                .addPatternStrategy("collector_next_node", new ReplaceStrategy())
+                .addPatternStrategy(JoinBarrier.JOIN_ID, new ReplaceStrategy())
+                .addPatternStrategy(JoinNode.JOIN_MISSING, new ReplaceStrategy())
                 .addPatternStrategy("expand_status", new ReplaceStrategy())
                 .addPatternStrategy("translate_status", new ReplaceStrategy())
                 .build();
 
         StateGraph stateGraph = new StateGraph(keyStrategyFactory)
-                .addNode("dispatcher", node_async(new DispatcherNode()))
-                .addNode("translator", node_async(new TranslateNode(chatClientBuilder)))
-                .addNode("expander", node_async(new ExpanderNode(chatClientBuilder)))
-                .addNode("collector", node_async(new CollectorNode()))
+                .addNode("dispatcher", node_async(new DispatcherNode(barrier)))
+                .addNode("translator", node_async(new TranslateNode(chatClientBuilder, barrier)))
+                .addNode("expander", node_async(new ExpanderNode(chatClientBuilder, barrier)))
+                // 两个分支都返回结果后立即汇合，无需轮询
+                .addNode("collector", JoinNode.builder()
+                        .barrier(barrier)
+                        .await("translate_content", "expander_content")
+                        .timeout(JOIN_TIMEOUT)
+                        .partialResultPolicy(JoinNode.PartialResultPolicy.PROCEED)
+                        .build())
                 
                 // 并行边
                 .addEdge("dispatcher", "translator")
@@ -79,8 +88,7 @@ public class ParallelNodeGraphConfiguration {
                 .addEdge("expander", "collector")
                 
                 .addEdge(StateGraph.START, "dispatcher")
-                .addConditionalEdges("collector", edge_async(new CollectorDispatcher()),
-                        Map.of("dispatcher", "dispatcher", END, END));
+                .addEdge("collector", END);
 
         GraphRepresentation representation = stateGraph.getGraph(GraphRepresentation.Type.PLANTUML,
                 "parallel translator and expander flow");
@@ -33,11 +33,20 @@ public class DispatcherNode implements NodeAction {
 
     private static final Logger logger = LoggerFactory.getLogger(DispatcherNode.class);
 
+    private final JoinBarrier barrier;
+
+    public DispatcherNode(JoinBarrier barrier) {
+        this.barrier = barrier;
+    }
+
     @Override
     public Map<String, Object> apply(OverAllState state) throws Exception {
         logger.info("dispatcher node is running.");
         
         Map<String, Object> updated = new HashMap<>();
+
+        // 打开 join，并行分支完成后向 barrier 报告结果
+        updated.put(JoinBarrier.JOIN_ID, barrier.open());
         
         String expandStatus = state.value("expand_status", "");
         if (expandStatus.isEmpty()) {
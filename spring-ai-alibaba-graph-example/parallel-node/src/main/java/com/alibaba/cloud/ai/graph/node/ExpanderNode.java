@@ -50,8 +50,11 @@ public class ExpanderNode implements NodeAction {
 
     private final Integer NUMBER = 3;
 
-    public ExpanderNode(ChatClient.Builder chatClientBuilder) {
+    private final JoinBarrier barrier;
+
+    public ExpanderNode(ChatClient.Builder chatClientBuilder, JoinBarrier barrier) {
         this.chatClient = chatClientBuilder.build();
+        this.barrier = barrier;
     }
 
     @Override
@@ -62,6 +65,7 @@ public class ExpanderNode implements NodeAction {
         logger.info("Current expand_status: {}", expandStatus);
         
         if (!"assigned".equals(expandStatus)) {
+            barrier.skip(state.value(JoinBarrier.JOIN_ID, ""), "expander_content");
             return Map.of();
         }
 
@@ -70,7 +74,10 @@ public class ExpanderNode implements NodeAction {
 
         logger.info("Calling LLM for expansion, setting status to processing");
 
-        Flux<ChatResponse> chatResponseFlux = this.chatClient.prompt().user((user) -> user.text(DEFAULT_PROMPT_TEMPLATE.getTemplate()).param("number", expanderNumber).param("query", query)).stream().chatResponse();
+        String joinId = state.value(JoinBarrier.JOIN_ID, "");
+
+        Flux<ChatResponse> chatResponseFlux = this.chatClient.prompt().user((user) -> user.text(DEFAULT_PROMPT_TEMPLATE.getTemplate()).param("number", expanderNumber).param("query", query)).stream().chatResponse()
+                .doOnError(e -> barrier.fail(joinId, "expander_content", e));
 
         Flux<GraphResponse<StreamingOutput>> generator = FluxConverter.builder()
                 .startingNode("expander_llm_stream")
@@ -78,6 +85,7 @@ public class ExpanderNode implements NodeAction {
                 .mapResult(response -> {
                     String text = response.getResult().getOutput().getText();
                     List<String> queryVariants = Arrays.asList(text.split("\n"));
+                    barrier.arrive(joinId, "expander_content", queryVariants);
                     return Map.of("expander_content", queryVariants, "expand_status", "completed");
                 }).build(chatResponseFlux);
         
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.graph.node;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rendezvous point between parallel branches and the {@link JoinNode} downstream of them.
+ * <p>
+ * The fork node opens a join and stores its id in the state under {@link #JOIN_ID}, every
+ * branch reports its result (or failure) with {@link #arrive} / {@link #fail} when it is really
+ * done, for streaming branches that is when the {@code FluxConverter} result is mapped.
+ * A branch that does not run this time, e.g. because its status in the state says it already
+ * completed, reports {@link #skip} so the join does not wait for it.
+ * The join node subscribes to the arrivals instead of polling the state.
+ *
+ * @author sixiyida
+ * @since 2025/6/27
+ */
+
+public class JoinBarrier {
+
+    private static final Logger logger = LoggerFactory.getLogger(JoinBarrier.class);
+
+    public static final String JOIN_ID = "join_id";
+
+    /**
+     * Arrival value of a skipped branch, the join keeps the value already in the state.
+     */
+    static final Object SKIPPED = new Object();
+
+    private final Map<String, Join> joins = new ConcurrentHashMap<>();
+
+    private final Duration expireAfter;
+
+    public JoinBarrier() {
+        this(Duration.ofMinutes(10));
+    }
+
+    /**
+     * @param expireAfter joins never awaited (e.g. the graph failed before the join node) are dropped after this
+     */
+    public JoinBarrier(Duration expireAfter) {
+        this.expireAfter = expireAfter;
+    }
+
+    public String open() {
+        purgeExpired();
+
+        String joinId = UUID.randomUUID().toString();
+        joins.put(joinId, new Join());
+        return joinId;
+    }
+
+    public void arrive(String joinId, String key, Object value) {
+        join(joinId).slot(key).complete(value);
+    }
+
+    public void skip(String joinId, String key) {
+        logger.debug("Branch {} of join {} skipped", key, joinId);
+        join(joinId).slot(key).complete(SKIPPED);
+    }
+
+    public void fail(String joinId, String key, Throwable error) {
+        logger.warn("Branch {} of join {} failed: {}", key, joinId, error.getMessage());
+        join(joinId).slot(key).completeExceptionally(error);
+    }
+
+    /**
+     * Arrival of every key, the returned futures complete as soon as the branch reports.
+     */
+    Map<String, CompletableFuture<Object>> slots(String joinId, Collection<String> keys) {
+        Join join = join(joinId);
+
+        Map<String, CompletableFuture<Object>> slots = new ConcurrentHashMap<>();
+        keys.forEach(key -> slots.put(key, join.slot(key)));
+        return slots;
+    }
+
+    void close(String joinId) {
+        joins.remove(joinId);
+    }
+
+    private Join join(String joinId) {
+        // 分支可能先于 join 节点到达，按需创建
+        return joins.computeIfAbsent(joinId, id -> new Join());
+    }
+
+    private void purgeExpired() {
+        long deadline = System.nanoTime() - expireAfter.toNanos();
+        joins.values().removeIf(join -> join.createdAt < deadline);
+    }
+
+    private static final class Join {
+
+        private final long createdAt = System.nanoTime();
+
+        private final Map<String, CompletableFuture<Object>> slots = new ConcurrentHashMap<>();
+
+        CompletableFuture<Object> slot(String key) {
+            return slots.computeIfAbsent(key, k -> new CompletableFuture<>());
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.graph.node;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.action.AsyncNodeAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Join node of parallel branches, completes as soon as every awaited branch has reported to
+ * the {@link JoinBarrier}, so its latency equals the slowest branch.
+ * <p>
+ * The node is asynchronous and holds no thread while waiting. When the timeout elapses or a
+ * branch fails, the {@link PartialResultPolicy} decides whether the graph fails or continues
+ * with the results that did arrive; the missing keys are written to {@link #JOIN_MISSING}.
+ *
+ * @author sixiyida
+ * @since 2025/6/27
+ */
+
+public class JoinNode implements AsyncNodeAction {
+
+    private static final Logger logger = LoggerFactory.getLogger(JoinNode.class);
+
+    public static final String JOIN_MISSING = "join_missing";
+
+    private final JoinBarrier barrier;
+
+    private final List<String> keys;
+
+    private final Duration timeout;
+
+    private final PartialResultPolicy partialResultPolicy;
+
+    private JoinNode(Builder builder) {
+        this.barrier = builder.barrier;
+        this.keys = List.copyOf(builder.keys);
+        this.timeout = builder.timeout;
+        this.partialResultPolicy = builder.partialResultPolicy;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> apply(OverAllState state) {
+        String joinId = state.value(JoinBarrier.JOIN_ID, "");
+        if (joinId.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("No join opened, missing state key: " + JoinBarrier.JOIN_ID));
+        }
+
+        long start = System.nanoTime();
+        Map<String, CompletableFuture<Object>> slots = barrier.slots(joinId, keys);
+
+        // 失败的分支按缺失处理，由 partialResultPolicy 决定是否继续
+        CompletableFuture<?>[] settled = slots.values().stream()
+                .map(slot -> slot.handle((value, error) -> null))
+                .toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(settled)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((ignored, error) -> {
+                    barrier.close(joinId);
+
+                    Map<String, Object> updated = new HashMap<>();
+                    List<String> missing = new ArrayList<>();
+                    slots.forEach((key, slot) -> {
+                        if (slot.isDone() && !slot.isCompletedExceptionally()) {
+                            // 跳过的分支不覆盖状态中已有的值
+                            if (slot.join() != JoinBarrier.SKIPPED) {
+                                updated.put(key, slot.join());
+                            }
+                        } else {
+                            missing.add(key);
+                        }
+                    });
+
+                    logger.info("join node completed in {} ms, missing: {}",
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), missing);
+
+                    if (!missing.isEmpty() && partialResultPolicy == PartialResultPolicy.FAIL) {
+                        String reason = error instanceof TimeoutException ? "timed out after " + timeout : "failed";
+                        throw new CompletionException(new IllegalStateException("Join " + reason + ", missing: " + missing));
+                    }
+
+                    updated.put(JOIN_MISSING, missing);
+                    return updated;
+                });
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * What to do when not all branches reported before the timeout, or some of them failed.
+     */
+    public enum PartialResultPolicy {
+
+        /**
+         * Fail the graph.
+         */
+        FAIL,
+
+        /**
+         * Continue with the results that arrived.
+         */
+        PROCEED
+    }
+
+    public static final class Builder {
+
+        private JoinBarrier barrier;
+
+        private final List<String> keys = new ArrayList<>();
+
+        private Duration timeout = Duration.ofSeconds(60);
+
+        private PartialResultPolicy partialResultPolicy = PartialResultPolicy.PROCEED;
+
+        public Builder barrier(JoinBarrier barrier) {
+            this.barrier = barrier;
+            return this;
+        }
+
+        public Builder await(String... keys) {
+            this.keys.addAll(List.of(keys));
+            return this;
+        }
+
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        public Builder partialResultPolicy(PartialResultPolicy partialResultPolicy) {
+            this.partialResultPolicy = partialResultPolicy;
+            return this;
+        }
+
+        public JoinNode build() {
+            if (barrier == null || keys.isEmpty()) {
+                throw new IllegalArgumentException("barrier and awaited keys must be set");
+            }
+            return new JoinNode(this);
+        }
+    }
+}
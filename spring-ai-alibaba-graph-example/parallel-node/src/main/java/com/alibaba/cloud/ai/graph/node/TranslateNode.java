@@ -50,8 +50,11 @@ public class TranslateNode implements NodeAction {
 
     private final String TARGET_LANGUAGE = "English";
 
-    public TranslateNode(ChatClient.Builder chatClientBuilder) {
+    private final JoinBarrier barrier;
+
+    public TranslateNode(ChatClient.Builder chatClientBuilder, JoinBarrier barrier) {
         this.chatClient = chatClientBuilder.build();
+        this.barrier = barrier;
     }
 
     @Override
@@ -63,6 +66,7 @@ public class TranslateNode implements NodeAction {
         
         if (!"assigned".equals(translateStatus)) {
             logger.info("Translate status is not assigned, skipping LLM call");
+            barrier.skip(state.value(JoinBarrier.JOIN_ID, ""), "translate_content");
             return Map.of();
         }
 
@@ -71,13 +75,17 @@ public class TranslateNode implements NodeAction {
 
         logger.info("Calling LLM for translation, setting status to processing");
 
-        Flux<ChatResponse> chatResponseFlux = this.chatClient.prompt().user((user) -> user.text(DEFAULT_PROMPT_TEMPLATE.getTemplate()).param("targetLanguage", targetLanguage).param("query", query)).stream().chatResponse();
+        String joinId = state.value(JoinBarrier.JOIN_ID, "");
+
+        Flux<ChatResponse> chatResponseFlux = this.chatClient.prompt().user((user) -> user.text(DEFAULT_PROMPT_TEMPLATE.getTemplate()).param("targetLanguage", targetLanguage).param("query", query)).stream().chatResponse()
+                .doOnError(e -> barrier.fail(joinId, "translate_content", e));
         Flux<GraphResponse<StreamingOutput>> generator = FluxConverter.builder()
                 .startingNode("translate_llm_stream")
                 .startingState(state)
                 .mapResult(response -> {
                     String text = response.getResult().getOutput().getText();
                     List<String> queryVariants = Arrays.asList(text.split("\n"));
+                    barrier.arrive(joinId, "translate_content", queryVariants);
                     return Map.of("translate_content", queryVariants, "translate_status", "completed");
                 }).build(chatResponseFlux);
         
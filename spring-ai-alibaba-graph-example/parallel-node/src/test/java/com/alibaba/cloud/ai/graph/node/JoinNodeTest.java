@@ -0,0 +1,90 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.graph.node;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * @author sixiyida
+ * @since 2025/6/27
+ */
+
+class JoinNodeTest {
+
+    private final JoinBarrier barrier = new JoinBarrier();
+
+    private final JoinNode joinNode = JoinNode.builder()
+            .barrier(barrier)
+            .await("expander_content", "translate_content")
+            .timeout(Duration.ofSeconds(30))
+            .build();
+
+    @Test
+    void completesWhenEveryBranchArrived() throws Exception {
+        String joinId = barrier.open();
+        barrier.arrive(joinId, "expander_content", List.of("a"));
+        barrier.arrive(joinId, "translate_content", List.of("b"));
+
+        Map<String, Object> updated = joinNode.apply(new OverAllState(Map.of(JoinBarrier.JOIN_ID, joinId)))
+                .get(1, TimeUnit.SECONDS);
+
+        assertEquals(List.of("a"), updated.get("expander_content"));
+        assertEquals(List.of("b"), updated.get("translate_content"));
+        assertEquals(List.of(), updated.get(JoinNode.JOIN_MISSING));
+    }
+
+    @Test
+    void doesNotWaitForSkippedBranch() throws Exception {
+        String joinId = barrier.open();
+        // 同一 thread 的第二次请求，translate 已完成不再执行，只报告跳过
+        barrier.skip(joinId, "translate_content");
+        barrier.arrive(joinId, "expander_content", List.of("a"));
+
+        Map<String, Object> updated = joinNode.apply(new OverAllState(Map.of(JoinBarrier.JOIN_ID, joinId)))
+                .get(1, TimeUnit.SECONDS);
+
+        assertEquals(List.of("a"), updated.get("expander_content"));
+        // 跳过的分支保留状态中已有的值，也不算缺失
+        assertFalse(updated.containsKey("translate_content"));
+        assertEquals(List.of(), updated.get(JoinNode.JOIN_MISSING));
+    }
+
+    @Test
+    void reportsBranchThatNeverArrivedAsMissing() throws Exception {
+        JoinNode shortJoin = JoinNode.builder()
+                .barrier(barrier)
+                .await("expander_content", "translate_content")
+                .timeout(Duration.ofMillis(50))
+                .build();
+        String joinId = barrier.open();
+        barrier.arrive(joinId, "expander_content", List.of("a"));
+
+        Map<String, Object> updated = shortJoin.apply(new OverAllState(Map.of(JoinBarrier.JOIN_ID, joinId)))
+                .get(1, TimeUnit.SECONDS);
+
+        assertEquals(List.of("translate_content"), updated.get(JoinNode.JOIN_MISSING));
+    }
+}
@@ -20,6 +20,7 @@ import com.alibaba.cloud.ai.graph.*;
 import com.alibaba.cloud.ai.graph.action.AsyncNodeAction;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
 import com.alibaba.cloud.ai.graph.agent.ReflectAgent;
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
 import com.alibaba.cloud.ai.graph.exception.GraphStateException;
 import com.alibaba.cloud.ai.graph.node.LlmNode;
 import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
@@ -33,18 +34,57 @@ import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
 
 @Configuration
 public class RelectionAutoconfiguration {
 
+	/**
+	 * Single node inner graph, built and compiled once and shared by all invocations.
+	 * <p>
+	 * Every {@link #call} starts from a fresh state built from its inputs and no checkpoint is
+	 * saved, so concurrent calls do not share state. The {@link LlmNode} keeps per-call fields,
+	 * hence a new one is created for each invocation, which is cheap compared to compiling.
+	 */
+	public static class CompiledSubgraph {
+
+		private final CompiledGraph compiledGraph;
+
+		public CompiledSubgraph(String nodeId, Supplier<LlmNode> llmNodeSupplier) throws GraphStateException {
+			KeyStrategyFactory keyStrategyFactory = () -> {
+				HashMap<String, KeyStrategy> keyStrategyHashMap = new HashMap<>();
+
+				keyStrategyHashMap.put(ReflectAgent.MESSAGES, new AppendStrategy());
+				return keyStrategyHashMap;
+			};
+
+			NodeAction nodeAction = state -> llmNodeSupplier.get().apply(state);
+			StateGraph stateGraph = new StateGraph(keyStrategyFactory).addNode(nodeId, AsyncNodeAction.node_async(nodeAction))
+				.addEdge(StateGraph.START, nodeId)
+				.addEdge(nodeId, StateGraph.END);
+
+			// 不保存 checkpoint，每次调用的状态互相隔离，也不会在复用的图上累积
+			this.compiledGraph = stateGraph
+				.compile(CompileConfig.builder().saverConfig(SaverConfig.builder().build()).build());
+		}
+
+		public List<Message> call(List<Message> messages) {
+			OverAllState invokeState = compiledGraph.call(Map.of(ReflectAgent.MESSAGES, messages)).orElseThrow();
+
+			return new ArrayList<>((List<Message>) invokeState.value(ReflectAgent.MESSAGES).orElseThrow());
+		}
+
+	}
+
 	public static class AssistantGraphNode implements NodeAction {
 
-		private final LlmNode llmNode;
+		private final CompiledSubgraph subgraph;
 
 		private SystemPromptTemplate systemPromptTemplate;
 
@@ -58,13 +98,14 @@ public class RelectionAutoconfiguration {
 				    Please answer in Chinese:
 				""";
 
-		public AssistantGraphNode(ChatClient chatClient) {
+		public AssistantGraphNode(ChatClient chatClient) throws GraphStateException {
 			this.systemPromptTemplate = new SystemPromptTemplate(CLASSIFIER_PROMPT_TEMPLATE);
-			this.llmNode = LlmNode.builder()
-				.systemPromptTemplate(systemPromptTemplate.render())
+			String systemPrompt = systemPromptTemplate.render();
+			this.subgraph = new CompiledSubgraph(this.NODE_ID, () -> LlmNode.builder()
+				.systemPromptTemplate(systemPrompt)
 				.chatClient(chatClient)
 				.messagesKey("messages")
-				.build();
+				.build());
 		}
 
 		public static Builder builder() {
@@ -80,7 +121,7 @@ public class RelectionAutoconfiguration {
 				return this;
 			}
 
-			public AssistantGraphNode build() {
+			public AssistantGraphNode build() throws GraphStateException {
 				if (chatClient == null) {
 					throw new IllegalArgumentException("ChatClient must be provided");
 				}
@@ -94,19 +135,7 @@ public class RelectionAutoconfiguration {
 
 			List<Message> messages = (List<Message>) overAllState.value(ReflectAgent.MESSAGES).get();
 
-			KeyStrategyFactory keyStrategyFactory = () -> {
-				HashMap<String, KeyStrategy> keyStrategyHashMap = new HashMap<>();
-
-				keyStrategyHashMap.put(ReflectAgent.MESSAGES, new AppendStrategy());
-				return keyStrategyHashMap;
-			};
-
-			StateGraph stateGraph = new StateGraph(keyStrategyFactory).addNode(this.NODE_ID, AsyncNodeAction.node_async(llmNode))
-				.addEdge(StateGraph.START, this.NODE_ID)
-				.addEdge(this.NODE_ID, StateGraph.END);
-
-			OverAllState invokeState = stateGraph.compile().call(Map.of(ReflectAgent.MESSAGES, messages)).get();
-			List<Message> reactMessages = (List<Message>) invokeState.value(ReflectAgent.MESSAGES).orElseThrow();
+			List<Message> reactMessages = subgraph.call(messages);
 
 			return Map.of(ReflectAgent.MESSAGES, reactMessages);
 
@@ -116,7 +145,7 @@ public class RelectionAutoconfiguration {
 
 	public static class JudgeGraphNode implements NodeAction {
 
-		private final LlmNode llmNode;
+		private final CompiledSubgraph subgraph;
 
 		private final String NODE_ID = "judge_response";
 
@@ -137,13 +166,14 @@ public class RelectionAutoconfiguration {
 					Please respond in Chinese .
 				""";
 
-		public JudgeGraphNode(ChatClient chatClient) {
+		public JudgeGraphNode(ChatClient chatClient) throws GraphStateException {
 			this.systemPromptTemplate = new SystemPromptTemplate(CLASSIFIER_PROMPT_TEMPLATE);
-			this.llmNode = LlmNode.builder()
+			String systemPrompt = systemPromptTemplate.render();
+			this.subgraph = new CompiledSubgraph(this.NODE_ID, () -> LlmNode.builder()
 				.chatClient(chatClient)
-				.systemPromptTemplate(systemPromptTemplate.render())
+				.systemPromptTemplate(systemPrompt)
 				.messagesKey(ReflectAgent.MESSAGES)
-				.build();
+				.build());
 
 		}
 
@@ -160,7 +190,7 @@ public class RelectionAutoconfiguration {
 				return this;
 			}
 
-			public JudgeGraphNode build() {
+			public JudgeGraphNode build() throws GraphStateException {
 				if (chatClient == null) {
 					throw new IllegalArgumentException("ChatClient must be provided");
 				}
@@ -173,21 +203,7 @@ public class RelectionAutoconfiguration {
 		public Map<String, Object> apply(OverAllState allState) throws Exception {
 			List<Message> messages = (List<Message>) allState.value(ReflectAgent.MESSAGES).get();
 
-
-			KeyStrategyFactory keyStrategyFactory = () -> {
-				HashMap<String, KeyStrategy> keyStrategyHashMap = new HashMap<>();
-
-				keyStrategyHashMap.put(ReflectAgent.MESSAGES, new AppendStrategy());
-				return keyStrategyHashMap;
-			};
-
-			StateGraph stateGraph = new StateGraph(keyStrategyFactory).addNode(this.NODE_ID, AsyncNodeAction.node_async(llmNode))
-				.addEdge(StateGraph.START, this.NODE_ID)
-				.addEdge(this.NODE_ID, StateGraph.END);
-
-			CompiledGraph compile = stateGraph.compile();
-
-			OverAllState invokeState = compile.call(Map.of(ReflectAgent.MESSAGES, messages)).get();
+			List<Message> reactMessages = subgraph.call(messages);
 
 			UnaryOperator<List<Message>> convertLastToUserMessage = messageList -> {
 				int size = messageList.size();
@@ -198,7 +214,6 @@ public class RelectionAutoconfiguration {
 				return messageList;
 			};
 
-			List<Message> reactMessages = (List<Message>) invokeState.value(ReflectAgent.MESSAGES).orElseThrow();
 			convertLastToUserMessage.apply(reactMessages);
 
 			return Map.of(ReflectAgent.MESSAGES, reactMessages);
@@ -4,13 +4,18 @@ import com.alibaba.cloud.ai.graph.CompiledGraph;
 import com.alibaba.cloud.ai.graph.NodeOutput;
 import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
 import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Sinks;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -22,36 +27,136 @@ public class GraphProcess {
 
     private static final Logger logger = LoggerFactory.getLogger(GraphProcess.class);
 
+    /**
+     * 客户端消费过慢时最多缓存的事件数，超出后结束流而不是无限堆积
+     */
+    private static final int MAX_BUFFERED_EVENTS = 256;
+
     private CompiledGraph compiledGraph;
 
     public GraphProcess(CompiledGraph compiledGraph) {
         this.compiledGraph = compiledGraph;
     }
 
-    public void processStream(Flux<NodeOutput> nodeOutputFlux, Sinks.Many<ServerSentEvent<String>> sink) {
-        nodeOutputFlux
-                .doOnNext(output -> {
-                    logger.info("output = {}", output);
-                    String nodeName = output.node();
-                    String content;
-                    if (output instanceof StreamingOutput streamingOutput) {
-                        content = JSON.toJSONString(Map.of(nodeName, streamingOutput.chunk()));
-                    } else {
-                        JSONObject nodeOutput = new JSONObject();
-                        nodeOutput.put("data", output.state().data());
-                        nodeOutput.put("node", nodeName);
-                        content = JSON.toJSONString(nodeOutput);
-                    }
-                    sink.tryEmitNext(ServerSentEvent.builder(content).build());
-                })
-                .doOnComplete(() -> {
-                    // 正常完成
-                    sink.tryEmitComplete();
+    /**
+     * Encode the node outputs as SSE events, every event carries a sequence number as its id.
+     * <p>
+     * Streaming chunks are sent as {@code {"seq", node: chunk}}. For a completed node only the state keys
+     * it changed are sent, as a JSON-patch style list: {@code {"seq", "node", "patch": [{"op", "path", "value"}]}},
+     * the client rebuilds the state by applying the patches in order.
+     * <p>
+     * Changes are detected by value: the encoder keeps a 64-bit structural fingerprint of every sent
+     * value and sends a key when the fingerprint differs. The state of every node output is a clone,
+     * so references say nothing, and in-place updates are caught as well. Only changed keys are
+     * serialized, nothing is copied.
+     */
+    public Flux<ServerSentEvent<String>> processStream(Flux<NodeOutput> nodeOutputFlux) {
+        return Flux.defer(() -> {
+                    StateDiffEncoder encoder = new StateDiffEncoder();
+                    return nodeOutputFlux.map(encoder::encode);
                 })
-                .doOnError(e -> {
-                    logger.error("Error occurred during streaming", e);
-                    sink.tryEmitError(e);
-                })
-                .subscribe();
+                .onBackpressureBuffer(MAX_BUFFERED_EVENTS,
+                        event -> logger.warn("Client too slow, overflow at event {}", event.id()),
+                        BufferOverflowStrategy.ERROR)
+                .doOnError(e -> logger.error("Error occurred during streaming", e));
+    }
+
+    static final class StateDiffEncoder {
+
+        private final Map<String, Long> sent = new HashMap<>();
+
+        private long sequence;
+
+        ServerSentEvent<String> encode(NodeOutput output) {
+            logger.debug("output = {}", output);
+
+            String seq = String.valueOf(++sequence);
+            String nodeName = output.node();
+            if (output instanceof StreamingOutput streamingOutput) {
+                JSONObject chunk = new JSONObject(true);
+                chunk.put("seq", sequence);
+                chunk.put(nodeName, streamingOutput.chunk());
+                return ServerSentEvent.builder(JSON.toJSONString(chunk)).id(seq).build();
+            }
+
+            Map<String, Object> data = output.state().data();
+            JSONArray patch = new JSONArray();
+
+            // 按值的指纹比较，克隆出的新对象内容不变时不会重复发送，原地修改也能被发现
+            data.forEach((key, value) -> {
+                Long last = sent.get(key);
+                long current = fingerprint(value);
+                if (last == null || last != current) {
+                    patch.add(operation(last == null ? "add" : "replace", key, value));
+                    sent.put(key, current);
+                }
+            });
+
+            Iterator<String> keys = sent.keySet().iterator();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                if (!data.containsKey(key)) {
+                    patch.add(operation("remove", key, null));
+                    keys.remove();
+                }
+            }
+
+            JSONObject event = new JSONObject();
+            event.put("seq", sequence);
+            event.put("node", nodeName);
+            event.put("patch", patch);
+            return ServerSentEvent.builder(JSON.toJSONString(event)).id(seq).build();
+        }
+
+        /**
+         * Structural fingerprint of a value: lists are hashed in order, maps and sets regardless of
+         * order, other values by their {@code hashCode}, every step mixed to 64 bits.
+         */
+        static long fingerprint(Object value) {
+            if (value == null) {
+                return 0L;
+            }
+            if (value instanceof Map<?, ?> map) {
+                long hash = 0x4d4150L;
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    hash += mix(fingerprint(entry.getKey()) * 31 + fingerprint(entry.getValue()));
+                }
+                return mix(hash + map.size());
+            }
+            if (value instanceof List<?> list) {
+                long hash = 0x4c4953L;
+                for (Object element : list) {
+                    hash = mix(hash * 31 + fingerprint(element));
+                }
+                return mix(hash + list.size());
+            }
+            if (value instanceof Collection<?> collection) {
+                long hash = 0x534554L;
+                for (Object element : collection) {
+                    hash += mix(fingerprint(element));
+                }
+                return mix(hash + collection.size());
+            }
+            return mix(value.getClass().getName().hashCode() * 31L + value.hashCode());
+        }
+
+        /**
+         * splitmix64 finalizer.
+         */
+        private static long mix(long hash) {
+            hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+            hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+            return hash ^ (hash >>> 31);
+        }
+
+        private static JSONObject operation(String op, String key, Object value) {
+            JSONObject operation = new JSONObject();
+            operation.put("op", op);
+            operation.put("path", "/" + key.replace("~", "~0").replace("/", "~1"));
+            if (!"remove".equals(op)) {
+                operation.put("value", value);
+            }
+            return operation;
+        }
     }
 }
@@ -0,0 +1,120 @@
+package com.alibaba.cloud.ai.graph.controller.GraphProcess;
+
+import com.alibaba.cloud.ai.graph.NodeOutput;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays the patch stream the way a client does and checks it rebuilds {@code state().data()}.
+ *
+ * @author yingzi
+ * @since 2025/6/13
+ */
+
+class StateDiffEncoderTest {
+
+    private final GraphProcess.StateDiffEncoder encoder = new GraphProcess.StateDiffEncoder();
+
+    private final Map<String, Object> client = new HashMap<>();
+
+    private long lastSeq;
+
+    @Test
+    void replayingPatchesRebuildsState() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("query", "spring ai");
+        assertReplayed(data);
+
+        List<String> expanded = new ArrayList<>(List.of("spring ai alibaba"));
+        data.put("expander_content", expanded);
+        assertReplayed(data);
+
+        // 节点原地修改已发送过的 List，包括不改变大小的替换
+        expanded.add("spring ai graph");
+        JSONArray patch = assertReplayed(data);
+        assertEquals(1, patch.size());
+        assertEquals("replace", patch.getJSONObject(0).getString("op"));
+        expanded.set(0, "spring ai alibaba graph");
+        assertEquals(1, assertReplayed(data).size());
+
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("count", 1);
+        data.put("meta", new HashMap<>(Map.of("nested", nested)));
+        assertReplayed(data);
+        nested.put("count", 2);
+        patch = assertReplayed(data);
+        assertEquals(1, patch.size());
+        assertEquals("/meta", patch.getJSONObject(0).getString("path"));
+
+        // 每次节点输出的状态都是克隆，内容相同的新对象不会重复发送
+        Map<String, Object> cloned = new HashMap<>();
+        data.forEach((key, value) -> cloned.put(key, JSON.parseObject(JSON.toJSONString(Map.of("v", value))).get("v")));
+        data.clear();
+        data.putAll(cloned);
+        data.put("query", "spring ai graph");
+        patch = assertReplayed(data);
+        assertEquals(1, patch.size());
+        assertEquals("/query", patch.getJSONObject(0).getString("path"));
+
+        data.remove("query");
+        data.put("a/b~c", "escaped");
+        assertReplayed(data);
+
+        assertTrue(assertReplayed(data).isEmpty());
+    }
+
+    @Test
+    void everyEventCarriesTheNextSeq() {
+        Map<String, Object> data = new HashMap<>(Map.of("query", "spring ai"));
+        assertReplayed(data);
+
+        ServerSentEvent<String> event = encoder.encode(new StreamingOutput("chunk", "expander", new OverAllState(data)));
+        JSONObject chunk = JSON.parseObject(event.data());
+        assertEquals(lastSeq + 1, chunk.getLongValue("seq"));
+        assertEquals(String.valueOf(lastSeq + 1), event.id());
+        assertEquals("chunk", chunk.getString("expander"));
+        lastSeq++;
+
+        // 流式分片不会改变客户端的状态
+        data.put("expander_content", List.of("spring ai alibaba"));
+        assertReplayed(data);
+    }
+
+    private JSONArray assertReplayed(Map<String, Object> data) {
+        ServerSentEvent<String> event = encoder.encode(NodeOutput.of("expander", new OverAllState(data)));
+        JSONObject body = JSON.parseObject(event.data());
+
+        assertEquals(++lastSeq, body.getLongValue("seq"));
+        assertEquals(String.valueOf(lastSeq), event.id());
+        assertEquals("expander", body.getString("node"));
+
+        JSONArray patch = body.getJSONArray("patch");
+        for (int i = 0; i < patch.size(); i++) {
+            apply(patch.getJSONObject(i));
+        }
+        assertEquals(JSON.parseObject(JSON.toJSONString(data)), new JSONObject(client));
+        return patch;
+    }
+
+    private void apply(JSONObject operation) {
+        String key = operation.getString("path").substring(1).replace("~1", "/").replace("~0", "~");
+        switch (operation.getString("op")) {
+            case "add", "replace" -> client.put(key, operation.get("value"));
+            case "remove" -> client.remove(key);
+            default -> throw new IllegalArgumentException(operation.toJSONString());
+        }
+    }
+}
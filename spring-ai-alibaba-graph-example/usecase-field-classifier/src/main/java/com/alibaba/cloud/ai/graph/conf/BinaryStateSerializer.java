@@ -0,0 +1,362 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.alibaba.cloud.ai.graph.conf;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.serializer.plain_text.PlainTextStateSerializer;
+import com.alibaba.cloud.ai.graph.state.AgentStateFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage.ToolResponse;
+import org.springframework.util.ClassUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 二进制状态序列化器，替代 {@link JsonStateSerializerWithTypeInfo} 的 JSON 往返。
+ * <p>
+ * 每个值前写一个类型标记，字符串和集合使用变长长度前缀，不再受 {@code writeUTF} 的 64 KB 限制。
+ * {@link #cloneObject} 不经过序列化：不可变值（字符串、数字、消息）直接共享，只复制 List/Map 容器，
+ * 无法识别的类型才退化为一次带类型信息的 JSON 往返。
+ *
+ * @author yHong
+ * @version 1.0
+ * @since 2025/6/19 15:44
+ */
+public class BinaryStateSerializer extends PlainTextStateSerializer {
+
+    private static final int VERSION = 1;
+
+    private static final int NULL = 0;
+
+    private static final int STRING = 1;
+
+    private static final int INTEGER = 2;
+
+    private static final int LONG = 3;
+
+    private static final int DOUBLE = 4;
+
+    private static final int FLOAT = 5;
+
+    private static final int BOOLEAN = 6;
+
+    private static final int LIST = 7;
+
+    private static final int MAP = 8;
+
+    private static final int ASSISTANT_MESSAGE = 9;
+
+    private static final int TOOL_RESPONSE_MESSAGE = 10;
+
+    private static final int JSON = 11;
+
+    /**
+     * 仅用于未知类型的兜底编码，需要能按具体类型反序列化
+     */
+    private final ObjectMapper mapper;
+
+    public BinaryStateSerializer(AgentStateFactory<OverAllState> stateFactory, ObjectMapper mapper) {
+        super(stateFactory);
+        this.mapper = mapper;
+    }
+
+    @Override
+    public OverAllState cloneObject(OverAllState state) throws IOException {
+        return stateFactory().apply(copyMap(state.data()));
+    }
+
+    @Override
+    public void write(OverAllState obj, ObjectOutput out) throws IOException {
+        Map<String, Object> data = obj.data();
+        out.writeByte(VERSION);
+        writeVarInt(out, data.size());
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            writeString(out, entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    @Override
+    public OverAllState read(ObjectInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported state format version: " + version);
+        }
+
+        int size = readVarInt(in);
+        Map<String, Object> data = new HashMap<>(capacity(size));
+        for (int i = 0; i < size; i++) {
+            data.put(readString(in), readValue(in));
+        }
+        return stateFactory().apply(data);
+    }
+
+    private void writeValue(DataOutput out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        }
+        else if (value instanceof String text) {
+            out.writeByte(STRING);
+            writeString(out, text);
+        }
+        else if (value instanceof Integer number) {
+            out.writeByte(INTEGER);
+            out.writeInt(number);
+        }
+        else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeLong(number);
+        }
+        else if (value instanceof Double number) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(number);
+        }
+        else if (value instanceof Float number) {
+            out.writeByte(FLOAT);
+            out.writeFloat(number);
+        }
+        else if (value instanceof Boolean flag) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(flag);
+        }
+        else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            writeVarInt(out, list.size());
+            for (Object item : list) {
+                writeValue(out, item);
+            }
+        }
+        else if (value instanceof Map<?, ?> map) {
+            out.writeByte(MAP);
+            writeVarInt(out, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        }
+        else if (value instanceof AssistantMessage message) {
+            out.writeByte(ASSISTANT_MESSAGE);
+            writeValue(out, message.getText());
+            writeValue(out, message.getMetadata());
+            List<ToolCall> toolCalls = message.getToolCalls();
+            writeVarInt(out, toolCalls.size());
+            for (ToolCall toolCall : toolCalls) {
+                writeValue(out, toolCall.id());
+                writeValue(out, toolCall.type());
+                writeValue(out, toolCall.name());
+                writeValue(out, toolCall.arguments());
+            }
+        }
+        else if (value instanceof ToolResponseMessage message) {
+            out.writeByte(TOOL_RESPONSE_MESSAGE);
+            List<ToolResponse> responses = message.getResponses();
+            writeVarInt(out, responses.size());
+            for (ToolResponse response : responses) {
+                writeValue(out, response.id());
+                writeValue(out, response.name());
+                writeValue(out, response.responseData());
+            }
+            writeValue(out, message.getMetadata());
+        }
+        else {
+            out.writeByte(JSON);
+            writeString(out, value.getClass().getName());
+            writeBytes(out, mapper.writeValueAsBytes(value));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readValue(DataInput in) throws IOException {
+        int type = in.readUnsignedByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case BOOLEAN:
+                return in.readBoolean();
+            case LIST: {
+                int size = readVarInt(in);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case MAP: {
+                int size = readVarInt(in);
+                Map<Object, Object> map = new LinkedHashMap<>(capacity(size));
+                for (int i = 0; i < size; i++) {
+                    map.put(readValue(in), readValue(in));
+                }
+                return map;
+            }
+            case ASSISTANT_MESSAGE: {
+                String text = (String) readValue(in);
+                Map<String, Object> metadata = (Map<String, Object>) readValue(in);
+                int size = readVarInt(in);
+                List<ToolCall> toolCalls = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    toolCalls.add(new ToolCall((String) readValue(in), (String) readValue(in),
+                            (String) readValue(in), (String) readValue(in)));
+                }
+                return new AssistantMessage(text, metadata != null ? metadata : new HashMap<>(), toolCalls);
+            }
+            case TOOL_RESPONSE_MESSAGE: {
+                int size = readVarInt(in);
+                List<ToolResponse> responses = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    responses.add(new ToolResponse((String) readValue(in), (String) readValue(in),
+                            (String) readValue(in)));
+                }
+                Map<String, Object> metadata = (Map<String, Object>) readValue(in);
+                return new ToolResponseMessage(responses, metadata != null ? metadata : new HashMap<>());
+            }
+            case JSON: {
+                String className = readString(in);
+                byte[] json = readBytes(in);
+                try {
+                    return mapper.readValue(json, ClassUtils.forName(className, getClass().getClassLoader()));
+                }
+                catch (ClassNotFoundException e) {
+                    throw new IOException("Unknown state value type: " + className, e);
+                }
+            }
+            default:
+                throw new IOException("Unknown state value tag: " + type);
+        }
+    }
+
+    private Map<String, Object> copyMap(Map<String, Object> data) throws IOException {
+        Map<String, Object> copy = new HashMap<>(capacity(data.size()));
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            copy.put(entry.getKey(), copyValue(entry.getValue()));
+        }
+        return copy;
+    }
+
+    private Object copyValue(Object value) throws IOException {
+        if (value == null || isImmutable(value)) {
+            return value;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object item : list) {
+                copy.add(copyValue(item));
+            }
+            return copy;
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>(capacity(map.size()));
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                copy.put(entry.getKey(), copyValue(entry.getValue()));
+            }
+            return copy;
+        }
+
+        // 无法判断是否可变的类型，用一次二进制往返得到独立副本
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        writeValue(new DataOutputStream(buffer), value);
+        return readValue(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+    }
+
+    /**
+     * 状态中的消息写入后不会再被修改，按不可变值共享
+     */
+    private static boolean isImmutable(Object value) {
+        return value instanceof String || value instanceof Integer || value instanceof Long
+                || value instanceof Double || value instanceof Float || value instanceof Short
+                || value instanceof Byte || value instanceof Boolean || value instanceof Character
+                || value instanceof BigDecimal || value instanceof BigInteger || value instanceof Enum<?>
+                || value instanceof Message;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IOException("Negative length in state stream: " + value);
+                }
+                return value;
+            }
+        }
+        throw new IOException("Malformed length in state stream");
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+}
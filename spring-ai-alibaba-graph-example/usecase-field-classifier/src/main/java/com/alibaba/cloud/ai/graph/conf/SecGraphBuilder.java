@@ -31,9 +31,14 @@ import com.alibaba.cloud.ai.graph.state.AgentStateFactory;
 import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
 import com.alibaba.cloud.ai.graph.dispatcher.HumanFeedbackDispatcher;
 import com.alibaba.cloud.ai.graph.dispatcher.SensitiveDispatcher;
+import com.alibaba.cloud.ai.graph.nodes.BatchClftNode;
+import com.alibaba.cloud.ai.graph.nodes.BatchSaveNode;
+import com.alibaba.cloud.ai.graph.nodes.BatchSensitiveWordDecNode;
 import com.alibaba.cloud.ai.graph.nodes.ClftNode;
 import com.alibaba.cloud.ai.graph.nodes.HumanFeedbackNode;
 import com.alibaba.cloud.ai.graph.nodes.SensitiveWordDecNode;
+import com.alibaba.cloud.ai.graph.sensitive.SensitiveWordLibrary;
+import com.alibaba.cloud.ai.graph.server.service.IFieldService;
 import com.alibaba.cloud.ai.graph.tools.FieldSaveTool;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -45,9 +50,11 @@ import org.springframework.ai.chat.messages.ToolResponseMessage;
 import org.springframework.ai.tool.resolution.ToolCallbackResolver;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -68,7 +75,8 @@ public class SecGraphBuilder {
     public StateGraph secGraph(ChatClient.Builder chatClientBuilder,
                                @Qualifier("classificationVectorStore") VectorStore classificationVectorStore,
                                FieldSaveTool toolBack,
-                               ToolCallbackResolver toolCallbackResolver
+                               ToolCallbackResolver toolCallbackResolver,
+                               SensitiveWordLibrary sensitiveWordLibrary
     ) throws GraphStateException {
         KeyStrategyFactory keyStrategyFactory = new KeyStrategyFactoryBuilder()
                 .addPatternStrategy("field", new ReplaceStrategy())
@@ -81,25 +89,9 @@ public class SecGraphBuilder {
                 .addPatternStrategy("human_next_node", new ReplaceStrategy())
                 .build();
 
-        AgentStateFactory<OverAllState> factory = OverAllState::new;
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.activateDefaultTyping(
-                mapper.getPolymorphicTypeValidator(),
-                ObjectMapper.DefaultTyping.NON_FINAL,
-                JsonTypeInfo.As.PROPERTY
-        );
-
-        // 注册反序列化器
-        SimpleModule module = new SimpleModule();
-        module.addDeserializer(AssistantMessage.class, new AssistantMessageDeserializer());
-        module.addDeserializer(ToolResponseMessage.class, new ToolResponseMessageDeserializer());
-        mapper.registerModule(module);
-
-        JsonStateSerializerWithTypeInfo serializer = new JsonStateSerializerWithTypeInfo(factory, mapper);
-
-        StateGraph stateGraph = new StateGraph(keyStrategyFactory, serializer);
+        StateGraph stateGraph = new StateGraph(keyStrategyFactory, stateSerializer());
         stateGraph.addEdge(START, "sensitive")
-                .addNode("sensitive", node_async(new SensitiveWordDecNode()))
+                .addNode("sensitive", node_async(new SensitiveWordDecNode(sensitiveWordLibrary)))
                 .addNode("answer", node_async(AnswerNode.builder().answer("您的输入{{field}}包含了敏感内容！").build()))
                 .addEdge("answer", StateGraph.END)
                 .addNode("clft", node_async(new ClftNode(chatClientBuilder, classificationVectorStore, toolBack)))
@@ -121,5 +113,68 @@ public class SecGraphBuilder {
         return stateGraph;
     }
 
+    /**
+     * 批量分类图：敏感词过滤 -> 分块并发分类 -> 批量保存，需要复核的字段通过 review_results 返回，
+     * 由调用方逐个走 secGraph 的人工反馈流程
+     */
+    @Bean
+    public StateGraph secBatchGraph(ChatClient.Builder chatClientBuilder,
+                                    @Qualifier("classificationVectorStore") VectorStore classificationVectorStore,
+                                    IFieldService fieldService,
+                                    SensitiveWordLibrary sensitiveWordLibrary,
+                                    @Value("${field-classifier.batch.chunk-size:50}") int chunkSize,
+                                    @Value("${field-classifier.batch.concurrency:4}") int concurrency,
+                                    @Value("${field-classifier.batch.permits-per-second:2}") double permitsPerSecond,
+                                    @Value("${field-classifier.batch.review-level:4}") int reviewLevel,
+                                    @Value("${field-classifier.batch.chunk-timeout:120s}") Duration chunkTimeout
+    ) throws GraphStateException {
+        KeyStrategyFactory keyStrategyFactory = new KeyStrategyFactoryBuilder()
+                .addPatternStrategy("fields", new ReplaceStrategy())
+                .addPatternStrategy(BatchSensitiveWordDecNode.CLEAN_KEY, new ReplaceStrategy())
+                .addPatternStrategy(BatchSensitiveWordDecNode.REJECTED_KEY, new ReplaceStrategy())
+                .addPatternStrategy(BatchClftNode.OUTPUT_KEY, new ReplaceStrategy())
+                .addPatternStrategy(BatchClftNode.REVIEW_KEY, new ReplaceStrategy())
+                .addPatternStrategy(BatchSaveNode.OUTPUT_KEY, new ReplaceStrategy())
+                .build();
+
+        StateGraph stateGraph = new StateGraph(keyStrategyFactory, stateSerializer());
+        stateGraph.addEdge(START, "batch_sensitive")
+                .addNode("batch_sensitive", node_async(new BatchSensitiveWordDecNode(sensitiveWordLibrary)))
+                .addNode("batch_clft", node_async(new BatchClftNode(chatClientBuilder, classificationVectorStore,
+                        chunkSize, concurrency, permitsPerSecond, reviewLevel, chunkTimeout)))
+                .addNode("batch_save", node_async(new BatchSaveNode(fieldService)))
+                .addEdge("batch_sensitive", "batch_clft")
+                .addEdge("batch_clft", "batch_save")
+                .addEdge("batch_save", StateGraph.END);
+
+        return stateGraph;
+    }
+
+    static BinaryStateSerializer stateSerializer() {
+        AgentStateFactory<OverAllState> factory = OverAllState::new;
+
+        // 二进制序列化器，mapper 只用于未知类型的兜底编码
+        return new BinaryStateSerializer(factory, stateObjectMapper());
+    }
+
+    /**
+     * 带类型信息的 ObjectMapper，与 {@link JsonStateSerializerWithTypeInfo} 使用的配置一致
+     */
+    static ObjectMapper stateObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.activateDefaultTyping(
+                mapper.getPolymorphicTypeValidator(),
+                ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY
+        );
+
+        // 注册反序列化器
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(AssistantMessage.class, new AssistantMessageDeserializer());
+        module.addDeserializer(ToolResponseMessage.class, new ToolResponseMessageDeserializer());
+        mapper.registerModule(module);
+
+        return mapper;
+    }
 
 }
@@ -29,12 +29,17 @@ import com.alibaba.cloud.ai.graph.checkpoint.constant.SaverEnum;
 import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
 import com.alibaba.cloud.ai.graph.exception.GraphRunnerException;
 import com.alibaba.cloud.ai.graph.exception.GraphStateException;
+import com.alibaba.cloud.ai.graph.nodes.BatchClftNode;
+import com.alibaba.cloud.ai.graph.nodes.BatchSaveNode;
+import com.alibaba.cloud.ai.graph.nodes.BatchSensitiveWordDecNode;
 import com.alibaba.cloud.ai.graph.state.StateSnapshot;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -42,6 +47,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -54,12 +60,17 @@ import java.util.Map;
 @Slf4j
 public class SecGraphController {
     private final CompiledGraph compiledGraph;
+    private final CompiledGraph batchGraph;
 
-    public SecGraphController(@Qualifier("secGraph") StateGraph stateGraph) throws GraphStateException {
+    public SecGraphController(@Qualifier("secGraph") StateGraph stateGraph,
+                              @Qualifier("secBatchGraph") StateGraph batchStateGraph) throws GraphStateException {
         SaverConfig saverConfig = SaverConfig.builder().register(SaverEnum.MEMORY.getValue(), new MemorySaver()).build();
 
         this.compiledGraph = stateGraph
                 .compile(CompileConfig.builder().saverConfig(saverConfig).interruptBefore("human").build());
+        // 批量图不需要中断恢复，不注册 saver，避免每次调用都把整批字段和结果存进默认 thread 的检查点
+        this.batchGraph = batchStateGraph
+                .compile(CompileConfig.builder().saverConfig(SaverConfig.builder().build()).build());
     }
 
     @GetMapping(value = "/chat", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -75,6 +86,18 @@ public class SecGraphController {
                 .doOnError(e -> log.error("Error occurred during streaming", e));
     }
 
+    // batch classify, review_results 中的字段可再通过 /chat 走人工复核流程
+    @PostMapping("/batch")
+    public Map<String, Object> batch(@RequestBody List<String> fieldNames) throws Exception {
+        OverAllState state = batchGraph.invoke(Map.of("fields", fieldNames)).orElseThrow();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("saved", state.value(BatchSaveNode.OUTPUT_KEY, 0));
+        result.put("review", state.value(BatchClftNode.REVIEW_KEY, List.of()));
+        result.put("rejected", state.value(BatchSensitiveWordDecNode.REJECTED_KEY, List.of()));
+        return result;
+    }
+
     // resume workflow
     @GetMapping(value = "/resume", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<ServerSentEvent<String>> resume(@RequestParam(value = "thread_id", defaultValue = "yhong", required = false) String threadId,
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.alibaba.cloud.ai.graph.nodes;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * @author yHong
+ * @version 1.0
+ * 批量分类分级：按字段名归一化排序后切块，相近字段落在同一块里共享一次向量检索和一次模型调用，
+ * 各块在节点共享的有界线程池和限流下并发执行，所有请求合计最多 concurrency 个模型调用。
+ * 分级达到复核阈值、模型未给出结果、结果不合法或单块超时的字段进入人工复核列表。
+ * @since 2025/6/19 15:44
+ */
+@Slf4j
+public class BatchClftNode implements NodeAction {
+    public static final String OUTPUT_KEY = "batch_results";
+    public static final String REVIEW_KEY = "review_results";
+
+    private static final String SYSTEM_PROMPT = """
+            你是一个数据安全分类分级助手。用户会给出一组字段名（每行一个），请结合下方提供的字段分类知识，
+            逐个判断每个字段属于哪个分类路径，分级是多少，并简要说明理由。
+
+            只输出一个 JSON 数组，不要输出其它内容，数组中每个元素对应一个字段，格式如下：
+            [
+              {
+                "fieldName": "xxx",
+                "classification": "一级 > 二级 > 三级",
+                "level": 3,
+                "reasoning": "你的解释理由"
+              }
+            ]
+
+            字段分类知识：
+            """;
+
+    private final ChatClient chatClient;
+    private final VectorStore classificationVectorStore;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int chunkSize;
+    private final ExecutorService executor;
+    private final long permitIntervalNanos;
+    private final int reviewLevel;
+    private final long chunkTimeoutMillis;
+
+    private long nextPermitNanos;
+
+    /**
+     * @param chunkSize         每次模型调用包含的字段数
+     * @param concurrency       同时进行的模型调用数
+     * @param permitsPerSecond  每秒最多发起的模型调用数
+     * @param reviewLevel       分级大于等于该值的字段需要人工复核
+     * @param chunkTimeout      等待单块结果的最长时间，超时的块转人工复核
+     */
+    public BatchClftNode(ChatClient.Builder modelBuilder, VectorStore classificationVectorStore,
+                         int chunkSize, int concurrency, double permitsPerSecond, int reviewLevel, Duration chunkTimeout) {
+        this.chatClient = modelBuilder.build();
+        this.classificationVectorStore = classificationVectorStore;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.permitIntervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0L;
+        this.reviewLevel = reviewLevel;
+        this.chunkTimeoutMillis = chunkTimeout.toMillis();
+        this.executor = newExecutor(Math.max(1, concurrency));
+    }
+
+    @Override
+    public Map<String, Object> apply(OverAllState state) throws Exception {
+        List<String> fields = state.value(BatchSensitiveWordDecNode.CLEAN_KEY, List.of());
+        if (fields.isEmpty()) {
+            return Map.of(OUTPUT_KEY, List.of(), REVIEW_KEY, List.of());
+        }
+
+        // 归一化后排序，使 user_name / userName / user_phone 这类相近字段落在同一块
+        List<String> sorted = fields.stream()
+                .sorted(Comparator.comparing(BatchClftNode::normalize))
+                .toList();
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i += chunkSize) {
+            chunks.add(sorted.subList(i, Math.min(i + chunkSize, sorted.size())));
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        List<Map<String, Object>> reviews = new ArrayList<>();
+        List<Future<List<Map<String, Object>>>> futures = new ArrayList<>();
+        try {
+            for (List<String> chunk : chunks) {
+                try {
+                    futures.add(executor.submit(() -> {
+                        acquirePermit();
+                        return classify(chunk);
+                    }));
+                }
+                catch (RejectedExecutionException e) {
+                    // 排队的块已满，本块直接转人工复核
+                    futures.add(CompletableFuture.failedFuture(e));
+                }
+            }
+
+            for (int i = 0; i < chunks.size(); i++) {
+                List<Map<String, Object>> classified;
+                try {
+                    classified = futures.get(i).get(chunkTimeoutMillis, TimeUnit.MILLISECONDS);
+                }
+                catch (TimeoutException e) {
+                    futures.get(i).cancel(true);
+                    log.warn("批量分类超时, 本块 {} 个字段转人工复核", chunks.get(i).size());
+                    chunks.get(i).forEach(field -> reviews.add(review(field, "批量分类超时", null)));
+                    continue;
+                }
+                catch (ExecutionException e) {
+                    String message = e.getCause() == null ? e.getMessage() : e.getCause().getMessage();
+                    log.warn("批量分类失败, 本块 {} 个字段转人工复核: {}", chunks.get(i).size(), message);
+                    chunks.get(i).forEach(field -> reviews.add(review(field, "批量分类失败: " + message, null)));
+                    continue;
+                }
+                route(chunks.get(i), classified, results, reviews);
+            }
+        }
+        finally {
+            // 请求结束或被中断时取消本请求还在排队或执行的块，线程池本身由节点持有
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        log.info("批量分类完成, 字段数: {}, 块数: {}, 自动通过: {}, 待复核: {}",
+                fields.size(), chunks.size(), results.size(), reviews.size());
+        return Map.of(OUTPUT_KEY, results, REVIEW_KEY, reviews);
+    }
+
+    private List<Map<String, Object>> classify(List<String> chunk) throws Exception {
+        // 整块字段共用一次检索，文档按 id 去重
+        List<Document> documents = classificationVectorStore.similaritySearch(SearchRequest.builder()
+                .query(String.join("\n", chunk))
+                .topK(Math.max(5, Math.min(chunk.size(), 20)))
+                .similarityThresholdAll()
+                .build());
+        String context = documents == null ? "" : documents.stream()
+                .filter(document -> document.getText() != null)
+                .collect(Collectors.toMap(Document::getId, Document::getText, (first, second) -> first, LinkedHashMap::new))
+                .values().stream()
+                .collect(Collectors.joining("\n"));
+
+        String content = chatClient.prompt()
+                .system(SYSTEM_PROMPT + context)
+                .user(String.join("\n", chunk))
+                .call()
+                .content();
+        return objectMapper.readValue(stripCodeFence(content), new TypeReference<>() {
+        });
+    }
+
+    private void route(List<String> chunk, List<Map<String, Object>> classified,
+                       List<Map<String, Object>> results, List<Map<String, Object>> reviews) {
+        Map<String, Map<String, Object>> byName = new HashMap<>();
+        for (Map<String, Object> item : classified) {
+            if (item.get("fieldName") instanceof String name) {
+                byName.putIfAbsent(name, item);
+            }
+        }
+
+        for (String field : chunk) {
+            Map<String, Object> item = byName.get(field);
+            if (item == null) {
+                reviews.add(review(field, "模型未返回该字段的结果", null));
+                continue;
+            }
+            if (!(item.get("level") instanceof Number level) || !(item.get("classification") instanceof String classification)
+                    || classification.isBlank()) {
+                reviews.add(review(field, "模型返回的结果不完整", item));
+                continue;
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("fieldName", field);
+            result.put("classification", classification);
+            result.put("level", level.intValue());
+            result.put("reasoning", String.valueOf(item.getOrDefault("reasoning", "")));
+            if (level.intValue() >= reviewLevel) {
+                reviews.add(review(field, "分级达到人工复核阈值", result));
+            }
+            else {
+                results.add(result);
+            }
+        }
+    }
+
+    /**
+     * 节点内所有请求共用的线程池，线程数即全局模型调用并发上限，排队的块已满时拒绝新的块
+     */
+    private static ExecutorService newExecutor(int concurrency) {
+        AtomicInteger index = new AtomicInteger();
+        return new ThreadPoolExecutor(concurrency, concurrency, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(concurrency * 64), runnable -> {
+                    Thread thread = new Thread(runnable, "field-clft-batch-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    private static Map<String, Object> review(String field, String reason, Map<String, Object> proposal) {
+        Map<String, Object> review = new HashMap<>();
+        review.put("fieldName", field);
+        review.put("reason", reason);
+        if (proposal != null) {
+            review.put("proposal", proposal);
+        }
+        return review;
+    }
+
+    /**
+     * 简单的固定间隔限流，保证相邻两次模型调用的发起时间至少间隔 permitIntervalNanos
+     */
+    private void acquirePermit() throws InterruptedException {
+        if (permitIntervalNanos <= 0) {
+            return;
+        }
+
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long permit = Math.max(now, nextPermitNanos);
+            nextPermitNanos = permit + permitIntervalNanos;
+            waitNanos = permit - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private static String normalize(String field) {
+        return field.replaceAll("[_\\-\\s.]", "").toLowerCase(Locale.ROOT) + "\u0000" + field;
+    }
+
+    private static String stripCodeFence(String content) {
+        String text = content == null ? "" : content.trim();
+        if (text.startsWith("```")) {
+            int start = text.indexOf('\n');
+            int end = text.lastIndexOf("```");
+            if (start >= 0 && end > start) {
+                text = text.substring(start + 1, end).trim();
+            }
+        }
+        return text;
+    }
+}
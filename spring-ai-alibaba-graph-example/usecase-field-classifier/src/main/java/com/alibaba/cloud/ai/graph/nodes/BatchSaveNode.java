@@ -0,0 +1,68 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.alibaba.cloud.ai.graph.nodes;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.server.entity.Field;
+import com.alibaba.cloud.ai.graph.server.service.IFieldService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author yHong
+ * @version 1.0
+ * 批量保存无需人工复核的分类结果
+ * @since 2025/6/19 15:44
+ */
+@Slf4j
+public class BatchSaveNode implements NodeAction {
+    public static final String OUTPUT_KEY = "saved_count";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final IFieldService fieldService;
+
+    public BatchSaveNode(IFieldService fieldService) {
+        this.fieldService = fieldService;
+    }
+
+    @Override
+    public Map<String, Object> apply(OverAllState state) throws Exception {
+        List<Map<String, Object>> results = state.value(BatchClftNode.OUTPUT_KEY, List.of());
+        if (results.isEmpty()) {
+            return Map.of(OUTPUT_KEY, 0);
+        }
+
+        List<Field> fields = results.stream().map(BatchSaveNode::toField).toList();
+        fieldService.saveBatch(fields, BATCH_SIZE);
+        log.info("批量保存字段分类结果: {} 条", fields.size());
+        return Map.of(OUTPUT_KEY, fields.size());
+    }
+
+    private static Field toField(Map<String, Object> result) {
+        Field field = new Field();
+        field.setFieldName((String) result.get("fieldName"));
+        field.setClassification((String) result.get("classification"));
+        field.setLevel(((Number) result.get("level")).intValue());
+        field.setReasoning((String) result.get("reasoning"));
+        return field;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.alibaba.cloud.ai.graph.nodes;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.sensitive.AhoCorasickAutomaton;
+import com.alibaba.cloud.ai.graph.sensitive.SensitiveWordLibrary;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author yHong
+ * @version 1.0
+ * 批量模式的敏感词检测，命中敏感词的字段不再进入分类
+ * @since 2025/6/19 15:44
+ */
+@Slf4j
+public class BatchSensitiveWordDecNode implements NodeAction {
+    public static final String CLEAN_KEY = "clean_fields";
+    public static final String REJECTED_KEY = "rejected_fields";
+
+    private final SensitiveWordLibrary library;
+
+    public BatchSensitiveWordDecNode(SensitiveWordLibrary library) {
+        this.library = library;
+    }
+
+    @Override
+    public Map<String, Object> apply(OverAllState state) throws Exception {
+        List<String> fields = state.value("fields", List.of());
+        AhoCorasickAutomaton automaton = library.automaton();
+
+        List<String> clean = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        // 去重并去掉空字段名
+        for (String field : new LinkedHashSet<>(fields)) {
+            if (field == null || field.isBlank()) {
+                continue;
+            }
+            if (automaton.containsAny(field)) {
+                rejected.add(field);
+            }
+            else {
+                clean.add(field);
+            }
+        }
+
+        log.info("批量敏感词检测完成, 待分类: {}, 命中敏感词: {}", clean.size(), rejected.size());
+        return Map.of(CLEAN_KEY, clean, REJECTED_KEY, rejected);
+    }
+}
@@ -19,13 +19,16 @@ package com.alibaba.cloud.ai.graph.nodes;
 
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.sensitive.SensitiveWordLibrary;
 import lombok.extern.slf4j.Slf4j;
 
 
 import java.util.Map;
-import java.util.Set;
 
 /**
+ * 敏感词检测节点：用 Aho-Corasick 自动机在 field 全文中查找词库中的任意词，命中即判定为敏感，
+ * 在调用分类大模型之前拦截。
+ *
  * @author yHong
  * @version 1.0
  * @since 2025/6/18 15:58
@@ -34,9 +37,19 @@ import java.util.Set;
 public class SensitiveWordDecNode implements NodeAction {
     public static final String OUTPUT_KEY = "is_sensitive";
 
+    private final SensitiveWordLibrary library;
+
+    public SensitiveWordDecNode(SensitiveWordLibrary library) {
+        this.library = library;
+    }
+
     @Override
     public Map<String, Object> apply(OverAllState state) throws Exception {
-        Set<String> black = Set.of("暴力", "中国民主党");
-        return Map.of(OUTPUT_KEY, black.contains(state.value("field").orElse("")) ? "yes" : "no");
+        String field = state.value("field", "");
+        String hit = library.automaton().firstMatch(field);
+        if (hit != null) {
+            log.info("字段命中敏感词: {}", hit);
+        }
+        return Map.of(OUTPUT_KEY, hit != null ? "yes" : "no");
     }
 }
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.alibaba.cloud.ai.graph.sensitive;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable Aho-Corasick automaton over a double-array trie.
+ * <p>
+ * The goto function is stored in the {@code base}/{@code check} arrays, failure and output links
+ * in plain int arrays, so a scan is linear in the input length, walks only primitive arrays and
+ * does not allocate per match. Matching is case-insensitive for characters that have a lower case.
+ *
+ * @author yHong
+ * @version 1.0
+ * @since 2025/6/19 15:44
+ */
+public final class AhoCorasickAutomaton {
+
+    public static final AhoCorasickAutomaton EMPTY = build(List.of());
+
+    private static final int ROOT = 0;
+
+    private static final int FREE = -1;
+
+    /**
+     * char -> 字母表编号，0 表示不在任何词里出现
+     */
+    private final int[] alphabet;
+
+    private final int[] base;
+
+    private final int[] check;
+
+    private final int[] fail;
+
+    /**
+     * 以该状态结尾的词的长度，0 表示不是词尾
+     */
+    private final int[] termLength;
+
+    /**
+     * 失败链上最近的词尾状态，0 表示没有
+     */
+    private final int[] outLink;
+
+    private final int size;
+
+    private final int terms;
+
+    /**
+     * Callback of {@link #scan}, {@code begin} inclusive and {@code end} exclusive.
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+
+        /**
+         * @return {@code false} to stop scanning
+         */
+        boolean onMatch(int begin, int end);
+    }
+
+    private AhoCorasickAutomaton(int[] alphabet, int[] base, int[] check, int[] fail, int[] termLength,
+                                 int[] outLink, int size, int terms) {
+        this.alphabet = alphabet;
+        this.base = base;
+        this.check = check;
+        this.fail = fail;
+        this.termLength = termLength;
+        this.outLink = outLink;
+        this.size = size;
+        this.terms = terms;
+    }
+
+    public int terms() {
+        return terms;
+    }
+
+    public boolean containsAny(CharSequence text) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, text.charAt(i));
+            if (termLength[state] > 0 || outLink[state] != ROOT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the first (leftmost ending) term found in the text, or {@code null}
+     */
+    public String firstMatch(CharSequence text) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, text.charAt(i));
+            int output = termLength[state] > 0 ? state : outLink[state];
+            if (output != ROOT) {
+                return text.subSequence(i + 1 - termLength[output], i + 1).toString();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Report every occurrence of every term, overlapping ones included.
+     */
+    public void scan(CharSequence text, MatchHandler handler) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, text.charAt(i));
+            for (int output = termLength[state] > 0 ? state : outLink[state]; output != ROOT; output = outLink[output]) {
+                if (!handler.onMatch(i + 1 - termLength[output], i + 1)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private int next(int state, char ch) {
+        int code = alphabet[Character.toLowerCase(ch)];
+        if (code == 0) {
+            // 字符不在词库的字母表中，任何词都无法跨过它
+            return ROOT;
+        }
+
+        while (true) {
+            int target = transition(state, code);
+            if (target >= 0) {
+                return target;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    private int transition(int state, int code) {
+        int target = base[state] + code;
+        return target < size && check[target] == state ? target : -1;
+    }
+
+    public static AhoCorasickAutomaton build(Collection<String> words) {
+        int[] alphabet = new int[Character.MAX_VALUE + 1];
+        int codes = 0;
+
+        // 先构建普通 trie，再按层序压缩为双数组
+        TrieNode root = new TrieNode();
+        int terms = 0;
+        for (String word : words) {
+            if (word == null || word.isEmpty()) {
+                continue;
+            }
+
+            TrieNode node = root;
+            for (int i = 0; i < word.length(); i++) {
+                char ch = Character.toLowerCase(word.charAt(i));
+                if (alphabet[ch] == 0) {
+                    alphabet[ch] = ++codes;
+                }
+                node = node.children.computeIfAbsent(alphabet[ch], code -> new TrieNode());
+            }
+            if (node.length == 0) {
+                node.length = word.length();
+                terms++;
+            }
+        }
+
+        DoubleArrayBuilder builder = new DoubleArrayBuilder(codes);
+        Deque<TrieNode> queue = new ArrayDeque<>();
+        root.index = ROOT;
+        builder.check[ROOT] = -2;
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            TrieNode node = queue.poll();
+            builder.termLength[node.index] = node.length;
+            if (node.children.isEmpty()) {
+                continue;
+            }
+
+            int base = builder.findBase(node.children.keySet());
+            builder.base[node.index] = base;
+            for (Map.Entry<Integer, TrieNode> child : node.children.entrySet()) {
+                int index = base + child.getKey();
+                builder.occupy(index, node.index);
+                child.getValue().index = index;
+                queue.add(child.getValue());
+            }
+        }
+
+        int size = builder.size;
+        int[] base = Arrays.copyOf(builder.base, size);
+        int[] check = Arrays.copyOf(builder.check, size);
+        int[] termLength = Arrays.copyOf(builder.termLength, size);
+        int[] fail = new int[size];
+        int[] outLink = new int[size];
+
+        // 层序计算失败指针和输出链
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            TrieNode node = queue.poll();
+            for (Map.Entry<Integer, TrieNode> entry : node.children.entrySet()) {
+                int code = entry.getKey();
+                TrieNode child = entry.getValue();
+                int target = ROOT;
+                if (node.index != ROOT) {
+                    int state = fail[node.index];
+                    while (true) {
+                        int next = base[state] + code;
+                        if (next < size && check[next] == state) {
+                            target = next;
+                            break;
+                        }
+                        if (state == ROOT) {
+                            break;
+                        }
+                        state = fail[state];
+                    }
+                }
+                fail[child.index] = target;
+                outLink[child.index] = termLength[target] > 0 ? target : outLink[target];
+                queue.add(child);
+            }
+        }
+
+        return new AhoCorasickAutomaton(alphabet, base, check, fail, termLength, outLink, size, terms);
+    }
+
+    private static final class TrieNode {
+
+        private final TreeMap<Integer, TrieNode> children = new TreeMap<>();
+
+        private int length;
+
+        private int index;
+    }
+
+    private static final class DoubleArrayBuilder {
+
+        private int[] base;
+
+        private int[] check;
+
+        private int[] termLength;
+
+        private int size = 1;
+
+        private int nextCheckPos = 1;
+
+        DoubleArrayBuilder(int codes) {
+            int capacity = Math.max(1024, codes * 2);
+            this.base = new int[capacity];
+            this.check = new int[capacity];
+            this.termLength = new int[capacity];
+            Arrays.fill(check, FREE);
+        }
+
+        int findBase(Collection<Integer> codes) {
+            int first = codes.iterator().next();
+            int position = Math.max(nextCheckPos, first + 1);
+            int occupied = 0;
+            boolean dense = true;
+            while (true) {
+                ensureCapacity(position + 1);
+                if (check[position] != FREE) {
+                    occupied++;
+                    position++;
+                    continue;
+                }
+
+                // 已扫描区间几乎占满时前移起点，避免后续节点重复扫描稠密区
+                if (dense && occupied >= 32
+                        && (double) occupied / (position - Math.max(nextCheckPos, first + 1) + 1) >= 0.95) {
+                    nextCheckPos = position;
+                }
+                dense = false;
+
+                int base = position - first;
+                boolean fits = true;
+                for (int code : codes) {
+                    ensureCapacity(base + code + 1);
+                    if (check[base + code] != FREE) {
+                        fits = false;
+                        break;
+                    }
+                }
+                if (fits) {
+                    return base;
+                }
+                position++;
+            }
+        }
+
+        void occupy(int index, int parent) {
+            check[index] = parent;
+            size = Math.max(size, index + 1);
+            while (nextCheckPos < check.length && check[nextCheckPos] != FREE) {
+                nextCheckPos++;
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= check.length) {
+                return;
+            }
+
+            int length = Math.max(capacity, check.length * 2);
+            base = Arrays.copyOf(base, length);
+            termLength = Arrays.copyOf(termLength, length);
+            int previous = check.length;
+            check = Arrays.copyOf(check, length);
+            Arrays.fill(check, previous, length, FREE);
+        }
+    }
+}
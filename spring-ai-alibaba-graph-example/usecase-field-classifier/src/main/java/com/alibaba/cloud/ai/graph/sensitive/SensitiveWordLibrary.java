@@ -0,0 +1,137 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.alibaba.cloud.ai.graph.sensitive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 敏感词库：从词表文件编译 {@link AhoCorasickAutomaton}，文件变化时在后台重新编译并原子替换。
+ * <p>
+ * 词表按 UTF-8 每行一个词，空行和以 {@code #} 开头的行会被忽略。只有文件系统上的词表支持热加载，
+ * 重新编译失败时继续使用旧的自动机。
+ *
+ * @author yHong
+ * @version 1.0
+ * @since 2025/6/19 15:44
+ */
+@Slf4j
+@Component
+public class SensitiveWordLibrary implements DisposableBean {
+
+    private final Resource location;
+
+    private final AtomicReference<AhoCorasickAutomaton> automaton = new AtomicReference<>(AhoCorasickAutomaton.EMPTY);
+
+    private final ScheduledExecutorService reloader;
+
+    private volatile long lastModified;
+
+    public SensitiveWordLibrary(
+            @Value("${sensitive-word.location:classpath:sensitive/sensitive-words.txt}") Resource location,
+            @Value("${sensitive-word.reload-interval:30s}") Duration reloadInterval
+    ) throws IOException {
+        this.location = location;
+        this.lastModified = lastModified();
+        this.automaton.set(load());
+        log.info("敏感词库加载完成, 词条数: {}, 来源: {}", automaton.get().terms(), location);
+
+        if (location.isFile() && !reloadInterval.isZero() && !reloadInterval.isNegative()) {
+            this.reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "sensitive-word-reloader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = reloadInterval.toMillis();
+            reloader.scheduleWithFixedDelay(this::reloadIfModified, period, period, TimeUnit.MILLISECONDS);
+        }
+        else {
+            this.reloader = null;
+        }
+    }
+
+    /**
+     * 当前生效的自动机，调用方应在一次检测内持有同一个引用
+     */
+    public AhoCorasickAutomaton automaton() {
+        return automaton.get();
+    }
+
+    private void reloadIfModified() {
+        try {
+            long modified = lastModified();
+            if (modified == lastModified) {
+                return;
+            }
+
+            AhoCorasickAutomaton reloaded = load();
+            automaton.set(reloaded);
+            lastModified = modified;
+            log.info("敏感词库已重新加载, 词条数: {}", reloaded.terms());
+        }
+        catch (Exception e) {
+            log.warn("敏感词库重新加载失败, 继续使用旧词库: {}", e.getMessage());
+        }
+    }
+
+    private AhoCorasickAutomaton load() throws IOException {
+        List<String> words = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(location.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String word = line.trim();
+                if (!word.isEmpty() && !word.startsWith("#")) {
+                    words.add(word);
+                }
+            }
+        }
+        return AhoCorasickAutomaton.build(words);
+    }
+
+    private long lastModified() {
+        try {
+            return location.lastModified();
+        }
+        catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.alibaba.cloud.ai.graph.conf;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of {@link BinaryStateSerializer} with {@link JsonStateSerializerWithTypeInfo} on a
+ * batch classifier state. Every benchmark returns its result so JMH consumes it. Not a unit test,
+ * run {@link #main} from the IDE or with
+ * {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main BinaryStateSerializerBenchmark"}.
+ *
+ * @author yHong
+ * @version 1.0
+ * @since 2025/6/19 15:44
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 2, jvmArgsAppend = "-Xmx1g")
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BinaryStateSerializerBenchmark {
+
+    @Param({"20", "200", "2000"})
+    private int fields;
+
+    private OverAllState state;
+
+    private BinaryStateSerializer binary;
+
+    private JsonStateSerializerWithTypeInfo json;
+
+    @Setup
+    public void setUp() {
+        state = new OverAllState(batchState(fields));
+        binary = SecGraphBuilder.stateSerializer();
+        json = new JsonStateSerializerWithTypeInfo(OverAllState::new, SecGraphBuilder.stateObjectMapper());
+    }
+
+    @Benchmark
+    public OverAllState jsonRoundTrip() throws Exception {
+        return BinaryStateSerializerTest.roundTrip(json, state);
+    }
+
+    @Benchmark
+    public OverAllState binaryRoundTrip() throws Exception {
+        return BinaryStateSerializerTest.roundTrip(binary, state);
+    }
+
+    @Benchmark
+    public OverAllState jsonClone() throws Exception {
+        return json.cloneObject(state);
+    }
+
+    @Benchmark
+    public OverAllState binaryClone() throws Exception {
+        return binary.cloneObject(state);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(BinaryStateSerializerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static Map<String, Object> batchState(int fields) {
+        List<Map<String, Object>> batch = new ArrayList<>(fields);
+        for (int i = 0; i < fields; i++) {
+            batch.add(Map.of("name", "field_" + i, "comment", "字段说明 " + i, "level", i % 5));
+        }
+
+        Map<String, Object> data = new HashMap<>(BinaryStateSerializerTest.messageState());
+        data.put("fields", batch);
+        data.put("batch_results", new ArrayList<>(batch));
+        return data;
+    }
+
+}
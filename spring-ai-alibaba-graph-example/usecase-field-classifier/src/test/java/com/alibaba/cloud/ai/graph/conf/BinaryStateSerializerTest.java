@@ -0,0 +1,198 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.alibaba.cloud.ai.graph.conf;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.serializer.plain_text.PlainTextStateSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage.ToolResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips of {@link BinaryStateSerializer}, compared with the JSON path of
+ * {@link JsonStateSerializerWithTypeInfo} using the same ObjectMapper.
+ *
+ * @author yHong
+ * @version 1.0
+ * @since 2025/6/19 15:44
+ */
+class BinaryStateSerializerTest {
+
+    private final BinaryStateSerializer binary = SecGraphBuilder.stateSerializer();
+
+    private final JsonStateSerializerWithTypeInfo json =
+            new JsonStateSerializerWithTypeInfo(OverAllState::new, SecGraphBuilder.stateObjectMapper());
+
+    @Test
+    void roundTripMatchesTheJsonPath() throws Exception {
+        Map<String, Object> data = messageState();
+
+        OverAllState fromBinary = roundTrip(binary, new OverAllState(data));
+        OverAllState fromJson = roundTrip(json, new OverAllState(data));
+
+        assertEquals(data, fromBinary.data());
+        assertEquals(canonical(fromJson.data()), canonical(fromBinary.data()));
+    }
+
+    @Test
+    void keepsAssistantMessageToolCalls() throws Exception {
+        AssistantMessage message = new AssistantMessage("calling tools", Map.of("finishReason", "TOOL_CALLS"),
+                List.of(new ToolCall("call-1", "function", "saveField", "{\"field\":\"phone\"}"),
+                        new ToolCall("call-2", "function", "saveField", "{\"field\":\"email\"}")));
+
+        AssistantMessage restored = (AssistantMessage) roundTrip(binary, new OverAllState(Map.of("clft_res", message)))
+                .data().get("clft_res");
+
+        assertEquals(message.getText(), restored.getText());
+        assertEquals(message.getToolCalls(), restored.getToolCalls());
+        assertEquals("TOOL_CALLS", restored.getMetadata().get("finishReason"));
+    }
+
+    @Test
+    void keepsToolResponseMessageResponses() throws Exception {
+        ToolResponseMessage message = new ToolResponseMessage(
+                List.of(new ToolResponse("call-1", "saveField", "saved"), new ToolResponse("call-2", "saveField", "")),
+                Map.of("source", "FieldSaveTool"));
+
+        ToolResponseMessage restored = (ToolResponseMessage) roundTrip(binary,
+                new OverAllState(Map.of("save_result", message))).data().get("save_result");
+
+        assertEquals(message.getResponses(), restored.getResponses());
+        assertEquals("FieldSaveTool", restored.getMetadata().get("source"));
+    }
+
+    @Test
+    void unknownTypesFallBackToJackson() throws Exception {
+        Map<String, Object> data = new HashMap<>();
+        data.put("classification", new Classification("个人信息", 3));
+        data.put("rate", 0.5f);
+        data.put("count", 12L);
+
+        Map<String, Object> restored = roundTrip(binary, new OverAllState(data)).data();
+
+        // JSON 路径会把未注册类型还原成 Map，二进制路径按类名还原出原类型
+        assertEquals(new Classification("个人信息", 3), restored.get("classification"));
+        assertEquals(0.5f, restored.get("rate"));
+        assertEquals(12L, restored.get("count"));
+    }
+
+    @Test
+    void writesStatesLargerThanWriteUtfAllows() throws Exception {
+        String field = "x".repeat(200_000);
+
+        OverAllState restored = roundTrip(binary, new OverAllState(Map.of("field", field)));
+
+        assertEquals(field, restored.data().get("field"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cloneCopiesContainersAndSharesMessages() throws Exception {
+        AssistantMessage message = new AssistantMessage("分类结果");
+        List<Object> history = new ArrayList<>(List.of(message));
+        OverAllState state = new OverAllState(new HashMap<>(Map.of("history", history)));
+
+        OverAllState clone = binary.cloneObject(state);
+        List<Object> clonedHistory = (List<Object>) clone.data().get("history");
+        clonedHistory.add("appended");
+
+        assertNotSame(history, clonedHistory);
+        assertSame(message, clonedHistory.get(0));
+        assertEquals(1, history.size());
+    }
+
+    /**
+     * Representative classifier state: plain values, nested containers and both message types.
+     */
+    static Map<String, Object> messageState() {
+        Map<String, Object> field = new LinkedHashMap<>();
+        field.put("name", "phone_number");
+        field.put("comment", "用户手机号");
+        field.put("level", 4);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("field", "phone_number");
+        data.put("is_sensitive", false);
+        data.put("thread_id", "thread-1");
+        data.put("fields", List.of(field, Map.of("name", "email", "level", 3)));
+        data.put("clft_res", new AssistantMessage("", Map.of(),
+                List.of(new ToolCall("call-1", "function", "saveField", "{\"field\":\"phone_number\"}"))));
+        data.put("save_result", new ToolResponseMessage(List.of(new ToolResponse("call-1", "saveField", "ok"))));
+        return data;
+    }
+
+    static OverAllState roundTrip(PlainTextStateSerializer serializer, OverAllState state) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            serializer.write(state, out);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+            return serializer.read(in);
+        }
+    }
+
+    /**
+     * Compare messages by content, the two paths may build the metadata maps differently.
+     */
+    private static Object canonical(Object value) {
+        if (value instanceof AssistantMessage message) {
+            return List.of("assistant", message.getText(), message.getToolCalls());
+        }
+        if (value instanceof ToolResponseMessage message) {
+            return List.of("tool", message.getResponses());
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new HashMap<>();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                copy.put(entry.getKey(), canonical(entry.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>();
+            for (Object item : list) {
+                copy.add(canonical(item));
+            }
+            return copy;
+        }
+        assertTrue(value == null || value instanceof String || value instanceof Number || value instanceof Boolean,
+                "unexpected state value type: " + value);
+        return value;
+    }
+
+    record Classification(String category, int level) {
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.alibaba.cloud.ai.graph.sensitive;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the automaton with a brute force substring search.
+ *
+ * @author yHong
+ * @version 1.0
+ * @since 2025/6/19 15:44
+ */
+class AhoCorasickAutomatonTest {
+
+    @Test
+    void reportsOverlappingAndNestedMatches() {
+        List<String> words = List.of("he", "she", "his", "hers");
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.build(words);
+
+        // she、he 重叠，he 又嵌套在 hers 里
+        assertEquals(Set.of("1:4 she", "2:4 he", "2:6 hers"), scan(automaton, "ushers"));
+        assertEquals(bruteForce(words, "ahishers"), scan(automaton, "ahishers"));
+        assertEquals(4, automaton.terms());
+    }
+
+    @Test
+    void firstMatchIsTheLeftmostEnding() {
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.build(List.of("he", "she", "his", "hers"));
+
+        assertEquals("she", automaton.firstMatch("ushers"));
+        assertTrue(automaton.containsAny("this"));
+        assertFalse(automaton.containsAny("hxs"));
+        assertNull(automaton.firstMatch("hxs"));
+    }
+
+    @Test
+    void matchesIgnoringCase() {
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.build(List.of("Hers", "暴力"));
+
+        assertEquals("HERS", automaton.firstMatch("uSHERS"));
+        assertEquals("暴力", automaton.firstMatch("含有暴力内容"));
+    }
+
+    @Test
+    void emptyAutomatonMatchesNothing() {
+        assertFalse(AhoCorasickAutomaton.EMPTY.containsAny("anything"));
+        assertEquals(0, AhoCorasickAutomaton.EMPTY.terms());
+    }
+
+    @Test
+    void agreesWithBruteForceOnRandomInput() {
+        // 小字母表让词之间大量重叠、互为前后缀，覆盖 fail/output 链的各种情况
+        String alphabet = "abch暴力党";
+        Random random = new Random(42);
+
+        for (int round = 0; round < 500; round++) {
+            List<String> words = new ArrayList<>();
+            int count = 1 + random.nextInt(30);
+            for (int i = 0; i < count; i++) {
+                words.add(randomText(random, alphabet, 1 + random.nextInt(4)));
+            }
+            String text = randomText(random, alphabet, 60);
+
+            AhoCorasickAutomaton automaton = AhoCorasickAutomaton.build(words);
+            Set<String> expected = bruteForce(words, text);
+
+            assertEquals(expected, scan(automaton, text), () -> "words: " + words + ", text: " + text);
+            assertEquals(!expected.isEmpty(), automaton.containsAny(text));
+        }
+    }
+
+    private static Set<String> scan(AhoCorasickAutomaton automaton, String text) {
+        Set<String> matches = new TreeSet<>();
+        automaton.scan(text, (begin, end) -> matches.add(begin + ":" + end + " " + text.substring(begin, end)));
+        return matches;
+    }
+
+    private static Set<String> bruteForce(List<String> words, String text) {
+        Set<String> terms = new HashSet<>();
+        words.forEach(word -> terms.add(word.toLowerCase(Locale.ROOT)));
+
+        Set<String> matches = new TreeSet<>();
+        for (int begin = 0; begin < text.length(); begin++) {
+            for (int end = begin + 1; end <= text.length(); end++) {
+                if (terms.contains(text.substring(begin, end).toLowerCase(Locale.ROOT))) {
+                    matches.add(begin + ":" + end + " " + text.substring(begin, end));
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+
+}
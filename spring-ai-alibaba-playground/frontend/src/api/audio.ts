@@ -1,14 +1,64 @@
 import { BASE_URL } from "../const";
-import { Result } from "./base";
 
 // 生成语音接口
-export const getAudio = async (prompt: string): Promise<Blob> => {
-  const res = await fetch(BASE_URL + "/text2audio?prompt=" + prompt, {
-    method: "GET",
-  });
+// 服务端按合成进度分块返回 audio/mpeg，边收边交给 MediaSource，第一个分块到达即可开始播放
+export const getAudio = async (prompt: string): Promise<HTMLAudioElement> => {
+  const res = await fetch(
+    BASE_URL + "/text2audio?prompt=" + encodeURIComponent(prompt),
+    {
+      method: "GET",
+    }
+  );
+
+  const contentType = res.headers.get("Content-Type") || "";
+  if (!res.ok || !contentType.startsWith("audio/")) {
+    throw new Error(`Failed to synthesize audio, status ${res.status}`);
+  }
+
+  const reader = res.body?.getReader();
+  if (!reader) {
+    throw new Error("Failed to get response reader");
+  }
+
+  const mediaSource = new MediaSource();
+  const audio = new Audio();
+  audio.src = URL.createObjectURL(mediaSource);
+
+  mediaSource.addEventListener(
+    "sourceopen",
+    async () => {
+      const sourceBuffer = mediaSource.addSourceBuffer("audio/mpeg");
+      const append = (chunk: Uint8Array) =>
+        new Promise<void>((resolve, reject) => {
+          sourceBuffer.addEventListener("updateend", () => resolve(), {
+            once: true,
+          });
+          sourceBuffer.addEventListener("error", () => reject(), {
+            once: true,
+          });
+          sourceBuffer.appendBuffer(chunk);
+        });
+
+      try {
+        for (;;) {
+          const { done, value } = await reader.read();
+          if (done) break;
+          await append(value);
+        }
+        mediaSource.endOfStream();
+      } catch {
+        reader.cancel();
+        if (mediaSource.readyState === "open") {
+          mediaSource.endOfStream("decode");
+        }
+      } finally {
+        URL.revokeObjectURL(audio.src);
+      }
+    },
+    { once: true }
+  );
 
-  const result: Result<ArrayBuffer> = await res.json();
-  return new Blob([result.data], { type: "audio/wav" });
+  return audio;
 };
 
 // 解析语音接口
@@ -17,16 +17,23 @@
 
 package com.alibaba.cloud.ai.application.config;
 
+import java.nio.file.Paths;
+
+import com.alibaba.cloud.ai.application.memory.WriteBehindChatMemoryRepository;
 import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
 import com.alibaba.cloud.ai.memory.jdbc.SQLiteChatMemoryRepository;
 import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
 import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
 import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
 import org.springframework.ai.chat.memory.MessageWindowChatMemory;
 import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * @author yuluo
@@ -41,11 +48,39 @@ public class AppConfiguration {
 	private static final String AI_DASHSCOPE_API_KEY_PREFIX = "AI_DASHSCOPE_API_KEY";
 
 	@Bean
-	public ChatMemory SQLiteChatMemory(JdbcTemplate jdbcTemplate) {
+	public ChatMemoryRepository sqliteChatMemoryRepository(
+			JdbcTemplate jdbcTemplate,
+			PlatformTransactionManager transactionManager,
+			@Value("${spring.ai.alibaba.playground.memory.write-behind.enable:true}") boolean writeBehind,
+			@Value("${spring.ai.alibaba.playground.memory.write-behind.queue-capacity:1024}") int queueCapacity,
+			@Value("${spring.ai.alibaba.playground.memory.write-behind.batch-size:64}") int batchSize,
+			@Value("${spring.ai.alibaba.playground.memory.write-behind.max-conversations:1000}") long maxConversations,
+			@Value("${spring.ai.alibaba.playground.memory.write-behind.journal:db/chat-memory.journal}") String journal
+	) {
+
+		ChatMemoryRepository sqliteRepository = SQLiteChatMemoryRepository.sqliteBuilder()
+				.jdbcTemplate(jdbcTemplate)
+				.build();
+
+		if (!writeBehind) {
+			return sqliteRepository;
+		}
+
+		// 请求线程只读写内存窗口，SQLite 由单个写线程批量写入
+		return WriteBehindChatMemoryRepository.builder(sqliteRepository)
+				// 使用容器中的事务管理器，与 JdbcTemplate 的其它事务共享同一个管理器
+				.transactionTemplate(new TransactionTemplate(transactionManager))
+				.journalPath(Paths.get(journal))
+				.queueCapacity(queueCapacity)
+				.batchSize(batchSize)
+				.maxConversations(maxConversations)
+				.build();
+	}
+
+	@Bean
+	public ChatMemory SQLiteChatMemory(ChatMemoryRepository sqliteChatMemoryRepository) {
 		return MessageWindowChatMemory.builder()
-				.chatMemoryRepository(SQLiteChatMemoryRepository.sqliteBuilder()
-						.jdbcTemplate(jdbcTemplate)
-						.build())
+				.chatMemoryRepository(sqliteChatMemoryRepository)
 				.build();
 	}
 
@@ -32,9 +32,6 @@ import org.springframework.core.io.ByteArrayResource;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.Map;
-
-import static com.alibaba.cloud.ai.application.mcp.McpServerUtils.getMcpLibsAbsPath;
 
 /**
  * @author brianxiadong
@@ -73,20 +70,8 @@ public class CustomMcpStdioTransportConfigurationBeanPostProcessor implements Be
 				mcpServerConfig = McpServerUtils.getMcpServerConfig();
 
 				// Handle the jar relative path issue in the configuration file.
-				for (Map.Entry<String, McpStdioClientProperties.Parameters> entry : mcpServerConfig.getMcpServers()
-						.entrySet()) {
-
-					if (entry.getValue() != null && entry.getValue().command().startsWith("java")) {
-
-						McpStdioClientProperties.Parameters serverConfig = entry.getValue();
-						String oldMcpLibsPath = McpServerUtils.getLibsPath(serverConfig.args());
-						String rewriteMcpLibsAbsPath = getMcpLibsAbsPath(McpServerUtils.getLibsPath(serverConfig.args()));
-						if (rewriteMcpLibsAbsPath != null) {
-							serverConfig.args().remove(oldMcpLibsPath);
-							serverConfig.args().add(rewriteMcpLibsAbsPath);
-						}
-					}
-				}
+				mcpServerConfig.getMcpServers().replaceAll((name, parameters) ->
+						parameters == null ? null : McpServerUtils.resolveParameters(parameters));
 
 				String msc = objectMapper.writeValueAsString(mcpServerConfig);
 				logger.debug("Registry McpServer config: {}", msc);
@@ -17,8 +17,19 @@
 
 package com.alibaba.cloud.ai.application.config.rag;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Objects;
+
+import com.alibaba.cloud.ai.application.vectorstore.CachingEmbeddingModel;
+import com.alibaba.cloud.ai.application.vectorstore.CachingVectorStore;
+import com.alibaba.cloud.ai.application.vectorstore.HnswVectorStore;
+import com.alibaba.cloud.ai.application.vectorstore.MappedVectorStore;
+import com.alibaba.cloud.ai.application.vectorstore.RetrievalCache;
+
 import org.springframework.ai.embedding.EmbeddingModel;
-import org.springframework.ai.vectorstore.SimpleVectorStore;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -33,6 +44,42 @@ public class SimpleVectorStoreConfiguration {
 	@Value("${spring.ai.alibaba.playground.bailian.enable:false}")
 	private Boolean enable;
 
+	@Value("${spring.ai.alibaba.playground.rag.ingest.parallelism:4}")
+	private Integer ingestParallelism;
+
+	@Value("${spring.ai.alibaba.playground.rag.ingest.batch-size:25}")
+	private Integer ingestBatchSize;
+
+	@Value("${spring.ai.alibaba.playground.rag.ingest.manifest:rag/ingest-manifest.json}")
+	private String ingestManifest;
+
+	@Value("${spring.ai.alibaba.playground.rag.snapshot.enable:true}")
+	private Boolean snapshotEnable;
+
+	@Value("${spring.ai.alibaba.playground.rag.snapshot.path:rag/snapshot/vector-store}")
+	private String snapshotPath;
+
+	@Value("${spring.ai.alibaba.playground.rag.hnsw.m:16}")
+	private Integer hnswM;
+
+	@Value("${spring.ai.alibaba.playground.rag.hnsw.ef-construction:200}")
+	private Integer hnswEfConstruction;
+
+	@Value("${spring.ai.alibaba.playground.rag.hnsw.ef-search:64}")
+	private Integer hnswEfSearch;
+
+	@Value("${spring.ai.alibaba.playground.rag.cache.enable:true}")
+	private Boolean cacheEnable;
+
+	@Value("${spring.ai.alibaba.playground.rag.cache.embedding-max-size:10000}")
+	private Long cacheEmbeddingMaxSize;
+
+	@Value("${spring.ai.alibaba.playground.rag.cache.retrieval-max-size:10000}")
+	private Long cacheRetrievalMaxSize;
+
+	@Value("${spring.ai.alibaba.playground.rag.cache.ttl:30m}")
+	private Duration cacheTtl;
+
 	@Bean
 	CommandLineRunner ingestTermOfServiceToVectorStore(VectorStoreDelegate vectorStoreDelegate) {
 		return args -> {
@@ -40,34 +87,122 @@ public class SimpleVectorStoreConfiguration {
 			// 如果未启用百炼知识库，则默认用向量存储服务
 			if (!enable) {
 				String type = System.getenv("VECTOR_STORE_TYPE");
-				VectorStoreInitializer initializer = new VectorStoreInitializer();
-				initializer.init(vectorStoreDelegate.getVectorStore(type));
+				VectorStore vectorStore = vectorStoreDelegate.getVectorStore(type);
+				VectorStore target = vectorStore instanceof CachingVectorStore cachingVectorStore
+						? cachingVectorStore.getDelegate() : vectorStore;
+
+				// 每种向量库单独记录导入清单，切换向量库时不会沿用其它库的文档 id
+				// 只有持久化的向量库才能跳过未变更的文件，未从快照恢复的内存向量库需要全量导入
+				Path manifestPath = manifestPath(vectorStoreDelegate.resolveType(type));
+				if (target instanceof HnswVectorStore
+						|| target instanceof MappedVectorStore mappedVectorStore && !mappedVectorStore.isRestored()) {
+					Files.deleteIfExists(manifestPath);
+				}
+
+				VectorStoreInitializer initializer = new VectorStoreInitializer(
+						ingestParallelism,
+						ingestBatchSize,
+						manifestPath
+				);
+				initializer.init(vectorStore);
+
+				if (target instanceof MappedVectorStore mappedVectorStore) {
+					mappedVectorStore.save();
+				}
 			}
 		};
 	}
 
 	/**
-	 * 提供基于内存的向量存储（SimpleVectorStore）
+	 * 按向量库类型区分导入清单：{@code rag/ingest-manifest.json -> rag/ingest-manifest-hnsw.json}
+	 */
+	private Path manifestPath(String vectorStoreType) {
+
+		Path path = Paths.get(System.getProperty("user.dir"), ingestManifest);
+		String fileName = path.getFileName().toString();
+		int dot = fileName.lastIndexOf('.');
+		String typedName = dot > 0
+				? fileName.substring(0, dot) + "-" + vectorStoreType + fileName.substring(dot)
+				: fileName + "-" + vectorStoreType;
+
+		return path.resolveSibling(typedName);
+	}
+
+	/**
+	 * 提供基于内存的向量存储（MappedVectorStore）
 	 * <p>
 	 * 依赖 EmbeddingModel（自动注入，Alibaba 的嵌入模型）
+	 * 向量数据保存在堆外内存中，应用关闭时写入二进制快照，下次启动直接映射快照文件，无需重新向量化
 	 * @param embeddingModel
 	 * @return
 	 */
 	@Bean
 	public VectorStore simpleVectorStore(
-			@Qualifier("dashscopeEmbeddingModel") EmbeddingModel embeddingModel
+			@Qualifier("dashscopeEmbeddingModel") EmbeddingModel embeddingModel,
+			RetrievalCache retrievalCache
 	) {
 
-		return SimpleVectorStore.builder(embeddingModel).build();
+		return MappedVectorStore.builder(queryEmbeddingModel(embeddingModel, retrievalCache))
+				.snapshotPath(snapshotEnable ? Paths.get(System.getProperty("user.dir"), snapshotPath) : null)
+				.build();
+	}
+
+	/**
+	 * 基于 HNSW 图的内存近似最近邻向量存储，通过 VECTOR_STORE_TYPE=hnsw 启用
+	 * @param embeddingModel
+	 * @return
+	 */
+	@Bean
+	public VectorStore hnswVectorStore(
+			@Qualifier("dashscopeEmbeddingModel") EmbeddingModel embeddingModel,
+			RetrievalCache retrievalCache
+	) {
+
+		return HnswVectorStore.builder(queryEmbeddingModel(embeddingModel, retrievalCache))
+				.m(hnswM)
+				.efConstruction(hnswEfConstruction)
+				.efSearch(hnswEfSearch)
+				.build();
+	}
+
+	/**
+	 * RAG 检索缓存：查询文本 -> Embedding，(向量库, 版本, 查询文本, topK, 阈值, 过滤条件) -> 检索结果
+	 * @return
+	 */
+	@Bean
+	public RetrievalCache retrievalCache() {
+
+		return new RetrievalCache(cacheEmbeddingMaxSize, cacheRetrievalMaxSize, cacheTtl);
 	}
 
 	@Bean
 	public VectorStoreDelegate vectorStoreDelegate(
 			@Qualifier("simpleVectorStore") VectorStore simpleVectorStore,
-			@Qualifier("analyticdbVectorStore") @Autowired(required = false) VectorStore analyticdbVectorStore
+			@Qualifier("analyticdbVectorStore") @Autowired(required = false) VectorStore analyticdbVectorStore,
+			@Qualifier("hnswVectorStore") VectorStore hnswVectorStore,
+			RetrievalCache retrievalCache
 	) {
 
-		return new VectorStoreDelegate(simpleVectorStore, analyticdbVectorStore);
+		// 所有写入都经过缓存装饰器，保证向量库变更后检索缓存失效
+		return new VectorStoreDelegate(
+				cached(simpleVectorStore, retrievalCache),
+				cached(analyticdbVectorStore, retrievalCache),
+				cached(hnswVectorStore, retrievalCache)
+		);
+	}
+
+	private EmbeddingModel queryEmbeddingModel(EmbeddingModel embeddingModel, RetrievalCache retrievalCache) {
+
+		return cacheEnable ? new CachingEmbeddingModel(embeddingModel, retrievalCache) : embeddingModel;
+	}
+
+	private VectorStore cached(VectorStore vectorStore, RetrievalCache retrievalCache) {
+
+		if (!cacheEnable || Objects.isNull(vectorStore)) {
+			return vectorStore;
+		}
+
+		return new CachingVectorStore(vectorStore, retrievalCache);
 	}
 
 }
@@ -27,17 +27,40 @@ public class VectorStoreDelegate {
 
 	private VectorStore analyticdbVectorStore;
 
+	private VectorStore hnswVectorStore;
+
 	public VectorStoreDelegate(VectorStore simpleVectorStore, VectorStore analyticdbVectorStore) {
+		this(simpleVectorStore, analyticdbVectorStore, null);
+	}
+
+	public VectorStoreDelegate(VectorStore simpleVectorStore, VectorStore analyticdbVectorStore, VectorStore hnswVectorStore) {
 		this.simpleVectorStore = simpleVectorStore;
 		this.analyticdbVectorStore = analyticdbVectorStore;
+		this.hnswVectorStore = hnswVectorStore;
 	}
 
 	public VectorStore getVectorStore(String vectorStoreType) {
 
+		return switch (resolveType(vectorStoreType)) {
+			case "analyticdb" -> analyticdbVectorStore;
+			case "hnsw" -> hnswVectorStore;
+			default -> simpleVectorStore;
+		};
+	}
+
+	/**
+	 * 实际生效的向量库类型，未配置或对应的向量库不可用时回退为 simple
+	 */
+	public String resolveType(String vectorStoreType) {
+
 		if (Objects.equals(vectorStoreType, "analyticdb") && analyticdbVectorStore != null) {
-			return analyticdbVectorStore;
+			return "analyticdb";
+		}
+
+		if (Objects.equals(vectorStoreType, "hnsw") && hnswVectorStore != null) {
+			return "hnsw";
 		}
 
-		return simpleVectorStore;
+		return "simple";
 	}
 }
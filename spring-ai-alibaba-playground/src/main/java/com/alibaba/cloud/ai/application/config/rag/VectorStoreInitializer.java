@@ -18,14 +18,30 @@
 package com.alibaba.cloud.ai.application.config.rag;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,8 +49,20 @@ import org.springframework.ai.document.Document;
 import org.springframework.ai.reader.markdown.MarkdownDocumentReader;
 import org.springframework.ai.transformer.splitter.TokenTextSplitter;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
 
 /**
+ * Load the markdown knowledge base into the vector store.
+ * <p>
+ * Files are read, split and embedded on a bounded worker pool, every {@code vectorStore.add}
+ * call carries at most {@link #DEFAULT_BATCH_SIZE} documents (the DashScope embedding batch limit).
+ * When a manifest path is given, the content hash and document ids of every ingested file are
+ * recorded so unchanged files are skipped on the next start and changed or removed files have
+ * their stale chunks deleted first. The manifest is written even when some files fail: finished
+ * files keep their record, a failed file is recorded without a hash so whatever chunks it left
+ * behind are deleted and the file is re-ingested on the next start.
+ *
  * @author yuluo
  * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
  */
@@ -42,53 +70,229 @@ public class VectorStoreInitializer {
 
 	private final Logger logger = LoggerFactory.getLogger(VectorStoreInitializer.class);
 
+	private static final int DEFAULT_BATCH_SIZE = 25;
+
+	private static final int DEFAULT_PARALLELISM = 4;
+
+	private final int parallelism;
+
+	private final int batchSize;
+
+	private final Path manifestPath;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final ResourceLoader resourceLoader = new DefaultResourceLoader();
+
+	private final TokenTextSplitter textSplitter = new TokenTextSplitter(2000, 1024, 10, 10000, true);
+
+	public VectorStoreInitializer() {
+		this(DEFAULT_PARALLELISM, DEFAULT_BATCH_SIZE, null);
+	}
+
+	/**
+	 * @param parallelism number of files processed concurrently
+	 * @param batchSize max documents per {@code vectorStore.add} call
+	 * @param manifestPath ingest manifest location, {@code null} disables incremental ingestion
+	 */
+	public VectorStoreInitializer(int parallelism, int batchSize, Path manifestPath) {
+		this.parallelism = Math.max(1, parallelism);
+		this.batchSize = Math.max(1, batchSize);
+		this.manifestPath = manifestPath;
+	}
+
 	public void init(VectorStore vectorStore) throws Exception {
-		List<MarkdownDocumentReader> markdownDocumentReaderList = loadMarkdownDocuments();
+		List<String> markdownLocations = loadMarkdownDocuments();
 
-		int size = 0;
-		if (markdownDocumentReaderList.isEmpty()) {
+		if (markdownLocations.isEmpty()) {
 			logger.warn("No markdown documents found in the directory.");
 			return;
 		}
 
-		logger.debug("Start to load markdown documents into vector store......");
-		for (MarkdownDocumentReader markdownDocumentReader : markdownDocumentReaderList) {
-			List<Document> documents = new TokenTextSplitter(2000, 1024, 10, 10000, true).transform(markdownDocumentReader.get());
-			size += documents.size();
+		Map<String, IngestRecord> previous = readManifest();
+		Map<String, IngestRecord> current = new ConcurrentHashMap<>();
+
+		Set<String> failedFiles = ConcurrentHashMap.newKeySet();
+		AtomicInteger processedFiles = new AtomicInteger();
+		AtomicInteger skippedFiles = new AtomicInteger();
+		AtomicInteger loadedDocuments = new AtomicInteger();
+		long start = System.nanoTime();
+
+		logger.debug("Start to load {} markdown documents into vector store, parallelism: {}, batch size: {}......",
+				markdownLocations.size(), parallelism, batchSize);
+
+		AtomicInteger threadIndex = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "vector-store-ingest-" + threadIndex.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		try {
+			List<CompletableFuture<Void>> futures = markdownLocations.stream()
+					.map(location -> CompletableFuture.runAsync(() -> {
+						IngestRecord last = previous.get(location);
+						IngestRecord record;
+						try {
+							record = ingest(vectorStore, location, last, current);
+						}
+						catch (RuntimeException e) {
+							failedFiles.add(location);
+							// 不带 hash 记录，下次启动一定会删除这些 id 并重新导入该文件
+							current.putIfAbsent(location,
+									new IngestRecord(null, Objects.nonNull(last) ? last.ids() : List.of()));
+							logger.warn("Failed to ingest markdown document {}: {}", location, e.getMessage(), e);
+							return;
+						}
+						current.put(location, record);
+
+						if (record == last) {
+							skippedFiles.incrementAndGet();
+						}
+						else {
+							loadedDocuments.addAndGet(record.ids().size());
+						}
+
+						logger.debug("Ingest progress: {}/{} files, {} documents loaded, {} files unchanged.",
+								processedFiles.incrementAndGet(), markdownLocations.size(),
+								loadedDocuments.get(), skippedFiles.get());
+					}, executor))
+					.toList();
+
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+			removeStaleDocuments(vectorStore, previous, current.keySet());
+		}
+		finally {
+			executor.shutdown();
+			// 无论成功与否都写入已完成文件的记录，避免下次启动重复写入
+			writeManifest(current);
+		}
+
+		if (!failedFiles.isEmpty()) {
+			logger.warn("{} markdown documents failed to ingest and will be retried on next start: {}",
+					failedFiles.size(), failedFiles);
+		}
+
+		double seconds = Math.max((System.nanoTime() - start) / 1_000_000_000d, 0.001d);
+		logger.debug("Load markdown documents into vector store successfully. Load {} documents, skip {} unchanged files, "
+						+ "cost {} s, throughput {} docs/s.",
+				loadedDocuments.get(), skippedFiles.get(), String.format("%.2f", seconds),
+				String.format("%.2f", loadedDocuments.get() / seconds));
+	}
+
+	private IngestRecord ingest(VectorStore vectorStore, String location, IngestRecord previous,
+			Map<String, IngestRecord> current) {
+
+		String hash = contentHash(location);
+		if (Objects.nonNull(previous) && Objects.equals(previous.hash(), hash)) {
+			return previous;
+		}
+
+		// 文件内容发生变化，先删除上次写入的分片
+		if (Objects.nonNull(previous) && !previous.ids().isEmpty()) {
+			vectorStore.delete(previous.ids());
+		}
+
+		List<Document> documents = textSplitter.transform(new MarkdownDocumentReader(location).get());
+		List<String> ids = documents.stream().map(Document::getId).toList();
+
+		// 旧分片已删除，先记下新分片的 id（不带 hash），中途失败时下次启动会删除已写入的部分再重新导入
+		current.put(location, new IngestRecord(null, ids));
+
+		// 拆分 documents 列表为最大 batchSize 个元素的子列表
+		for (int i = 0; i < documents.size(); i += batchSize) {
+			int end = Math.min(i + batchSize, documents.size());
+			vectorStore.add(documents.subList(i, end));
+		}
+
+		return new IngestRecord(hash, ids);
+	}
+
+	private void removeStaleDocuments(VectorStore vectorStore, Map<String, IngestRecord> previous, Set<String> locations) {
+
+		Set<String> removed = new HashSet<>(previous.keySet());
+		removed.removeAll(locations);
+
+		for (String location : removed) {
+			List<String> ids = previous.get(location).ids();
+			if (!ids.isEmpty()) {
+				logger.debug("Markdown document {} removed, delete {} stale documents.", location, ids.size());
+				vectorStore.delete(ids);
+			}
+		}
+	}
+
+	private String contentHash(String location) {
 
-			// 拆分 documents 列表为最大 25 个元素的子列表
-			for (int i = 0; i < documents.size(); i += 25) {
-				int end = Math.min(i + 25, documents.size());
-				List<Document> subList = documents.subList(i, end);
-				vectorStore.add(subList);
+		try (InputStream inputStream = resourceLoader.getResource(location).getInputStream()) {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = inputStream.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
 			}
+
+			return HexFormat.of().formatHex(digest.digest());
+		}
+		catch (IOException | NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Failed to hash markdown document: " + location, e);
+		}
+	}
+
+	private Map<String, IngestRecord> readManifest() {
+
+		if (Objects.isNull(manifestPath) || !Files.exists(manifestPath)) {
+			return Map.of();
+		}
+
+		try {
+			return objectMapper.readValue(manifestPath.toFile(), new TypeReference<Map<String, IngestRecord>>() {
+			});
+		}
+		catch (IOException e) {
+			logger.warn("Failed to read ingest manifest {}, fall back to full ingestion: {}", manifestPath, e.getMessage());
+			return Map.of();
 		}
-		logger.debug("Load markdown documents into vector store successfully. Load {} documents.", size);
 	}
 
-	private List<MarkdownDocumentReader> loadMarkdownDocuments() throws IOException, URISyntaxException {
-		List<MarkdownDocumentReader> readers;
-		
+	private void writeManifest(Map<String, IngestRecord> records) {
+
+		if (Objects.isNull(manifestPath)) {
+			return;
+		}
+
+		try {
+			if (Objects.nonNull(manifestPath.getParent())) {
+				Files.createDirectories(manifestPath.getParent());
+			}
+
+			objectMapper.writerWithDefaultPrettyPrinter().writeValue(manifestPath.toFile(), records);
+		}
+		catch (IOException e) {
+			logger.warn("Failed to write ingest manifest {}: {}", manifestPath, e.getMessage());
+		}
+	}
+
+	private List<String> loadMarkdownDocuments() throws IOException, URISyntaxException {
+		List<String> locations;
+
 		// 首先检查jar包当前运行目录是否存在markdown文件
 		Path currentDirPath = Paths.get(System.getProperty("user.dir"), "rag", "markdown");
-		
+
 		if (Files.exists(currentDirPath) && Files.isDirectory(currentDirPath)) {
 			logger.debug("Found markdown directory in current running directory: {}", currentDirPath);
-			
+
 			try (Stream<Path> paths = Files.walk(currentDirPath)) {
 				List<Path> markdownFiles = paths.filter(Files::isRegularFile)
 						.filter(path -> path.toString().endsWith(".md"))
 						.collect(Collectors.toList());
-				
+
 				if (!markdownFiles.isEmpty()) {
 					logger.debug("Loading {} markdown files from current directory", markdownFiles.size());
-					readers = markdownFiles.stream()
-							.map(path -> {
-								String filePath = path.toAbsolutePath().toString();
-								return new MarkdownDocumentReader("file:" + filePath);
-							})
+					locations = markdownFiles.stream()
+							.map(path -> "file:" + path.toAbsolutePath())
 							.collect(Collectors.toList());
-					return readers;
+					return locations;
 				} else {
 					logger.debug("No markdown files found in current directory, falling back to resources");
 				}
@@ -96,23 +300,25 @@ public class VectorStoreInitializer {
 		} else {
 			logger.debug("Markdown directory not found in current directory, falling back to resources");
 		}
-		
+
 		// 如果当前运行目录没有找到，则从resources目录加载
 		Path markdownDir = Paths.get(getClass().getClassLoader().getResource("rag/markdown").toURI());
 		logger.debug("Loading markdown files from resources directory: {}", markdownDir);
 
 		try (Stream<Path> paths = Files.walk(markdownDir)) {
-			readers = paths.filter(Files::isRegularFile)
+			locations = paths.filter(Files::isRegularFile)
 					.filter(path -> path.toString().endsWith(".md"))
-					.map(path -> {
-						String fileName = path.getFileName().toString();
-						String classpathPath = "classpath:rag/markdown/" + fileName;
-						return new MarkdownDocumentReader(classpathPath);
-					})
-					.collect(Collectors.toList());
+					.map(path -> "classpath:rag/markdown/" + path.getFileName().toString())
+					.collect(Collectors.toCollection(ArrayList::new));
 		}
 
-		return readers;
+		return locations;
+	}
+
+	/**
+	 * Manifest entry of one ingested markdown file.
+	 */
+	record IngestRecord(String hash, List<String> ids) {
 	}
 
 }
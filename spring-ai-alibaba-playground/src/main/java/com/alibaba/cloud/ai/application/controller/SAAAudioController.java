@@ -21,9 +21,12 @@ import com.alibaba.cloud.ai.application.entity.result.Result;
 import com.alibaba.cloud.ai.application.service.SAAAudioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 
@@ -39,6 +42,11 @@ import java.io.IOException;
 @RequestMapping("/api/v1/")
 public class SAAAudioController {
 
+	/**
+	 * DashScope speech synthesis returns mp3 by default, mp3 frames can be played while streaming.
+	 */
+	private static final MediaType AUDIO_MPEG = MediaType.parseMediaType("audio/mpeg");
+
 	private final SAAAudioService audioService;
 
 	public SAAAudioController(SAAAudioService audioService) {
@@ -62,26 +70,17 @@ public class SAAAudioController {
 	}
 
 	/**
-	 * used to convert text into speech output
+	 * used to convert text into speech output, the audio is streamed chunk by chunk as it is synthesized
 	 */
 	@GetMapping("/text2audio")
 	@Operation(summary = "DashScope Speech Synthesis")
-	public Result<byte[]> textToAudio(
+	public ResponseEntity<StreamingResponseBody> textToAudio(
 			@Validated @RequestParam("prompt") String prompt
 	) {
 
-		return Result.success("not implemented yet".getBytes());
-
-		// byte[] audioData = audioService.text2audio(prompt);
-
-		// test to verify that the audio data is empty
-		// try (FileOutputStream fos = new FileOutputStream("tmp/audio/test-audio.wav")) {
-		// 	fos.write(audioData);
-		// } catch (IOException e) {
-		// 	return Result.failed("Test save audio file: " + e.getMessage());
-		// }
-		//
-		// return Result.success(audioData);
+		return ResponseEntity.ok()
+				.contentType(AUDIO_MPEG)
+				.body(outputStream -> audioService.text2audio(prompt, outputStream));
 	}
 
 }
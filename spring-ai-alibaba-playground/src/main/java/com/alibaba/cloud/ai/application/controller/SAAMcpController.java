@@ -16,7 +16,6 @@
  */
 package com.alibaba.cloud.ai.application.controller;
 
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,12 +23,14 @@ import java.util.Map;
 import com.alibaba.cloud.ai.application.entity.mcp.McpServer;
 import com.alibaba.cloud.ai.application.entity.result.Result;
 import com.alibaba.cloud.ai.application.entity.tools.ToolCallResp;
-import com.alibaba.cloud.ai.application.exception.SAAAppException;
 import com.alibaba.cloud.ai.application.mcp.McpServerContainer;
 import com.alibaba.cloud.ai.application.service.SAAMcpService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Flux;
 
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -65,6 +66,18 @@ public class SAAMcpController {
 		return Result.success(mcpService.chat(prompt));
 	}
 
+	/**
+	 * 内部接口不应该直接被 web 请求！工具调用结果以 tool 事件返回，最终回答以 message 事件流式返回
+	 */
+	@GetMapping(value = "/inner/mcp/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@Operation(summary = "DashScope MCP Stream Chat")
+	public Flux<ServerSentEvent<Object>> mcpStreamChat(
+			@Validated @RequestParam("prompt") String prompt
+	) {
+
+		return mcpService.chatStream(prompt);
+	}
+
 	@GetMapping("/mcp-list")
 	@Operation(summary = "MCP List")
 	public Result<List<McpServer>> mcpList() {
@@ -90,12 +103,7 @@ public class SAAMcpController {
 			}
 		}
 
-		try {
-			return Result.success(mcpService.run(id, env, prompt));
-		}
-		catch (IOException e) {
-			throw new SAAAppException(e.getMessage());
-		}
+		return Result.success(mcpService.run(id, env, prompt));
 	}
 }
 
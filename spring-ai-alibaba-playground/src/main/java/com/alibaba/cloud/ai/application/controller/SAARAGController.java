@@ -17,7 +17,11 @@
 
 package com.alibaba.cloud.ai.application.controller;
 
+import java.util.Map;
+
+import com.alibaba.cloud.ai.application.entity.result.Result;
 import com.alibaba.cloud.ai.application.service.ISAARAGService;
+import com.alibaba.cloud.ai.application.vectorstore.RetrievalCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletResponse;
@@ -43,8 +47,14 @@ public class SAARAGController {
 
 	private final ISAARAGService ragService;
 
-	public SAARAGController(@Qualifier("SAARAGService4Bailian") ISAARAGService ragService) {
+	private final RetrievalCache retrievalCache;
+
+	public SAARAGController(
+			@Qualifier("SAARAGService4Bailian") ISAARAGService ragService,
+			RetrievalCache retrievalCache
+	) {
 		this.ragService = ragService;
+		this.retrievalCache = retrievalCache;
 	}
 
 	@GetMapping("/rag")
@@ -59,4 +69,11 @@ public class SAARAGController {
 		return ragService.ragChat(chatId, prompt);
 	}
 
+	@GetMapping("/rag/cache/stats")
+	@Operation(summary = "RAG retrieval cache hit-rate metrics")
+	public Result<Map<String, Object>> cacheStats() {
+
+		return Result.success(retrievalCache.stats());
+	}
+
 }
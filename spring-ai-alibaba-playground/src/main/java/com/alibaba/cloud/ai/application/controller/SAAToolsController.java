@@ -22,7 +22,10 @@ import com.alibaba.cloud.ai.application.entity.tools.ToolCallResp;
 import com.alibaba.cloud.ai.application.service.SAAToolsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Flux;
 
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -59,4 +62,16 @@ public class SAAToolsController {
 		return Result.success(functionService.chat(prompt));
 	}
 
+	/**
+	 * 工具调用结果以 tool 事件返回，最终回答以 message 事件流式返回
+	 */
+	@GetMapping(value = "/tool-call/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@Operation(summary = "DashScope ToolCall Stream Chat")
+	public Flux<ServerSentEvent<Object>> toolCallStreamChat(
+			@Validated @RequestParam("prompt") String prompt
+	) {
+
+		return functionService.chatStream(prompt);
+	}
+
 }
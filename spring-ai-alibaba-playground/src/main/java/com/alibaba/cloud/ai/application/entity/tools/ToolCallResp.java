@@ -17,7 +17,9 @@
 
 package com.alibaba.cloud.ai.application.entity.tools;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * @author yuluo
@@ -67,7 +69,7 @@ public class ToolCallResp {
 	private String toolInput;
 
 	/**
-	 * 工具执行耗时
+	 * 工具执行耗时（毫秒）
 	 */
 	private Long toolCostTime;
 	/**
@@ -75,6 +77,11 @@ public class ToolCallResp {
 	 */
 	private String toolResponse;
 
+	/**
+	 * 同一轮模型响应中并发执行的每个工具调用
+	 */
+	private List<ToolCallResp> toolCalls;
+
 	public enum ToolState {
 		/**
 		 * 工具执行成功
@@ -174,6 +181,14 @@ public class ToolCallResp {
 		this.toolResponse = toolResponse;
 	}
 
+	public List<ToolCallResp> getToolCalls() {
+		return toolCalls;
+	}
+
+	public void setToolCalls(List<ToolCallResp> toolCalls) {
+		this.toolCalls = toolCalls;
+	}
+
 	@Override
 	public String toString() {
 		return "ToolCallResp{" +
@@ -187,6 +202,7 @@ public class ToolCallResp {
 				", toolInput='" + toolInput + '\'' +
 				", toolCostTime=" + toolCostTime +
 				", toolResponse='" + toolResponse + '\'' +
+				", toolCalls=" + toolCalls +
 				'}';
 	}
 
@@ -215,7 +231,7 @@ public class ToolCallResp {
 		res.setToolEndTime(LocalDateTime.now());
 		res.setStatus(status);
 		res.setToolCostTime(
-				(long) (res.getToolEndTime().getNano() - toolStartTime.getNano())
+				Duration.between(toolStartTime, res.getToolEndTime()).toMillis()
 		);
 
 		return res;
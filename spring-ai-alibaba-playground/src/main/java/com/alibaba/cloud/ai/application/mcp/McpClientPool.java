@@ -0,0 +1,531 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.mcp;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.cloud.ai.application.exception.SAAAppException;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.client.transport.StdioClientTransport;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.ai.mcp.SyncMcpToolCallback;
+import org.springframework.ai.mcp.client.autoconfigure.properties.McpStdioClientProperties;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pool of started and initialized MCP stdio clients, keyed by server name and the env
+ * overrides of the request.
+ * <p>
+ * The clients created by the MCP client auto configuration are adopted for the default env,
+ * other env combinations are started once on first use and reused afterwards. A background
+ * task pings every client, reloads {@code mcp-config.yml} and atomically swaps a client when it
+ * is unhealthy or its server configuration changed: the replacement is started and initialized
+ * first, requests keep using the old client until the swap, then the old one is retired.
+ * Requests hold a {@link Lease} on the client while they use its tool callbacks, a retired,
+ * evicted or idle-closed client is only closed once its last lease is released, so tool calls
+ * already in progress finish on the old client.
+ * The replacement is started on the starter pool, so a hung server start never blocks the health
+ * checks of the other clients. Clients with env overrides are closed after being idle for
+ * {@code idle-timeout}, and at most {@code max-env-clients} of them are kept: starting one more
+ * closes the least recently used idle one, or fails when all of them are still starting.
+ * <p>
+ * The tool callbacks of a client are built from its {@code tools/list} result and rebuilt when
+ * the server sends a tool list changed notification, default env results also feed {@link McpToolIndex}.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+@Component
+public class McpClientPool implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(McpClientPool.class);
+
+	private final Map<ClientKey, CompletableFuture<PooledClient>> clients = new ConcurrentHashMap<>();
+
+	private final Set<ClientKey> swapping = ConcurrentHashMap.newKeySet();
+
+	private final Object envClientsLock = new Object();
+
+	private final McpToolIndex toolIndex;
+
+	private final ExecutorService starter;
+
+	private final ScheduledExecutorService maintainer;
+
+	private final Duration requestTimeout;
+
+	private final Duration startTimeout;
+
+	private final Duration idleTimeout;
+
+	private final int maxEnvClients;
+
+	private volatile Map<String, McpStdioClientProperties.Parameters> servers;
+
+	public McpClientPool(
+			McpToolIndex toolIndex,
+			ObjectProvider<List<McpSyncClient>> mcpSyncClients,
+			@Value("${spring.ai.alibaba.playground.mcp.pool.request-timeout:30s}") Duration requestTimeout,
+			@Value("${spring.ai.alibaba.playground.mcp.pool.start-timeout:60s}") Duration startTimeout,
+			@Value("${spring.ai.alibaba.playground.mcp.pool.idle-timeout:10m}") Duration idleTimeout,
+			@Value("${spring.ai.alibaba.playground.mcp.pool.max-env-clients:32}") int maxEnvClients,
+			@Value("${spring.ai.alibaba.playground.mcp.pool.health-check-interval:30s}") Duration healthCheckInterval
+	) {
+
+		this.toolIndex = toolIndex;
+		this.requestTimeout = requestTimeout;
+		this.startTimeout = startTimeout;
+		this.idleTimeout = idleTimeout;
+		this.maxEnvClients = Math.max(1, maxEnvClients);
+		this.servers = loadServers();
+
+		AtomicInteger threads = new AtomicInteger();
+		this.starter = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "mcp-client-starter-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.maintainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "mcp-client-maintainer");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		// 默认 env 的 client 收到 tools 变更通知后由 index 转发过来
+		toolIndex.addListener((name, tools) -> refresh(new ClientKey(name, Map.of()), tools));
+
+		adopt(mcpSyncClients.getIfAvailable(List::of));
+
+		// 配置中存在但自动配置没有启动成功的 server，在后台预先启动
+		servers.keySet().forEach(name -> clients.computeIfAbsent(new ClientKey(name, Map.of()), this::start));
+
+		long interval = Math.max(1, healthCheckInterval.toMillis());
+		this.maintainer.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Lease the pooled client for the given server and env overrides, the client stays open
+	 * until the lease is closed. Starts the client if no client for this combination exists yet.
+	 */
+	public Lease lease(String serverName, Map<String, String> envs) {
+
+		if (!servers.containsKey(serverName)) {
+			throw new SAAAppException("McpServer not configured: " + serverName);
+		}
+
+		ClientKey key = new ClientKey(serverName, envs == null ? Map.of() : Map.copyOf(envs));
+		while (true) {
+			PooledClient client = acquire(key);
+			if (client.lease()) {
+				return new Lease(client);
+			}
+			// 拿到的 client 刚被替换或回收，重新获取
+		}
+	}
+
+	private PooledClient acquire(ClientKey key) {
+
+		CompletableFuture<PooledClient> future = clients.get(key);
+		if (Objects.isNull(future)) {
+			future = key.envs().isEmpty() ? clients.computeIfAbsent(key, this::start) : startEnvClient(key);
+		}
+		try {
+			return future.get(startTimeout.toMillis(), TimeUnit.MILLISECONDS);
+		}
+		catch (ExecutionException e) {
+			// 启动失败的 client 不保留，下一次请求重新启动
+			clients.remove(key, future);
+			throw new SAAAppException("Failed to start McpServer " + key.serverName() + ": " + e.getCause().getMessage());
+		}
+		catch (TimeoutException e) {
+			throw new SAAAppException("Timeout waiting for McpServer " + key.serverName() + " to start");
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SAAAppException("Interrupted waiting for McpServer " + key.serverName());
+		}
+	}
+
+	/**
+	 * env 覆盖的组合由请求决定，数量不受控，超过上限时先回收最久未使用的 client
+	 */
+	private CompletableFuture<PooledClient> startEnvClient(ClientKey key) {
+
+		synchronized (envClientsLock) {
+			CompletableFuture<PooledClient> existing = clients.get(key);
+			if (Objects.nonNull(existing)) {
+				return existing;
+			}
+
+			long envClients = clients.keySet().stream().filter(k -> !k.envs().isEmpty()).count();
+			if (envClients >= maxEnvClients && !evictLeastRecentlyUsedEnvClient()) {
+				throw new SAAAppException("Too many McpServer clients with env overrides, limit: " + maxEnvClients);
+			}
+
+			return clients.computeIfAbsent(key, this::start);
+		}
+	}
+
+	private boolean evictLeastRecentlyUsedEnvClient() {
+
+		return clients.entrySet().stream()
+				.filter(entry -> !entry.getKey().envs().isEmpty())
+				.filter(entry -> entry.getValue().isDone() && !entry.getValue().isCompletedExceptionally())
+				.max((a, b) -> Long.compare(a.getValue().join().idleNanos(), b.getValue().join().idleNanos()))
+				.filter(entry -> clients.remove(entry.getKey(), entry.getValue()))
+				.map(entry -> {
+					logger.debug("Too many McpServer clients with env overrides, close the least recently used: {}",
+							entry.getKey().serverName());
+					// 在后台关闭，不阻塞当前请求，仍被租用时等最后一个租约释放后再关闭
+					CompletableFuture.runAsync(() -> entry.getValue().join().retire(), starter);
+					return true;
+				})
+				.orElse(false);
+	}
+
+	private void adopt(List<McpSyncClient> mcpSyncClients) {
+
+		for (McpSyncClient client : mcpSyncClients) {
+			McpSchema.Implementation serverInfo = client.getServerInfo();
+			if (Objects.isNull(serverInfo) || !servers.containsKey(serverInfo.name())) {
+				continue;
+			}
+
+			String name = serverInfo.name();
+			List<McpSchema.Tool> tools = client.listTools().tools();
+			PooledClient pooled = new PooledClient(client, tools, servers.get(name), false);
+			clients.put(new ClientKey(name, Map.of()), CompletableFuture.completedFuture(pooled));
+			toolIndex.update(name, tools);
+			logger.debug("Adopt auto configured McpServer client: {}", name);
+		}
+	}
+
+	private CompletableFuture<PooledClient> start(ClientKey key) {
+
+		return CompletableFuture.supplyAsync(() -> create(key), starter);
+	}
+
+	private PooledClient create(ClientKey key) {
+
+		McpStdioClientProperties.Parameters configured = servers.get(key.serverName());
+		if (Objects.isNull(configured)) {
+			throw new SAAAppException("McpServer not configured: " + key.serverName());
+		}
+
+		Map<String, String> env = new HashMap<>();
+		if (Objects.nonNull(configured.env())) {
+			env.putAll(configured.env());
+		}
+		env.putAll(key.envs());
+
+		McpStdioClientProperties.Parameters resolved = McpServerUtils.resolveParameters(configured);
+		McpStdioClientProperties.Parameters parameters =
+				new McpStdioClientProperties.Parameters(resolved.command(), resolved.args(), env);
+
+		long start = System.nanoTime();
+		McpSyncClient client = McpClient.sync(new StdioClientTransport(parameters.toServerParameters()))
+				.clientInfo(new McpSchema.Implementation("saa-playground-" + key.serverName(), "1.0.0"))
+				.requestTimeout(requestTimeout)
+				.toolsChangeConsumer(tools -> onToolsChanged(key, tools))
+				.build();
+
+		try {
+			client.initialize();
+			List<McpSchema.Tool> tools = client.listTools().tools();
+			PooledClient pooled = new PooledClient(client, tools, configured, true);
+			if (key.envs().isEmpty()) {
+				toolIndex.update(key.serverName(), tools);
+			}
+			logger.debug("Start McpServer client {} with env {} in {} ms.", key.serverName(), key.envs().keySet(),
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+			return pooled;
+		}
+		catch (RuntimeException e) {
+			client.close();
+			throw e;
+		}
+	}
+
+	private void onToolsChanged(ClientKey key, List<McpSchema.Tool> tools) {
+
+		if (key.envs().isEmpty()) {
+			toolIndex.update(key.serverName(), tools);
+		}
+		else {
+			refresh(key, tools);
+		}
+	}
+
+	private void refresh(ClientKey key, List<McpSchema.Tool> tools) {
+
+		CompletableFuture<PooledClient> future = clients.get(key);
+		if (Objects.nonNull(future) && future.isDone() && !future.isCompletedExceptionally()) {
+			future.join().refresh(tools);
+		}
+	}
+
+	/**
+	 * 健康检查、配置变更检查以及空闲回收。
+	 */
+	private void maintain() {
+
+		try {
+			servers = loadServers();
+		}
+		catch (RuntimeException e) {
+			logger.warn("Failed to reload McpServer config, keep the current one: {}", e.getMessage());
+		}
+
+		clients.forEach((key, future) -> {
+			if (!future.isDone() || future.isCompletedExceptionally()) {
+				return;
+			}
+
+			PooledClient client = future.join();
+			McpStdioClientProperties.Parameters configured = servers.get(key.serverName());
+
+			if (Objects.isNull(configured)) {
+				logger.info("McpServer {} removed from config, close its client.", key.serverName());
+				evict(key, future);
+			}
+			else if (!configured.equals(client.parameters())) {
+				logger.info("McpServer {} config changed, swap its client.", key.serverName());
+				swap(key, future);
+			}
+			else if (!key.envs().isEmpty() && client.idleNanos() > idleTimeout.toNanos()) {
+				logger.debug("McpServer client {} idle for {}, close it.", key.serverName(), idleTimeout);
+				evict(key, future);
+			}
+			else if (!client.healthy()) {
+				logger.warn("McpServer client {} failed the health check, swap it.", key.serverName());
+				swap(key, future);
+			}
+		});
+	}
+
+	/**
+	 * 新 client 在 starter 线程池中启动，启动卡住也不会阻塞 maintainer 对其它 client 的检查；
+	 * 同一个 client 同时只有一个替换在进行.
+	 */
+	private void swap(ClientKey key, CompletableFuture<PooledClient> current) {
+
+		if (!swapping.add(key)) {
+			return;
+		}
+
+		start(key).whenComplete((replacement, error) -> {
+			try {
+				if (Objects.nonNull(error)) {
+					// 新 client 启动失败时保留旧的 client，下一轮再试
+					Throwable cause = error instanceof CompletionException && Objects.nonNull(error.getCause())
+							? error.getCause() : error;
+					logger.warn("Failed to restart McpServer client {}: {}", key.serverName(), cause.getMessage());
+				}
+				else if (clients.replace(key, current, CompletableFuture.completedFuture(replacement))) {
+					current.join().retire();
+				}
+				else {
+					replacement.close();
+				}
+			}
+			finally {
+				swapping.remove(key);
+			}
+		});
+	}
+
+	private void evict(ClientKey key, CompletableFuture<PooledClient> current) {
+
+		if (clients.remove(key, current)) {
+			current.join().retire();
+		}
+	}
+
+	private static Map<String, McpStdioClientProperties.Parameters> loadServers() {
+
+		try {
+			return Map.copyOf(McpServerUtils.getMcpServerConfig().getMcpServers());
+		}
+		catch (IOException e) {
+			throw new SAAAppException("Failed to load McpServer config: " + e.getMessage());
+		}
+	}
+
+	@Override
+	public void destroy() {
+
+		maintainer.shutdownNow();
+		starter.shutdownNow();
+
+		clients.values().stream()
+				.filter(future -> future.isDone() && !future.isCompletedExceptionally())
+				.map(CompletableFuture::join)
+				.forEach(PooledClient::close);
+		clients.clear();
+	}
+
+	record ClientKey(String serverName, Map<String, String> envs) {
+	}
+
+	/**
+	 * A request's hold on a pooled client, close it once the tool callbacks are no longer used.
+	 */
+	public static final class Lease implements AutoCloseable {
+
+		private final PooledClient client;
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private Lease(PooledClient client) {
+			this.client = client;
+		}
+
+		public List<ToolCallback> toolCallbacks() {
+			return client.toolCallbacks();
+		}
+
+		@Override
+		public void close() {
+			if (released.compareAndSet(false, true)) {
+				client.release();
+			}
+		}
+
+	}
+
+	private static final class PooledClient {
+
+		private final McpSyncClient client;
+
+		private volatile List<ToolCallback> toolCallbacks;
+
+		private final McpStdioClientProperties.Parameters parameters;
+
+		// 自动配置创建的 client 由 Spring 负责关闭
+		private final boolean owned;
+
+		private volatile long lastUsed = System.nanoTime();
+
+		private final AtomicInteger leases = new AtomicInteger();
+
+		private volatile boolean retired;
+
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		PooledClient(McpSyncClient client, List<McpSchema.Tool> tools,
+				McpStdioClientProperties.Parameters parameters, boolean owned) {
+			this.client = client;
+			this.parameters = parameters;
+			this.owned = owned;
+			refresh(tools);
+		}
+
+		List<ToolCallback> toolCallbacks() {
+			return toolCallbacks;
+		}
+
+		McpStdioClientProperties.Parameters parameters() {
+			return parameters;
+		}
+
+		void refresh(List<McpSchema.Tool> tools) {
+			this.toolCallbacks = tools.stream()
+					.<ToolCallback>map(tool -> new SyncMcpToolCallback(client, tool))
+					.toList();
+		}
+
+		/**
+		 * @return false if the client is already retired, the caller has to acquire again
+		 */
+		boolean lease() {
+			leases.incrementAndGet();
+			if (retired) {
+				release();
+				return false;
+			}
+			lastUsed = System.nanoTime();
+			return true;
+		}
+
+		void release() {
+			lastUsed = System.nanoTime();
+			if (leases.decrementAndGet() == 0 && retired) {
+				close();
+			}
+		}
+
+		/**
+		 * Take the client out of service, it is closed once no request holds a lease on it.
+		 */
+		void retire() {
+			retired = true;
+			if (leases.get() == 0) {
+				close();
+			}
+		}
+
+		long idleNanos() {
+			return System.nanoTime() - lastUsed;
+		}
+
+		boolean healthy() {
+			try {
+				client.ping();
+				return true;
+			}
+			catch (RuntimeException e) {
+				return false;
+			}
+		}
+
+		void close() {
+			if (owned && closed.compareAndSet(false, true)) {
+				client.closeGracefully();
+			}
+		}
+
+	}
+
+}
@@ -19,32 +19,105 @@ package com.alibaba.cloud.ai.application.mcp;
 
 import com.alibaba.cloud.ai.application.entity.mcp.McpServer;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Registry of the configured MCP servers and their tools.
+ * <p>
+ * Readers get an immutable snapshot without locking, writers are serialized and publish a
+ * new snapshot. Server entries are replaced, never mutated, once they are published.
+ */
 public class McpServerContainer {
 
-	private static final List<McpServer> mcpServerContainer = new ArrayList<>();
+	private static volatile Snapshot snapshot = Snapshot.of(List.of());
 
 	public static List<McpServer> getAllServers() {
-		return new ArrayList<>(mcpServerContainer);
+		return snapshot.servers();
 	}
 
 	public static Optional<McpServer> getServerById(String id) {
 
-		return mcpServerContainer.stream()
-				.filter(server -> server.getId().equals(id))
-				.findFirst();
+		if (id == null) {
+			return Optional.empty();
+		}
+
+		return Optional.ofNullable(snapshot.byId().get(id));
+	}
+
+	public static Optional<McpServer> getServerByName(String name) {
+
+		if (name == null) {
+			return Optional.empty();
+		}
+
+		return Optional.ofNullable(snapshot.byName().get(name));
+	}
+
+	public static synchronized void addServer(McpServer server) {
+
+		Map<String, McpServer> servers = new HashMap<>(snapshot.byId());
+		servers.put(server.getId(), server);
+		snapshot = Snapshot.of(servers.values());
+	}
+
+	public static synchronized boolean removeServerById(String id) {
+
+		if (id == null || !snapshot.byId().containsKey(id)) {
+			return false;
+		}
+
+		Map<String, McpServer> servers = new HashMap<>(snapshot.byId());
+		servers.remove(id);
+		snapshot = Snapshot.of(servers.values());
+
+		return true;
 	}
 
-	public static void addServer(McpServer server) {
-		mcpServerContainer.add(server);
+	/**
+	 * Replace the tool list of the server with the given name.
+	 */
+	public static synchronized void updateTools(String name, List<McpServer.Tools> tools) {
+
+		McpServer current = snapshot.byName().get(name);
+		if (current == null) {
+			return;
+		}
+
+		addServer(McpServer.builder()
+				.id(current.getId())
+				.name(current.getName())
+				.desc(current.getDesc())
+				.env(current.getEnv())
+				.toolList(List.copyOf(tools))
+				.build()
+		);
 	}
 
-	public static boolean removeServerById(String id) {
+	private record Snapshot(Map<String, McpServer> byId, Map<String, McpServer> byName, List<McpServer> servers) {
+
+		static Snapshot of(Collection<McpServer> values) {
+
+			List<McpServer> servers = values.stream()
+					.sorted(Comparator.comparing(McpServer::getName, Comparator.nullsLast(Comparator.naturalOrder())))
+					.toList();
+
+			Map<String, McpServer> byId = new HashMap<>();
+			Map<String, McpServer> byName = new LinkedHashMap<>();
+			for (McpServer server : servers) {
+				byId.put(server.getId(), server);
+				byName.putIfAbsent(server.getName(), server);
+			}
+
+			return new Snapshot(Collections.unmodifiableMap(byId), Collections.unmodifiableMap(byName), servers);
+		}
 
-		return mcpServerContainer.removeIf(server -> server.getId().equals(id));
 	}
 
 }
@@ -17,16 +17,13 @@
 
 package com.alibaba.cloud.ai.application.mcp;
 
-import com.alibaba.cloud.ai.application.config.mcp.SyncMcpToolCallbackWrapper;
 import com.alibaba.cloud.ai.application.entity.mcp.McpServer;
 import com.alibaba.cloud.ai.application.entity.mcp.McpServerConfig;
 import com.alibaba.cloud.ai.application.exception.SAAAppException;
 import com.alibaba.cloud.ai.application.utils.ModelsUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-import org.springframework.ai.mcp.SyncMcpToolCallback;
-import org.springframework.ai.tool.ToolCallback;
-import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.ai.mcp.client.autoconfigure.properties.McpStdioClientProperties;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 
@@ -117,35 +114,36 @@ public final class McpServerUtils {
 		}
 	}
 
+	/**
+	 * Rewrite the relative jar path of a java based MCP server to an absolute path.
+	 * The given parameters are left untouched.
+	 */
+	public static McpStdioClientProperties.Parameters resolveParameters(McpStdioClientProperties.Parameters parameters) {
+
+		List<String> args = parameters.args() == null ? new ArrayList<>() : new ArrayList<>(parameters.args());
+		if (parameters.command().startsWith("java") && !args.isEmpty()) {
+			args.set(args.size() - 1, getMcpLibsAbsPath(getLibsPath(args)));
+		}
+
+		return new McpStdioClientProperties.Parameters(parameters.command(), args, parameters.env());
+	}
+
 	public static String getId() {
 
 		return String.valueOf(UUID.randomUUID());
 	}
 
-	public static void initMcpServerContainer(ToolCallbackProvider toolCallbackProvider) throws IOException {
+	/**
+	 * Register the configured MCP servers, their tools are filled in by {@link McpToolIndex}.
+	 */
+	public static void initMcpServerContainer() throws IOException {
 
 		McpServerConfig mcpServerConfig = McpServerUtils.getMcpServerConfig();
 		Map<String, String> mcpServerDescMap = initMcpServerDescMap();
 
 		mcpServerConfig.getMcpServers().forEach((key, parameters) -> {
-
-			List<McpServer.Tools> toolsList = new ArrayList<>();
-			for (ToolCallback toolCallback : toolCallbackProvider.getToolCallbacks()) {
-
-				// todo: 拿不到 mcp client, 先用包装器拿吧
-				SyncMcpToolCallback mcpToolCallback = (SyncMcpToolCallback) toolCallback;
-				SyncMcpToolCallbackWrapper syncMcpToolCallbackWrapper = new SyncMcpToolCallbackWrapper(mcpToolCallback);
-				String currentMcpServerName = syncMcpToolCallbackWrapper.getMcpClient().getServerInfo().name();
-
-				// 按照 mcp server name 聚合 mcp server tools
-				if (Objects.equals(key, currentMcpServerName)) {
-					McpServer.Tools tool = new McpServer.Tools();
-					tool.setDesc(toolCallback.getToolDefinition().description());
-					tool.setName(toolCallback.getToolDefinition().name());
-					tool.setParams(toolCallback.getToolDefinition().inputSchema());
-
-					toolsList.add(tool);
-				}
+			if (McpServerContainer.getServerByName(key).isPresent()) {
+				return;
 			}
 
 			McpServerContainer.addServer(McpServer.builder()
@@ -153,7 +151,7 @@ public final class McpServerUtils {
 					.name(key)
 					.env(parameters.env())
 					.desc(mcpServerDescMap.get(key))
-					.toolList(toolsList)
+					.toolList(List.of())
 					.build()
 			);
 		});
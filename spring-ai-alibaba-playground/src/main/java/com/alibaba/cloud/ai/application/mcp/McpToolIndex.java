@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.mcp;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+import com.alibaba.cloud.ai.application.entity.mcp.McpServer;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.ai.mcp.customizer.McpSyncClientCustomizer;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Server name to tools index of the configured MCP servers.
+ * <p>
+ * The index is fed with the {@code tools/list} result of every client when it is started and
+ * refreshed from the {@code notifications/tools/list_changed} notification, which is wired into
+ * the auto configured clients through {@link McpSyncClientCustomizer}. The result is published
+ * to {@link McpServerContainer} as an immutable snapshot.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+@Component
+public class McpToolIndex implements McpSyncClientCustomizer {
+
+	private static final Logger logger = LoggerFactory.getLogger(McpToolIndex.class);
+
+	private final List<BiConsumer<String, List<McpSchema.Tool>>> listeners = new CopyOnWriteArrayList<>();
+
+	public McpToolIndex() throws IOException {
+
+		// 先注册 server，mcp client 启动后再补充 tools
+		McpServerUtils.initMcpServerContainer();
+	}
+
+	@Override
+	public void customize(String name, McpClient.SyncSpec spec) {
+
+		spec.toolsChangeConsumer(tools -> update(name, tools));
+	}
+
+	/**
+	 * Replace the tools of the given server and notify the listeners.
+	 */
+	public void update(String serverName, List<McpSchema.Tool> tools) {
+
+		List<McpSchema.Tool> current = Objects.isNull(tools) ? List.of() : List.copyOf(tools);
+		McpServerContainer.updateTools(serverName, current.stream().map(McpToolIndex::toTools).toList());
+		logger.debug("Index {} tools of McpServer {}.", current.size(), serverName);
+
+		listeners.forEach(listener -> listener.accept(serverName, current));
+	}
+
+	public void addListener(BiConsumer<String, List<McpSchema.Tool>> listener) {
+
+		listeners.add(listener);
+	}
+
+	private static McpServer.Tools toTools(McpSchema.Tool tool) {
+
+		McpServer.Tools tools = new McpServer.Tools();
+		tools.setName(tool.name());
+		tools.setDesc(tool.description());
+		tools.setParams(ModelOptionsUtils.toJsonString(tool.inputSchema()));
+
+		return tools;
+	}
+
+}
@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.memory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.content.Media;
+import org.springframework.ai.content.MediaContent;
+import org.springframework.util.MimeType;
+
+/**
+ * Append-only JSON lines journal of the conversation windows that are not yet written to the
+ * database. Every line holds the full window of one conversation, including tool calls, tool
+ * responses, media and metadata, so replay keeps the last line per conversation and is idempotent.
+ * <p>
+ * Appends return a logical offset that keeps growing across truncations, the writer drops the
+ * flushed prefix of the file with {@link #truncateBefore(long)} while other conversations are
+ * still pending.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+class ChatMemoryJournal implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(ChatMemoryJournal.class);
+
+	private final Path path;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private BufferedWriter writer;
+
+	/**
+	 * Logical offset of the first byte of the file.
+	 */
+	private long base;
+
+	/**
+	 * Size of the file in bytes.
+	 */
+	private long size;
+
+	ChatMemoryJournal(Path path) throws IOException {
+
+		this.path = path;
+		if (Objects.nonNull(path.getParent())) {
+			Files.createDirectories(path.getParent());
+		}
+		this.size = Files.exists(path) ? Files.size(path) : 0L;
+	}
+
+	/**
+	 * @return the last journaled window of every conversation, an empty list means deleted
+	 */
+	synchronized Map<String, List<Message>> replay() throws IOException {
+
+		Map<String, List<Message>> windows = new LinkedHashMap<>();
+		if (!Files.exists(path)) {
+			return windows;
+		}
+
+		for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+			if (line.isBlank()) {
+				continue;
+			}
+
+			try {
+				Entry entry = objectMapper.readValue(line, Entry.class);
+				windows.put(entry.conversationId(), entry.messages().stream().map(Entry.Item::toMessage).toList());
+			}
+			catch (IOException e) {
+				// 进程崩溃时最后一行可能只写了一半
+				logger.warn("Skip corrupted chat memory journal line: {}", e.getMessage());
+			}
+		}
+
+		return windows;
+	}
+
+	/**
+	 * Serialize one journal line, done by the caller outside the journal lock.
+	 */
+	String encode(String conversationId, List<Message> messages) throws IOException {
+
+		List<Entry.Item> items = new ArrayList<>(messages.size());
+		for (Message message : messages) {
+			items.add(Entry.Item.of(message));
+		}
+
+		return objectMapper.writeValueAsString(new Entry(conversationId, items)) + "\n";
+	}
+
+	/**
+	 * @param line a line returned by {@link #encode(String, List)}
+	 * @return logical offset of the appended line
+	 */
+	synchronized long append(String line) throws IOException {
+
+		long offset = base + size;
+
+		BufferedWriter out = writer();
+		out.write(line);
+		out.flush();
+		size += line.getBytes(StandardCharsets.UTF_8).length;
+
+		return offset;
+	}
+
+	/**
+	 * Logical offset of the first line still in the file.
+	 */
+	synchronized long start() {
+
+		return base;
+	}
+
+	/**
+	 * Drop every line before the given logical offset, the rest of the file is kept.
+	 */
+	synchronized void truncateBefore(long offset) throws IOException {
+
+		long drop = offset - base;
+		if (drop <= 0) {
+			return;
+		}
+
+		if (drop >= size) {
+			truncate();
+			return;
+		}
+
+		// 把未写库的尾部复制到新文件后原子替换
+		close();
+		Path tmp = Files.createTempFile(Objects.requireNonNullElse(path.toAbsolutePath().getParent(), Path.of(".")),
+				"chat-memory-journal", ".tmp");
+		try {
+			try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ);
+					FileChannel target = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+				long position = drop;
+				while (position < size) {
+					position += source.transferTo(position, size - position, target);
+				}
+			}
+			Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			Files.deleteIfExists(tmp);
+			throw e;
+		}
+
+		base += drop;
+		size -= drop;
+	}
+
+	synchronized void truncate() throws IOException {
+
+		close();
+		Files.deleteIfExists(path);
+		base += size;
+		size = 0L;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+
+		if (Objects.nonNull(writer)) {
+			writer.close();
+			writer = null;
+		}
+	}
+
+	private BufferedWriter writer() throws IOException {
+
+		if (Objects.isNull(writer)) {
+			writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND);
+		}
+
+		return writer;
+	}
+
+	record Entry(String conversationId, List<Item> messages) {
+
+		record Item(String type, String text, Map<String, Object> metadata, List<AssistantMessage.ToolCall> toolCalls,
+				List<ToolResponseMessage.ToolResponse> toolResponses, List<MediaItem> media) {
+
+			static Item of(Message message) {
+				List<AssistantMessage.ToolCall> toolCalls = message instanceof AssistantMessage assistantMessage
+						&& assistantMessage.hasToolCalls() ? assistantMessage.getToolCalls() : null;
+				List<ToolResponseMessage.ToolResponse> toolResponses = message instanceof ToolResponseMessage toolResponseMessage
+						? toolResponseMessage.getResponses() : null;
+				List<MediaItem> media = message instanceof MediaContent mediaContent && !mediaContent.getMedia().isEmpty()
+						? mediaContent.getMedia().stream().map(MediaItem::of).toList() : null;
+
+				return new Item(message.getMessageType().name(), message.getText(), message.getMetadata(), toolCalls,
+						toolResponses, media);
+			}
+
+			Message toMessage() {
+				Map<String, Object> properties = Objects.requireNonNullElse(metadata, Map.of());
+				List<Media> mediaList = Objects.isNull(media) ? List.of() : media.stream().map(MediaItem::toMedia).toList();
+
+				return switch (MessageType.valueOf(type)) {
+					case USER -> UserMessage.builder().text(text).media(mediaList).metadata(properties).build();
+					case ASSISTANT -> new AssistantMessage(text, properties,
+							Objects.requireNonNullElse(toolCalls, List.of()), mediaList);
+					case SYSTEM -> SystemMessage.builder().text(text).metadata(properties).build();
+					case TOOL -> new ToolResponseMessage(Objects.requireNonNullElse(toolResponses, List.of()), properties);
+				};
+			}
+
+		}
+
+		/**
+		 * Media is either a URL or inline bytes, Jackson writes the bytes as base64.
+		 */
+		record MediaItem(String id, String name, String mimeType, String url, byte[] bytes) {
+
+			static MediaItem of(Media media) {
+				Object data = media.getData();
+				return data instanceof byte[] bytes
+						? new MediaItem(media.getId(), media.getName(), media.getMimeType().toString(), null, bytes)
+						: new MediaItem(media.getId(), media.getName(), media.getMimeType().toString(),
+								String.valueOf(data), null);
+			}
+
+			Media toMedia() {
+				return Media.builder()
+						.id(id)
+						.name(name)
+						.mimeType(MimeType.valueOf(mimeType))
+						.data(Objects.nonNull(bytes) ? bytes : url)
+						.build();
+			}
+
+		}
+
+	}
+
+}
@@ -0,0 +1,621 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.memory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.ai.application.exception.SAAAppException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Write-behind {@link ChatMemoryRepository} in front of the SQLite repository.
+ * <p>
+ * Reads are served from the pending writes and an in-memory window per conversation, so the
+ * request path never waits for the SQLite writer lock. Writes update the window, are appended to
+ * the crash recovery journal and handed to a single writer thread, which coalesces them per
+ * conversation and writes a whole batch in one transaction. The queue of dirty conversations is
+ * bounded, callers block once the writer falls that far behind. Pending writes are flushed on
+ * {@link #close()}, and replayed from the journal on the next start after a crash.
+ * <p>
+ * Saves only lock one of a fixed set of stripes picked by the conversation id, which keeps the
+ * journal lines, pending windows and cached windows of one conversation in order without
+ * serializing other conversations. When a batch fails its conversations are retried one by one,
+ * a conversation that still fails after {@value #MAX_ATTEMPTS} attempts is parked: it stays
+ * pending and journaled, and is queued again by its next save, while the others keep draining.
+ * <p>
+ * After every batch the journal drops everything before the oldest line still needed, which is
+ * the latest line of the least recently journaled pending conversation, so the journal also stays
+ * small under steady load.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+public class WriteBehindChatMemoryRepository implements ChatMemoryRepository, AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(WriteBehindChatMemoryRepository.class);
+
+	private static final Duration RETRY_BACKOFF = Duration.ofSeconds(1);
+
+	private static final int MAX_ATTEMPTS = 3;
+
+	private static final int STRIPES = 64;
+
+	/**
+	 * Rewrite the journal once its already written prefix is larger than this.
+	 */
+	private static final long JOURNAL_COMPACT_BYTES = 1024 * 1024;
+
+	private final ChatMemoryRepository delegate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final ChatMemoryJournal journal;
+
+	private final int batchSize;
+
+	private final Cache<String, List<Message>> windows;
+
+	/**
+	 * Latest not yet written window of every dirty conversation, an empty list means deleted.
+	 */
+	private final Map<String, List<Message>> pending = new ConcurrentHashMap<>();
+
+	/**
+	 * Journal offset of the latest line of every pending conversation, guarded by itself.
+	 */
+	private final Map<String, Long> journalOffsets = new LinkedHashMap<>();
+
+	/**
+	 * Per-conversation locks, a conversation always maps to the same stripe.
+	 */
+	private final Object[] stripes = new Object[STRIPES];
+
+	/**
+	 * Save count of every stripe, guarded by the stripe, lets a reader detect saves during its
+	 * database read.
+	 */
+	private final long[] generations = new long[STRIPES];
+
+	/**
+	 * Conversations that ran out of write attempts, they stay pending until saved again.
+	 */
+	private final Set<String> parked = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Failed write attempts per conversation, only used by the writer thread.
+	 */
+	private final Map<String, Integer> attempts = new HashMap<>();
+
+	private final BlockingQueue<String> dirty;
+
+	private final Thread writer;
+
+	private volatile boolean running = true;
+
+	/**
+	 * Set by {@link #close()} once pending writes are drained, saves then write synchronously.
+	 */
+	private volatile boolean synchronous = false;
+
+	private WriteBehindChatMemoryRepository(Builder builder) {
+
+		Assert.notNull(builder.delegate, "delegate cannot be null");
+		Assert.isTrue(builder.queueCapacity > 0, "queueCapacity must be positive");
+		Assert.isTrue(builder.batchSize > 0, "batchSize must be positive");
+
+		this.delegate = builder.delegate;
+		this.transactionTemplate = builder.transactionTemplate;
+		this.batchSize = builder.batchSize;
+		this.dirty = new LinkedBlockingQueue<>(builder.queueCapacity);
+		this.windows = CacheBuilder.newBuilder()
+				.maximumSize(builder.maxConversations)
+				.build();
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new Object();
+		}
+
+		try {
+			this.journal = Objects.nonNull(builder.journalPath) ? new ChatMemoryJournal(builder.journalPath) : null;
+			recover();
+		}
+		catch (IOException e) {
+			throw new SAAAppException("Failed to open chat memory journal: " + e.getMessage());
+		}
+
+		this.writer = new Thread(this::writeLoop, "chat-memory-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	@Override
+	public List<String> findConversationIds() {
+
+		Set<String> ids = new LinkedHashSet<>(delegate.findConversationIds());
+		pending.forEach((id, messages) -> {
+			if (messages.isEmpty()) {
+				ids.remove(id);
+			}
+			else {
+				ids.add(id);
+			}
+		});
+
+		return new ArrayList<>(ids);
+	}
+
+	@Override
+	public List<Message> findByConversationId(String conversationId) {
+
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+
+		int stripe = stripe(conversationId);
+		long generation;
+		synchronized (stripes[stripe]) {
+			List<Message> messages = pending.get(conversationId);
+			if (Objects.isNull(messages)) {
+				messages = windows.getIfPresent(conversationId);
+			}
+			if (Objects.nonNull(messages)) {
+				return messages;
+			}
+			generation = generations[stripe];
+		}
+
+		List<Message> messages = List.copyOf(delegate.findByConversationId(conversationId));
+
+		// 读库期间有过写入时读到的可能是旧数据，不缓存
+		synchronized (stripes[stripe]) {
+			if (generations[stripe] == generation && !pending.containsKey(conversationId)) {
+				windows.put(conversationId, messages);
+			}
+		}
+
+		return messages;
+	}
+
+	@Override
+	public void saveAll(String conversationId, List<Message> messages) {
+
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+		Assert.notNull(messages, "messages cannot be null");
+
+		submit(conversationId, List.copyOf(messages));
+	}
+
+	@Override
+	public void deleteByConversationId(String conversationId) {
+
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+
+		submit(conversationId, List.of());
+	}
+
+	/**
+	 * Stop the writer, write every pending conversation and switch to synchronous writes.
+	 */
+	@Override
+	public void close() {
+
+		running = false;
+		writer.interrupt();
+		try {
+			writer.join(TimeUnit.SECONDS.toMillis(10));
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		// 唤醒因队列已满而阻塞的调用方，它们的数据已在 pending 中
+		dirty.clear();
+
+		if (!pending.isEmpty()) {
+			logger.info("Flush {} pending chat memory conversations on shutdown", pending.size());
+			Map<String, List<Message>> snapshots = new LinkedHashMap<>(pending);
+			try {
+				write(snapshots);
+				snapshots.forEach(this::written);
+			}
+			catch (RuntimeException e) {
+				logger.warn("Failed to flush chat memory on shutdown, retry one by one: {}", e.getMessage());
+			}
+		}
+
+		// 之后的保存直接写库，再逐个写入切换前刚进入 pending 的会话，与保存共用分段锁保证顺序
+		synchronous = true;
+		boolean flushed = true;
+		for (String id : new ArrayList<>(pending.keySet())) {
+			synchronized (stripes[stripe(id)]) {
+				List<Message> messages = pending.get(id);
+				if (Objects.isNull(messages)) {
+					continue;
+				}
+				try {
+					write(Map.of(id, messages));
+					written(id, messages);
+				}
+				catch (RuntimeException e) {
+					flushed = false;
+					logger.warn("Failed to flush chat memory of {} on shutdown, keep the journal for recovery: {}", id,
+							e.getMessage());
+				}
+			}
+		}
+
+		if (Objects.nonNull(journal)) {
+			synchronized (journalOffsets) {
+				try {
+					if (flushed) {
+						journal.truncate();
+					}
+					journal.close();
+				}
+				catch (IOException e) {
+					logger.warn("Failed to close chat memory journal: {}", e.getMessage());
+				}
+			}
+		}
+	}
+
+	private void submit(String conversationId, List<Message> messages) {
+
+		boolean queue;
+		synchronized (stripes[stripe(conversationId)]) {
+			generations[stripe(conversationId)]++;
+			if (synchronous) {
+				// 已关闭，直接同步写库，丢弃被覆盖的旧快照
+				write(Map.of(conversationId, messages));
+				pending.remove(conversationId);
+				windows.put(conversationId, messages);
+				return;
+			}
+
+			journal(conversationId, messages);
+			List<Message> previous = pending.put(conversationId, messages);
+			windows.put(conversationId, messages);
+			// 已搁置的会话有新数据时重新排队重试
+			queue = Objects.isNull(previous) || parked.remove(conversationId);
+		}
+
+		if (queue) {
+			try {
+				// 队列满时阻塞调用方，形成背压
+				dirty.put(conversationId);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SAAAppException("Interrupted while queuing chat memory write for: " + conversationId);
+			}
+		}
+	}
+
+	private void writeLoop() {
+
+		List<String> carried = new ArrayList<>();
+		while (running) {
+			try {
+				List<String> batch = new ArrayList<>(carried);
+				carried.clear();
+				if (batch.isEmpty()) {
+					batch.add(dirty.take());
+				}
+				dirty.drainTo(batch, Math.max(0, batchSize - batch.size()));
+				carried.addAll(flush(batch));
+			}
+			catch (InterruptedException e) {
+				// close() 负责写入剩余数据
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return conversations that still have pending data, changed during the write or failed
+	 */
+	private List<String> flush(List<String> conversationIds) throws InterruptedException {
+
+		Map<String, List<Message>> snapshots = new LinkedHashMap<>();
+		for (String id : conversationIds) {
+			List<Message> messages = pending.get(id);
+			if (Objects.nonNull(messages)) {
+				snapshots.put(id, messages);
+			}
+		}
+
+		if (snapshots.isEmpty()) {
+			return List.of();
+		}
+
+		Map<String, List<Message>> failed = new LinkedHashMap<>();
+		try {
+			write(snapshots);
+		}
+		catch (RuntimeException e) {
+			logger.warn("Failed to write {} chat memory conversations in one batch, retry one by one: {}",
+					snapshots.size(), e.getMessage());
+
+			// 逐个重试，找出失败的会话，其余会话照常写入
+			snapshots.forEach((id, messages) -> {
+				try {
+					write(Map.of(id, messages));
+				}
+				catch (RuntimeException ex) {
+					failed.put(id, messages);
+					logger.warn("Failed to write chat memory of {}: {}", id, ex.getMessage());
+				}
+			});
+		}
+
+		// 只移除已写入的快照，写入期间产生的新快照留给下一批
+		List<String> changed = new ArrayList<>();
+		snapshots.forEach((id, messages) -> {
+			if (failed.containsKey(id)) {
+				if (retry(id, messages)) {
+					changed.add(id);
+				}
+			}
+			else {
+				attempts.remove(id);
+				if (!written(id, messages)) {
+					changed.add(id);
+				}
+			}
+		});
+
+		synchronized (journalOffsets) {
+			compactJournal();
+		}
+
+		logger.debug("Wrote {} chat memory conversations in one batch", snapshots.size() - failed.size());
+
+		if (!failed.isEmpty()) {
+			Thread.sleep(RETRY_BACKOFF.toMillis());
+		}
+
+		return changed;
+	}
+
+	/**
+	 * Count a failed write, park the conversation once it is out of attempts and unchanged.
+	 *
+	 * @return whether to retry it in the next batch
+	 */
+	private boolean retry(String conversationId, List<Message> messages) {
+
+		int failures = attempts.merge(conversationId, 1, Integer::sum);
+		if (failures < MAX_ATTEMPTS) {
+			return true;
+		}
+
+		synchronized (stripes[stripe(conversationId)]) {
+			if (pending.get(conversationId) != messages) {
+				// 失败期间又有新数据，当作新的写入继续重试
+				attempts.remove(conversationId);
+				return true;
+			}
+
+			attempts.remove(conversationId);
+			parked.add(conversationId);
+		}
+
+		logger.error("Park chat memory of {} after {} failed writes, keep it in the journal until it is saved again",
+				conversationId, MAX_ATTEMPTS);
+		return false;
+	}
+
+	/**
+	 * Drop the pending snapshot once it is written, unless a newer one replaced it meanwhile.
+	 *
+	 * @return whether the written snapshot was still the pending one
+	 */
+	private boolean written(String conversationId, List<Message> messages) {
+
+		synchronized (stripes[stripe(conversationId)]) {
+			if (!pending.remove(conversationId, messages)) {
+				return false;
+			}
+
+			parked.remove(conversationId);
+			synchronized (journalOffsets) {
+				journalOffsets.remove(conversationId);
+			}
+			return true;
+		}
+	}
+
+	private void write(Map<String, List<Message>> snapshots) {
+
+		Runnable work = () -> snapshots.forEach((id, messages) -> {
+			if (messages.isEmpty()) {
+				delegate.deleteByConversationId(id);
+			}
+			else {
+				delegate.saveAll(id, messages);
+			}
+		});
+
+		if (Objects.nonNull(transactionTemplate)) {
+			transactionTemplate.executeWithoutResult(status -> work.run());
+		}
+		else {
+			work.run();
+		}
+	}
+
+	private void recover() throws IOException {
+
+		if (Objects.isNull(journal)) {
+			return;
+		}
+
+		Map<String, List<Message>> recovered = journal.replay();
+		if (!recovered.isEmpty()) {
+			logger.info("Recover {} chat memory conversations from journal", recovered.size());
+			write(recovered);
+		}
+
+		journal.truncate();
+	}
+
+	/**
+	 * Called under the stripe lock of the conversation, which keeps its lines in order.
+	 */
+	private void journal(String conversationId, List<Message> messages) {
+
+		if (Objects.isNull(journal)) {
+			return;
+		}
+
+		try {
+			String line = journal.encode(conversationId, messages);
+			// 追加和记录位置一起完成，避免压缩时删掉刚追加但还未登记的行
+			synchronized (journalOffsets) {
+				long offset = journal.append(line);
+				// 按最后一次写入的位置排序，第一个即为仍需保留的最早一行
+				journalOffsets.remove(conversationId);
+				journalOffsets.put(conversationId, offset);
+			}
+		}
+		catch (IOException e) {
+			logger.warn("Failed to journal chat memory of {}: {}", conversationId, e.getMessage());
+		}
+	}
+
+	/**
+	 * 每个对话只需要最后一行，最早的待写入对话之前的内容都已写库或被后面的行覆盖，调用方持有 journalOffsets 锁
+	 */
+	private void compactJournal() {
+
+		if (Objects.isNull(journal)) {
+			return;
+		}
+
+		try {
+			if (journalOffsets.isEmpty()) {
+				journal.truncate();
+				return;
+			}
+
+			long keepFrom = journalOffsets.values().iterator().next();
+			if (keepFrom - journal.start() >= JOURNAL_COMPACT_BYTES) {
+				journal.truncateBefore(keepFrom);
+			}
+		}
+		catch (IOException e) {
+			logger.warn("Failed to truncate chat memory journal: {}", e.getMessage());
+		}
+	}
+
+	private static int stripe(String conversationId) {
+
+		return Math.floorMod(conversationId.hashCode(), STRIPES);
+	}
+
+	public static WriteBehindChatMemoryRepository.Builder builder(ChatMemoryRepository delegate) {
+		return new WriteBehindChatMemoryRepository.Builder(delegate);
+	}
+
+	public static final class Builder {
+
+		private final ChatMemoryRepository delegate;
+
+		private TransactionTemplate transactionTemplate;
+
+		private Path journalPath;
+
+		private int queueCapacity = 1024;
+
+		private int batchSize = 64;
+
+		private long maxConversations = 1000;
+
+		private Builder(ChatMemoryRepository delegate) {
+			this.delegate = delegate;
+		}
+
+		/**
+		 * Write every batch in one transaction.
+		 */
+		public WriteBehindChatMemoryRepository.Builder transactionTemplate(TransactionTemplate transactionTemplate) {
+
+			this.transactionTemplate = transactionTemplate;
+			return this;
+		}
+
+		/**
+		 * Crash recovery journal location, {@code null} disables the journal.
+		 */
+		public WriteBehindChatMemoryRepository.Builder journalPath(Path journalPath) {
+
+			this.journalPath = journalPath;
+			return this;
+		}
+
+		/**
+		 * Max dirty conversations waiting for the writer before callers block.
+		 */
+		public WriteBehindChatMemoryRepository.Builder queueCapacity(int queueCapacity) {
+
+			this.queueCapacity = queueCapacity;
+			return this;
+		}
+
+		public WriteBehindChatMemoryRepository.Builder batchSize(int batchSize) {
+
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * Max conversation windows kept in memory for reads.
+		 */
+		public WriteBehindChatMemoryRepository.Builder maxConversations(long maxConversations) {
+
+			this.maxConversations = maxConversations;
+			return this;
+		}
+
+		public WriteBehindChatMemoryRepository build() {
+
+			return new WriteBehindChatMemoryRepository(this);
+		}
+	}
+
+}
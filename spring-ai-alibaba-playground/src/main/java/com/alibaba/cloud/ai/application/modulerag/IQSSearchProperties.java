@@ -17,6 +17,8 @@
 
 package com.alibaba.cloud.ai.application.modulerag;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -29,6 +31,56 @@ public class IQSSearchProperties {
 
 	private String apiKey;
 
+	/**
+	 * Per search request timeout, a slow query is dropped instead of delaying the whole fan-out.
+	 */
+	private Duration timeout = Duration.ofSeconds(10);
+
+	/**
+	 * Use the non-blocking WebClient based search client.
+	 */
+	private boolean reactive = true;
+
+	/**
+	 * Max pooled keep-alive connections of the non-blocking search client.
+	 */
+	private int maxConnections = 64;
+
+	/**
+	 * Send a hedged request when a search is slower than the observed p95 latency.
+	 */
+	private boolean hedgeEnabled = false;
+
+	/**
+	 * How the results of the expanded queries are joined: {@code rrf} (reciprocal rank fusion) or {@code concatenation}.
+	 */
+	private String joiner = "rrf";
+
+	/**
+	 * Max documents kept by the reciprocal rank fusion joiner.
+	 */
+	private int joinTopK = 10;
+
+	/**
+	 * Max documents kept from every single search response.
+	 */
+	private int maxResults = 4;
+
+	/**
+	 * Rerank the joined documents locally with BM25 before they are added to the prompt.
+	 */
+	private boolean rerankEnabled = true;
+
+	/**
+	 * Documents kept after reranking.
+	 */
+	private int rerankTopN = 4;
+
+	/**
+	 * Latency budget of the rerank stage, slower candidates keep their joined order.
+	 */
+	private Duration rerankBudget = Duration.ofMillis(300);
+
 	public String getApiKey() {
 		return this.apiKey;
 	}
@@ -37,4 +89,84 @@ public class IQSSearchProperties {
 		this.apiKey = apiKey;
 	}
 
+	public Duration getTimeout() {
+		return this.timeout;
+	}
+
+	public void setTimeout(Duration timeout) {
+		this.timeout = timeout;
+	}
+
+	public boolean isReactive() {
+		return this.reactive;
+	}
+
+	public void setReactive(boolean reactive) {
+		this.reactive = reactive;
+	}
+
+	public int getMaxConnections() {
+		return this.maxConnections;
+	}
+
+	public void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+
+	public boolean isHedgeEnabled() {
+		return this.hedgeEnabled;
+	}
+
+	public void setHedgeEnabled(boolean hedgeEnabled) {
+		this.hedgeEnabled = hedgeEnabled;
+	}
+
+	public String getJoiner() {
+		return this.joiner;
+	}
+
+	public void setJoiner(String joiner) {
+		this.joiner = joiner;
+	}
+
+	public int getJoinTopK() {
+		return this.joinTopK;
+	}
+
+	public void setJoinTopK(int joinTopK) {
+		this.joinTopK = joinTopK;
+	}
+
+	public int getMaxResults() {
+		return this.maxResults;
+	}
+
+	public void setMaxResults(int maxResults) {
+		this.maxResults = maxResults;
+	}
+
+	public boolean isRerankEnabled() {
+		return this.rerankEnabled;
+	}
+
+	public void setRerankEnabled(boolean rerankEnabled) {
+		this.rerankEnabled = rerankEnabled;
+	}
+
+	public int getRerankTopN() {
+		return this.rerankTopN;
+	}
+
+	public void setRerankTopN(int rerankTopN) {
+		this.rerankTopN = rerankTopN;
+	}
+
+	public Duration getRerankBudget() {
+		return this.rerankBudget;
+	}
+
+	public void setRerankBudget(Duration rerankBudget) {
+		this.rerankBudget = rerankBudget;
+	}
+
 }
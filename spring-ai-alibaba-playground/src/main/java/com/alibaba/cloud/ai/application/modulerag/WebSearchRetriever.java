@@ -18,10 +18,9 @@
 package com.alibaba.cloud.ai.application.modulerag;
 
 import com.alibaba.cloud.ai.application.entity.IQSSearchResponse;
-import com.alibaba.cloud.ai.application.exception.SAAAppException;
 import com.alibaba.cloud.ai.application.modulerag.core.IQSSearchEngine;
+import com.alibaba.cloud.ai.application.modulerag.core.ReactiveIQSSearchEngine;
 import com.alibaba.cloud.ai.application.modulerag.data.DataClean;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,9 +28,20 @@ import org.springframework.ai.document.Document;
 import org.springframework.ai.rag.Query;
 import org.springframework.ai.rag.retrieval.search.DocumentRetriever;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 
 import java.net.URISyntaxException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * spring-ai 从 0.8.0 版本开始不支持 DocumentRanker.
@@ -50,11 +60,20 @@ public class WebSearchRetriever implements DocumentRetriever {
 
 	private final IQSSearchEngine searchEngine;
 
+	private final ReactiveIQSSearchEngine reactiveSearchEngine;
+
+	private final Duration timeout;
+
+	private final Executor executor;
+
 	private WebSearchRetriever(Builder builder) {
 
 		this.searchEngine = builder.searchEngine;
+		this.reactiveSearchEngine = builder.reactiveSearchEngine;
 		this.maxResults = builder.maxResults;
 		this.dataCleaner = builder.dataCleaner;
+		this.timeout = builder.timeout;
+		this.executor = builder.executor;
 	}
 
 	@NotNull
@@ -63,12 +82,29 @@ public class WebSearchRetriever implements DocumentRetriever {
 			@Nullable Query query
 	) {
 
-		// 搜索
+		// 搜索，单个查询失败或超时只丢弃该查询的结果，不影响其他扩展查询
+		// 连接/读超时只约束单次 HTTP 读写，这里再对整个查询（含对冲请求）设置总超时
+		Future<IQSSearchResponse> future = search(query.text());
 		IQSSearchResponse searchResp;
 		try {
-			searchResp = searchEngine.search(query.text());
-		} catch (JsonProcessingException e) {
-			throw new SAAAppException("json process error" + e.getMessage());
+			searchResp = future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			logger.warn("WebSearchRetriever#retrieve() search timed out after {} ms for query: {}, skip it.",
+					timeout.toMillis(), query.text());
+			return List.of();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			logger.warn("WebSearchRetriever#retrieve() interrupted while searching query: {}, skip it.", query.text());
+			return List.of();
+		} catch (ExecutionException e) {
+			logger.warn("WebSearchRetriever#retrieve() search failed for query: {}, skip it.", query.text(), e.getCause());
+			return List.of();
+		}
+
+		if (Objects.isNull(searchResp)) {
+			return List.of();
 		}
 
 		// 清洗数据
@@ -91,6 +127,26 @@ public class WebSearchRetriever implements DocumentRetriever {
 		return documents;
 	}
 
+	/**
+	 * DocumentRetriever 是同步接口，非阻塞客户端直接转为 future，同步客户端提交到独立线程池执行.
+	 * 同步查询包装为 FutureTask，超时取消时会中断执行线程，阻塞中的请求随之结束并释放线程.
+	 */
+	private Future<IQSSearchResponse> search(String query) {
+
+		if (Objects.nonNull(reactiveSearchEngine)) {
+			return reactiveSearchEngine.search(query).toFuture();
+		}
+
+		FutureTask<IQSSearchResponse> task = new FutureTask<>(() -> searchEngine.search(query));
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+
+		return task;
+	}
+
 	public static WebSearchRetriever.Builder builder() {
 		return new WebSearchRetriever.Builder();
 	}
@@ -100,16 +156,31 @@ public class WebSearchRetriever implements DocumentRetriever {
 
 		private IQSSearchEngine searchEngine;
 
+		private ReactiveIQSSearchEngine reactiveSearchEngine;
+
 		private int maxResults;
 
 		private DataClean dataCleaner;
 
+		private Duration timeout = Duration.ofSeconds(10);
+
+		private Executor executor;
+
 		public WebSearchRetriever.Builder searchEngine(IQSSearchEngine searchEngine) {
 
 			this.searchEngine = searchEngine;
 			return this;
 		}
 
+		/**
+		 * Prefer the non-blocking search client when set.
+		 */
+		public WebSearchRetriever.Builder reactiveSearchEngine(ReactiveIQSSearchEngine reactiveSearchEngine) {
+
+			this.reactiveSearchEngine = reactiveSearchEngine;
+			return this;
+		}
+
 		public WebSearchRetriever.Builder dataCleaner(DataClean dataCleaner) {
 
 			this.dataCleaner = dataCleaner;
@@ -122,8 +193,30 @@ public class WebSearchRetriever implements DocumentRetriever {
 			return this;
 		}
 
+		/**
+		 * Total time to wait for the search of a single query, including hedged requests.
+		 */
+		public WebSearchRetriever.Builder timeout(Duration timeout) {
+
+			this.timeout = timeout;
+			return this;
+		}
+
+		/**
+		 * Executor running the blocking search client, required when no reactive search engine is set.
+		 */
+		public WebSearchRetriever.Builder executor(Executor executor) {
+
+			this.executor = executor;
+			return this;
+		}
+
 		public WebSearchRetriever build() {
 
+			Assert.notNull(timeout, "timeout must not be null");
+			Assert.isTrue(Objects.nonNull(reactiveSearchEngine) || Objects.nonNull(executor),
+					"executor must not be null when no reactive search engine is set");
+
 			return new WebSearchRetriever(this);
 		}
 	}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.modulerag.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Pre-serialized IQS unified search request body. Everything except the query is constant,
+ * so the JSON is rendered once and only the escaped query is spliced in per request.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+final class IQSRequestTemplate {
+
+	private static final String QUERY_PLACEHOLDER = "__SAA_QUERY__";
+
+	private final ObjectMapper objectMapper;
+
+	private final String prefix;
+
+	private final String suffix;
+
+	IQSRequestTemplate(ObjectMapper objectMapper, String timeRange) {
+
+		this.objectMapper = objectMapper;
+
+		Map<String, Boolean> reqDataContents = new LinkedHashMap<>();
+		reqDataContents.put("mainText", true);
+		// IQS 目前得 md 文档效果不好，所以关闭.
+		reqDataContents.put("markdownText", false);
+		reqDataContents.put("rerankScore", true);
+		Map<String, Object> reqData = new LinkedHashMap<>();
+		reqData.put("query", QUERY_PLACEHOLDER);
+		reqData.put("timeRange", timeRange);
+		reqData.put("engineType", "Generic");
+		reqData.put("contents", reqDataContents);
+
+		try {
+			String template = objectMapper.writeValueAsString(reqData);
+			int index = template.indexOf("\"" + QUERY_PLACEHOLDER + "\"");
+			this.prefix = template.substring(0, index);
+			this.suffix = template.substring(index + QUERY_PLACEHOLDER.length() + 2);
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException("Failed to build IQS request template", e);
+		}
+	}
+
+	String render(String query) throws JsonProcessingException {
+		return this.prefix + this.objectMapper.writeValueAsString(query) + this.suffix;
+	}
+
+}
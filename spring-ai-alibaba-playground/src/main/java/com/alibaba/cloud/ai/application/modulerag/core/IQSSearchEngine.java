@@ -23,6 +23,7 @@ import com.alibaba.cloud.ai.application.modulerag.IQSSearchProperties;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -32,8 +33,6 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestClient;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
 
@@ -50,7 +49,7 @@ public class IQSSearchEngine {
 
 	private final RestClient restClient;
 
-	private final ObjectMapper objectMapper;
+	private final IQSRequestTemplate requestTemplate;
 
 	private final IQSSearchProperties iqsSearchProperties;
 
@@ -65,9 +64,18 @@ public class IQSSearchEngine {
 			ResponseErrorHandler responseErrorHandler
 	) {
 
-		this.objectMapper = new ObjectMapper();
+		this.requestTemplate = new IQSRequestTemplate(objectMapper, TIME_RANGE);
 		this.iqsSearchProperties = iqsSearchProperties;
 		this.restClient = restClientBuilder.baseUrl(BASE_URL)
+				// 单次搜索超时，避免某个查询拖慢整个多查询检索
+				.requestFactory(
+						ClientHttpRequestFactoryBuilder.reactor().withCustomizer(
+								factory -> {
+									factory.setConnectTimeout(iqsSearchProperties.getTimeout());
+									factory.setReadTimeout(iqsSearchProperties.getTimeout());
+								}
+						).build()
+				)
 				.defaultHeaders(getHeaders())
 				.defaultStatusHandler(responseErrorHandler)
 				.build();
@@ -75,17 +83,7 @@ public class IQSSearchEngine {
 
 	public IQSSearchResponse search(String query) throws JsonProcessingException {
 
-		Map<String, Boolean> reqDataContents = new HashMap<>();
-		reqDataContents.put("mainText", true);
-		// IQS 目前得 md 文档效果不好，所以关闭.
-		reqDataContents.put("markdownText", false);
-		reqDataContents.put("rerankScore", true);
-		Map<String, Object> reqData = new HashMap<>();
-		reqData.put("query", query);
-		reqData.put("timeRange", TIME_RANGE);
-		reqData.put("engineType", "Generic");
-		reqData.put("contents", reqDataContents);
-		String jsonReqData = objectMapper.writeValueAsString(reqData);
+		String jsonReqData = requestTemplate.render(query);
 
 		// String encodeQ = URLEncoder.encode(query, StandardCharsets.UTF_8);
 		ResponseEntity<IQSSearchResponse> response = this.restClient.post()
@@ -123,7 +121,7 @@ public class IQSSearchEngine {
 		};
 	}
 
-	private static String userAgent() {
+	static String userAgent() {
 
 		return String.format("%s/%s; java/%s; platform/%s; processor/%s", "SpringAiAlibabaPlayground", "1.0.0", System.getProperty("java.version"), System.getProperty("os.name"), System.getProperty("os.arch"));
 	}
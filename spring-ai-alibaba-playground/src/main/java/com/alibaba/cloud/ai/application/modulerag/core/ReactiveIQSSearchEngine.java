@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.modulerag.core;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.alibaba.cloud.ai.application.entity.IQSSearchResponse;
+import com.alibaba.cloud.ai.application.modulerag.IQSSearchProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Non-blocking <a href="https://help.aliyun.com/document_detail/2883041.html">通晓搜索</a> client.
+ * <p>
+ * Uses a dedicated, bounded keep-alive connection pool and a pre-serialized request body. When
+ * hedging is enabled, a second identical request is sent if the first one has not answered
+ * within the observed p95 latency, the first response wins.
+ * <p>
+ * Only registered when {@code spring.ai.alibaba.playground.iqs.search.reactive} is enabled, the
+ * connection pool is disposed when the context closes.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+@Component
+@EnableConfigurationProperties(IQSSearchProperties.class)
+@ConditionalOnProperty(prefix = "spring.ai.alibaba.playground.iqs.search", name = "reactive", havingValue = "true",
+		matchIfMissing = true)
+public class ReactiveIQSSearchEngine implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReactiveIQSSearchEngine.class);
+
+	private static final String TIME_RANGE = "OneWeek";
+
+	private static final String BASE_URL = "https://cloud-iqs.aliyuncs.com/";
+
+	private final WebClient webClient;
+
+	private final IQSRequestTemplate requestTemplate;
+
+	private final IQSSearchProperties iqsSearchProperties;
+
+	private final ConnectionProvider connectionProvider;
+
+	private final LatencyTracker latencyTracker = new LatencyTracker(256);
+
+	public ReactiveIQSSearchEngine(
+			ObjectMapper objectMapper,
+			WebClient.Builder webClientBuilder,
+			IQSSearchProperties iqsSearchProperties
+	) {
+
+		this.iqsSearchProperties = iqsSearchProperties;
+		this.requestTemplate = new IQSRequestTemplate(objectMapper, TIME_RANGE);
+
+		this.connectionProvider = ConnectionProvider.builder("iqs-search")
+				.maxConnections(iqsSearchProperties.getMaxConnections())
+				.pendingAcquireMaxCount(iqsSearchProperties.getMaxConnections() * 4)
+				.pendingAcquireTimeout(iqsSearchProperties.getTimeout())
+				.maxIdleTime(Duration.ofSeconds(30))
+				.evictInBackground(Duration.ofSeconds(60))
+				.build();
+
+		HttpClient httpClient = HttpClient.create(connectionProvider)
+				.keepAlive(true)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) iqsSearchProperties.getTimeout().toMillis())
+				.responseTimeout(iqsSearchProperties.getTimeout());
+
+		this.webClient = webClientBuilder.clone()
+				.baseUrl(BASE_URL)
+				.clientConnector(new ReactorClientHttpConnector(httpClient))
+				.defaultHeaders(httpHeaders -> {
+					httpHeaders.setContentType(MediaType.APPLICATION_JSON);
+					httpHeaders.set("user-agent", IQSSearchEngine.userAgent());
+
+					if (StringUtils.hasText(iqsSearchProperties.getApiKey())) {
+						httpHeaders.set("X-API-Key", iqsSearchProperties.getApiKey());
+					}
+				})
+				.build();
+	}
+
+	public Mono<IQSSearchResponse> search(String query) {
+
+		String body;
+		try {
+			body = requestTemplate.render(query);
+		}
+		catch (JsonProcessingException e) {
+			return Mono.error(e);
+		}
+
+		Mono<IQSSearchResponse> primary = exchange(query, body);
+		Duration hedgeDelay = iqsSearchProperties.isHedgeEnabled() ? latencyTracker.p95() : null;
+		if (Objects.isNull(hedgeDelay)) {
+			return primary;
+		}
+
+		Mono<IQSSearchResponse> hedged = Mono.delay(hedgeDelay)
+				.doOnNext(tick -> logger.debug("IQS search for query: {} slower than p95 {} ms, send hedged request.",
+						query, hedgeDelay.toMillis()))
+				.then(exchange(query, body));
+
+		return Mono.firstWithValue(primary, hedged);
+	}
+
+	@Override
+	public void destroy() {
+
+		connectionProvider.disposeLater().block(iqsSearchProperties.getTimeout());
+	}
+
+	private Mono<IQSSearchResponse> exchange(String query, String body) {
+
+		return Mono.defer(() -> {
+			long start = System.nanoTime();
+
+			return webClient.post()
+					.uri("/search/unified?query={query}&timeRange={timeRange}", query, TIME_RANGE)
+					.contentType(MediaType.APPLICATION_JSON)
+					.bodyValue(body)
+					.retrieve()
+					.bodyToMono(IQSSearchResponse.class)
+					.doOnNext(resp -> latencyTracker.record(System.nanoTime() - start));
+		}).timeout(iqsSearchProperties.getTimeout());
+	}
+
+	/**
+	 * Fixed-size ring buffer of recent successful latencies.
+	 */
+	static final class LatencyTracker {
+
+		private static final int MIN_SAMPLES = 20;
+
+		private final AtomicLongArray samples;
+
+		private final AtomicLong count = new AtomicLong();
+
+		LatencyTracker(int size) {
+			this.samples = new AtomicLongArray(size);
+		}
+
+		void record(long nanos) {
+			this.samples.set((int) (this.count.getAndIncrement() % this.samples.length()), nanos);
+		}
+
+		/**
+		 * @return p95 latency, {@code null} until enough samples have been recorded
+		 */
+		Duration p95() {
+
+			int size = (int) Math.min(this.count.get(), this.samples.length());
+			if (size < MIN_SAMPLES) {
+				return null;
+			}
+
+			long[] snapshot = new long[size];
+			for (int i = 0; i < size; i++) {
+				snapshot[i] = this.samples.get(i);
+			}
+			Arrays.sort(snapshot);
+
+			return Duration.ofNanos(snapshot[(int) Math.ceil(size * 0.95) - 1]);
+		}
+
+	}
+
+}
@@ -29,14 +29,13 @@ import java.util.*;
  * @author yuluo
  * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
  *
- * Data Cleansing: Filters out useless data and converts it into Spring AI's Document objects
+ * Data Cleansing: Filters out useless data and converts it into Spring AI's Document objects.
+ * The source link stays in the document metadata and is inlined after the reference number by the query augmenter.
  */
 
 @Component
 public class DataClean {
 
-	private static final Map<Integer, String> WebLink_MAP = new HashMap<>();
-
 	public List<Document> getData(IQSSearchResponse respData) throws URISyntaxException {
 
 		List<Document> documents = new ArrayList<>();
@@ -58,22 +57,12 @@ public class DataClean {
 					.score(pageItem.rerankScore())
 					.build();
 
-			if (Objects.nonNull(pageItem.link())) {
-				int index = i;
-				WebLink_MAP.put(index + 1, pageItem.link());
-			}
-
 			documents.add(document);
 		}
 
 		return documents;
 	}
 
-	public Map<Integer, String> getWebLink() {
-
-		return WebLink_MAP;
-	}
-
 	private Map<String, Object> getQueryMetadata(IQSSearchResponse respData) {
 
 		HashMap<String, Object> docsMetadata = new HashMap<>();
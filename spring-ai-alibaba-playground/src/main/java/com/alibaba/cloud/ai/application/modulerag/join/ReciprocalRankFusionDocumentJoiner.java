@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.modulerag.join;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.retrieval.join.DocumentJoiner;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Join the per-query result lists with reciprocal rank fusion (RRF):
+ * {@code score(d) = sum(1 / (k + rank_q(d)))} over every result list that contains {@code d}.
+ * <p>
+ * Within a list documents are ranked by their score (the IQS {@code rerankScore} set by
+ * {@code DataClean}), ties in the fused score fall back to the best single score. Duplicates are
+ * detected on a key computed once per document (source link, otherwise document id), and only
+ * the best {@code topK} fused documents are kept in a bounded heap.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+public class ReciprocalRankFusionDocumentJoiner implements DocumentJoiner {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReciprocalRankFusionDocumentJoiner.class);
+
+	private static final int DEFAULT_K = 60;
+
+	private static final int DEFAULT_TOP_K = 10;
+
+	private static final Comparator<Fused> FUSED_ORDER = Comparator.comparingDouble(Fused::fusedScore)
+			.thenComparingDouble(Fused::bestScore);
+
+	private final int k;
+
+	private final int topK;
+
+	public ReciprocalRankFusionDocumentJoiner() {
+		this(DEFAULT_K, DEFAULT_TOP_K);
+	}
+
+	public ReciprocalRankFusionDocumentJoiner(int topK) {
+		this(DEFAULT_K, topK);
+	}
+
+	public ReciprocalRankFusionDocumentJoiner(int k, int topK) {
+
+		Assert.isTrue(k > 0, "k must be positive");
+		Assert.isTrue(topK > 0, "topK must be positive");
+
+		this.k = k;
+		this.topK = topK;
+	}
+
+	@NotNull
+	@Override
+	public List<Document> join(
+			@Nullable Map<Query, List<List<Document>>> documentsForQuery
+	) {
+
+		Assert.notNull(documentsForQuery, "documentsForQuery cannot be null");
+		Assert.noNullElements(documentsForQuery.keySet(), "documentsForQuery cannot contain null keys");
+		Assert.noNullElements(documentsForQuery.values(), "documentsForQuery cannot contain null values");
+		logger.debug("Joining documents by reciprocal rank fusion, k: {}, topK: {}", k, topK);
+
+		Map<String, Fused> fused = new HashMap<>();
+		for (List<List<Document>> documentLists : documentsForQuery.values()) {
+			for (List<Document> documents : documentLists) {
+				List<Document> ranked = rankedByScore(documents);
+				for (int rank = 0; rank < ranked.size(); rank++) {
+					Document document = ranked.get(rank);
+					double contribution = 1.0d / (k + rank + 1);
+					fused.computeIfAbsent(dedupeKey(document), key -> new Fused(document))
+							.accumulate(contribution, score(document));
+				}
+			}
+		}
+
+		PriorityQueue<Fused> best = new PriorityQueue<>(topK, FUSED_ORDER);
+		for (Fused candidate : fused.values()) {
+			if (best.size() < topK) {
+				best.offer(candidate);
+			}
+			else if (FUSED_ORDER.compare(candidate, best.peek()) > 0) {
+				best.poll();
+				best.offer(candidate);
+			}
+		}
+
+		Document[] joined = new Document[best.size()];
+		for (int i = joined.length - 1; i >= 0; i--) {
+			Fused top = best.poll();
+			joined[i] = top.document().mutate().score(top.fusedScore()).build();
+		}
+
+		logger.debug("Joined {} unique documents out of {} candidates", joined.length, fused.size());
+
+		return List.of(joined);
+	}
+
+	/**
+	 * Result lists are usually already ordered, only copy and sort when they are not.
+	 */
+	private static List<Document> rankedByScore(List<Document> documents) {
+
+		for (int i = 1; i < documents.size(); i++) {
+			if (score(documents.get(i - 1)) < score(documents.get(i))) {
+				List<Document> sorted = new ArrayList<>(documents);
+				sorted.sort(Comparator.comparingDouble(ReciprocalRankFusionDocumentJoiner::score).reversed());
+				return sorted;
+			}
+		}
+
+		return documents;
+	}
+
+	private static double score(Document document) {
+		return Objects.isNull(document.getScore()) ? 0d : document.getScore();
+	}
+
+	private static String dedupeKey(Document document) {
+
+		Object link = document.getMetadata().get("link");
+		if (link instanceof String) {
+			return (String) link;
+		}
+
+		Object source = document.getMetadata().get("source");
+		if (source instanceof String) {
+			return (String) source;
+		}
+
+		return document.getId();
+	}
+
+	private static final class Fused {
+
+		private final Document document;
+
+		private double fusedScore;
+
+		private double bestScore = Double.NEGATIVE_INFINITY;
+
+		Fused(Document document) {
+			this.document = document;
+		}
+
+		void accumulate(double contribution, double score) {
+			this.fusedScore += contribution;
+			this.bestScore = Math.max(this.bestScore, score);
+		}
+
+		Document document() {
+			return this.document;
+		}
+
+		double fusedScore() {
+			return this.fusedScore;
+		}
+
+		double bestScore() {
+			return this.bestScore;
+		}
+
+	}
+
+}
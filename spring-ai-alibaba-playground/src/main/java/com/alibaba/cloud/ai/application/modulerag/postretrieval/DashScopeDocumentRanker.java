@@ -1,21 +0,0 @@
-/*
-* Licensed to the Apache Software Foundation (ASF) under one or more
-* contributor license agreements.  See the NOTICE file distributed with
-* this work for additional information regarding copyright ownership.
-* The ASF licenses this file to You under the Apache License, Version 2.0
-* (the "License"); you may not use this file except in compliance with
-* the License.  You may obtain a copy of the License at
-*
-*     http://www.apache.org/licenses/LICENSE-2.0
-*
-* Unless required by applicable law or agreed to in writing, software
-* distributed under the License is distributed on an "AS IS" BASIS,
-* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
-* See the License for the specific language governing permissions and
-* limitations under the License.
-*/
-
-package com.alibaba.cloud.ai.application.modulerag.postretrieval;
-
-// Spring AI 0.8.0 删除了 postRetrieval. 在新版本中用户可以通过实现 DocumentPostProcessor 接口来处理。
-// https://docs.spring.io/spring-ai/reference/api/retrieval-augmented-generation.html#_post_retrieval
@@ -0,0 +1,376 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.modulerag.postretrieval;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.postretrieval.document.DocumentPostProcessor;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Rerank the joined candidates locally with BM25 and keep only the best {@code topN} for the prompt.
+ * <p>
+ * Latin text is split into lower-cased words, Chinese text into character bigrams. Candidates are
+ * tokenized (and scored by the optional {@link RelevanceScorer}) in parallel. Candidates not done
+ * within the latency budget keep their joined order behind the reranked ones, so a slow stage
+ * never delays the answer by more than the budget.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+public class LexicalDocumentRanker implements DocumentPostProcessor {
+
+	private static final Logger logger = LoggerFactory.getLogger(LexicalDocumentRanker.class);
+
+	private final int topN;
+
+	private final Duration budget;
+
+	private final double k1;
+
+	private final double b;
+
+	private final Executor executor;
+
+	private final RelevanceScorer scorer;
+
+	private final double scorerWeight;
+
+	private LexicalDocumentRanker(Builder builder) {
+
+		Assert.isTrue(builder.topN > 0, "topN must be positive");
+		Assert.notNull(builder.budget, "budget cannot be null");
+		Assert.isTrue(builder.scorerWeight >= 0 && builder.scorerWeight <= 1, "scorerWeight must be in [0, 1]");
+
+		this.topN = builder.topN;
+		this.budget = builder.budget;
+		this.k1 = builder.k1;
+		this.b = builder.b;
+		this.executor = Objects.nonNull(builder.executor) ? builder.executor : ForkJoinPool.commonPool();
+		this.scorer = builder.scorer;
+		this.scorerWeight = builder.scorerWeight;
+	}
+
+	@NotNull
+	@Override
+	public List<Document> process(Query query, List<Document> documents) {
+
+		Assert.notNull(query, "query cannot be null");
+		Assert.notNull(documents, "documents cannot be null");
+
+		Set<String> queryTerms = tokenize(query.text()).keySet();
+		if (documents.size() <= 1 || queryTerms.isEmpty()) {
+			return documents.subList(0, Math.min(documents.size(), topN));
+		}
+
+		long start = System.nanoTime();
+
+		List<CompletableFuture<Candidate>> futures = new ArrayList<>(documents.size());
+		for (int i = 0; i < documents.size(); i++) {
+			int position = i;
+			Document document = documents.get(i);
+			try {
+				futures.add(CompletableFuture.supplyAsync(() -> analyze(query, position, document), executor));
+			}
+			catch (RejectedExecutionException e) {
+				// 线程池已满时该文档不参与打分，与超出预算一样保留 joiner 给出的顺序
+				futures.add(CompletableFuture.failedFuture(e));
+			}
+		}
+
+		awaitBudget(futures);
+
+		List<Candidate> scored = new ArrayList<>(documents.size());
+		boolean[] done = new boolean[documents.size()];
+		for (CompletableFuture<Candidate> future : futures) {
+			if (future.isDone() && !future.isCompletedExceptionally()) {
+				Candidate candidate = future.join();
+				scored.add(candidate);
+				done[candidate.position()] = true;
+			}
+			else {
+				future.cancel(false);
+			}
+		}
+
+		double[] bm25 = bm25(queryTerms, scored);
+		double max = 0d;
+		for (double value : bm25) {
+			max = Math.max(max, value);
+		}
+
+		double[] scores = new double[scored.size()];
+		for (int i = 0; i < scored.size(); i++) {
+			scores[i] = Objects.isNull(scorer)
+					? bm25[i]
+					: (1 - scorerWeight) * (max > 0 ? bm25[i] / max : 0d) + scorerWeight * scored.get(i).modelScore();
+		}
+
+		// 稳定排序，得分相同时保留 joiner 给出的顺序
+		Integer[] order = new Integer[scored.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingDouble((Integer i) -> scores[i]).reversed()
+				.thenComparingInt(i -> scored.get(i).position()));
+
+		List<Document> reranked = new ArrayList<>(Math.min(documents.size(), topN));
+		for (int i = 0; i < order.length && reranked.size() < topN; i++) {
+			reranked.add(scored.get(order[i]).document().mutate().score(scores[order[i]]).build());
+		}
+		for (int i = 0; i < documents.size() && reranked.size() < topN; i++) {
+			if (!done[i]) {
+				reranked.add(documents.get(i));
+			}
+		}
+
+		logger.debug("Reranked {} documents ({} within budget) to top {} in {} ms",
+				documents.size(), scored.size(), reranked.size(), (System.nanoTime() - start) / 1_000_000);
+
+		return reranked;
+	}
+
+	private void awaitBudget(List<CompletableFuture<Candidate>> futures) {
+
+		try {
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+					.get(budget.toMillis(), TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e) {
+			logger.debug("Rerank latency budget {} ms exceeded, keep joined order for the rest", budget.toMillis());
+		}
+		catch (ExecutionException e) {
+			logger.warn("Rerank candidate analysis failed: {}", e.getCause().getMessage());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private Candidate analyze(Query query, int position, Document document) {
+
+		Map<String, Integer> termFrequencies = tokenize(document.getText());
+		int length = 0;
+		for (int frequency : termFrequencies.values()) {
+			length += frequency;
+		}
+
+		double modelScore = Objects.nonNull(scorer) ? scorer.score(query, document) : 0d;
+
+		return new Candidate(position, document, termFrequencies, length, modelScore);
+	}
+
+	private double[] bm25(Set<String> queryTerms, List<Candidate> candidates) {
+
+		double[] scores = new double[candidates.size()];
+		if (candidates.isEmpty()) {
+			return scores;
+		}
+
+		double averageLength = 0d;
+		Map<String, Integer> documentFrequencies = new HashMap<>();
+		for (Candidate candidate : candidates) {
+			averageLength += candidate.length();
+			for (String term : queryTerms) {
+				if (candidate.termFrequencies().containsKey(term)) {
+					documentFrequencies.merge(term, 1, Integer::sum);
+				}
+			}
+		}
+		averageLength = Math.max(averageLength / candidates.size(), 1d);
+
+		int total = candidates.size();
+		for (int i = 0; i < total; i++) {
+			Candidate candidate = candidates.get(i);
+			double norm = k1 * (1 - b + b * candidate.length() / averageLength);
+			double score = 0d;
+			for (String term : queryTerms) {
+				Integer frequency = candidate.termFrequencies().get(term);
+				if (Objects.isNull(frequency)) {
+					continue;
+				}
+
+				int df = documentFrequencies.get(term);
+				double idf = Math.log(1 + (total - df + 0.5d) / (df + 0.5d));
+				score += idf * frequency * (k1 + 1) / (frequency + norm);
+			}
+			scores[i] = score;
+		}
+
+		return scores;
+	}
+
+	/**
+	 * Lower-cased words for Latin text and character bigrams for Han text.
+	 */
+	static Map<String, Integer> tokenize(String text) {
+
+		Map<String, Integer> terms = new HashMap<>();
+		if (!StringUtils.hasText(text)) {
+			return terms;
+		}
+
+		StringBuilder word = new StringBuilder();
+		int previousHan = -1;
+		int hanRun = 0;
+
+		for (int i = 0; i < text.length(); ) {
+			int codePoint = text.codePointAt(i);
+			i += Character.charCount(codePoint);
+
+			if (Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN) {
+				flushWord(word, terms);
+				if (previousHan >= 0) {
+					terms.merge(new String(new int[] {previousHan, codePoint}, 0, 2), 1, Integer::sum);
+				}
+				previousHan = codePoint;
+				hanRun++;
+				continue;
+			}
+
+			flushHan(previousHan, hanRun, terms);
+			previousHan = -1;
+			hanRun = 0;
+
+			if (Character.isLetterOrDigit(codePoint)) {
+				word.appendCodePoint(Character.toLowerCase(codePoint));
+			}
+			else {
+				flushWord(word, terms);
+			}
+		}
+
+		flushHan(previousHan, hanRun, terms);
+		flushWord(word, terms);
+
+		return terms;
+	}
+
+	private static void flushWord(StringBuilder word, Map<String, Integer> terms) {
+
+		if (!word.isEmpty()) {
+			terms.merge(word.toString(), 1, Integer::sum);
+			word.setLength(0);
+		}
+	}
+
+	private static void flushHan(int previousHan, int hanRun, Map<String, Integer> terms) {
+
+		// 单个汉字没有二元组，按单字计入
+		if (hanRun == 1) {
+			terms.merge(new String(Character.toChars(previousHan)), 1, Integer::sum);
+		}
+	}
+
+	public static LexicalDocumentRanker.Builder builder() {
+		return new LexicalDocumentRanker.Builder();
+	}
+
+	private record Candidate(int position, Document document, Map<String, Integer> termFrequencies, int length,
+			double modelScore) {
+	}
+
+	public static final class Builder {
+
+		private int topN = 4;
+
+		private Duration budget = Duration.ofMillis(300);
+
+		private double k1 = 1.2d;
+
+		private double b = 0.75d;
+
+		private Executor executor;
+
+		private RelevanceScorer scorer;
+
+		private double scorerWeight = 0.5d;
+
+		public LexicalDocumentRanker.Builder topN(int topN) {
+
+			this.topN = topN;
+			return this;
+		}
+
+		/**
+		 * Max time spent waiting for candidate analysis.
+		 */
+		public LexicalDocumentRanker.Builder budget(Duration budget) {
+
+			this.budget = budget;
+			return this;
+		}
+
+		public LexicalDocumentRanker.Builder k1(double k1) {
+
+			this.k1 = k1;
+			return this;
+		}
+
+		public LexicalDocumentRanker.Builder b(double b) {
+
+			this.b = b;
+			return this;
+		}
+
+		public LexicalDocumentRanker.Builder executor(Executor executor) {
+
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * Optional relevance model blended with the normalized BM25 score by {@code weight}.
+		 */
+		public LexicalDocumentRanker.Builder scorer(RelevanceScorer scorer, double weight) {
+
+			this.scorer = scorer;
+			this.scorerWeight = weight;
+			return this;
+		}
+
+		public LexicalDocumentRanker build() {
+
+			return new LexicalDocumentRanker(this);
+		}
+	}
+
+}
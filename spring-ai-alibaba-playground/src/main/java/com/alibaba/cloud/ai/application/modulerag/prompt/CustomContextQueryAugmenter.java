@@ -30,6 +30,7 @@ import org.springframework.util.Assert;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -111,12 +112,18 @@ public class CustomContextQueryAugmenter implements QueryAugmenter {
 
 		logger.debug("Documents found. Augmenting query with context.");
 
-		// 1. collect content from documents.
+		// 1. collect content from documents, the source link is inlined after the reference number.
 		AtomicInteger idCounter = new AtomicInteger(1);
 		String documentContext = documents.stream()
 				.map(document -> {
+					int id = idCounter.getAndIncrement();
 					String text = document.getText();
-					return "[[" + (idCounter.getAndIncrement()) + "]]" + text;
+					Object link = document.getMetadata().get("link");
+					if (Objects.isNull(link)) {
+						return "[[" + id + "]]" + text;
+					}
+
+					return "[[" + id + "]](" + link + ")" + text;
 				})
 				.collect(Collectors.joining("\n-----------------------------------------------\n"));
 
@@ -17,20 +17,23 @@
 
 package com.alibaba.cloud.ai.application.service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.util.concurrent.CountDownLatch;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
 
-import com.alibaba.cloud.ai.application.exception.SAAAIException;
-import com.alibaba.cloud.ai.application.exception.SAAAppException;
 import com.alibaba.cloud.ai.application.utils.FilesUtils;
 import com.alibaba.cloud.ai.dashscope.audio.DashScopeAudioTranscriptionOptions;
 import com.alibaba.cloud.ai.dashscope.audio.synthesis.SpeechSynthesisModel;
 import com.alibaba.cloud.ai.dashscope.audio.synthesis.SpeechSynthesisPrompt;
 import com.alibaba.cloud.ai.dashscope.audio.synthesis.SpeechSynthesisResponse;
 import com.alibaba.cloud.ai.dashscope.audio.transcription.AudioTranscriptionModel;
-import reactor.core.publisher.Flux;
 
 import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
 import org.springframework.core.io.FileUrlResource;
@@ -63,41 +66,39 @@ public class SAAAudioService {
 	}
 
 	/**
-	 * Convert text to speech
+	 * Convert text to speech, every synthesized chunk is written to the output stream as soon as
+	 * it arrives, without being copied or buffered until the synthesis finishes.
 	 */
-	public byte[] text2audio(String prompt) {
+	public void text2audio(String prompt, OutputStream outputStream) throws IOException {
 
-		Flux<SpeechSynthesisResponse> response = speechSynthesisModel.stream(
-				new SpeechSynthesisPrompt(prompt)
-		);
-
-		CountDownLatch latch = new CountDownLatch(1);
-		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		WritableByteChannel channel = null;
 
-		try {
-			response.doFinally(
-					signal -> latch.countDown()
-			).subscribe(synthesisResponse -> {
+		// 关闭 stream 时取消上游合成，客户端断开后不再继续生成
+		try (Stream<SpeechSynthesisResponse> response = speechSynthesisModel.stream(
+				new SpeechSynthesisPrompt(prompt)
+		).toStream(1)) {
 
-				ByteBuffer byteBuffer = synthesisResponse.getResult().getOutput().getAudio();
-				byte[] bytes = new byte[byteBuffer.remaining()];
-				byteBuffer.get(bytes);
+			Iterator<SpeechSynthesisResponse> chunks = response.iterator();
+			while (chunks.hasNext()) {
+				ByteBuffer audio = chunks.next().getResult().getOutput().getAudio();
+				if (Objects.isNull(audio) || !audio.hasRemaining()) {
+					continue;
+				}
 
-				try {
-					outputStream.write(bytes);
+				if (audio.hasArray()) {
+					// 堆内存直接写出底层数组，不额外拷贝
+					outputStream.write(audio.array(), audio.arrayOffset() + audio.position(), audio.remaining());
 				}
-				catch (IOException e) {
-					throw new SAAAIException("Error writing to output stream " + e.getMessage());
+				else {
+					channel = Objects.isNull(channel) ? Channels.newChannel(outputStream) : channel;
+					while (audio.hasRemaining()) {
+						channel.write(audio);
+					}
 				}
-			});
 
-			latch.await();
+				outputStream.flush();
+			}
 		}
-		catch (InterruptedException e) {
-			throw new SAAAppException("Operation interrupted. " + e.getMessage());
-		}
-
-		return outputStream.toByteArray();
 	}
 
 	/**
@@ -107,15 +108,20 @@ public class SAAAudioService {
 	public String audio2text(MultipartFile file) throws IOException {
 
 		String filePath = FilesUtils.saveTempFile(file, "/tmp/audio/");
-		System.out.println(filePath);
-		return transcriptionModel.call(
-				new AudioTranscriptionPrompt(
-						new FileUrlResource(filePath),
-						DashScopeAudioTranscriptionOptions.builder()
-								.withModel(DEFAULT_MODEL_1)
-								.build()
-				)
-		).getResult().getOutput();
+		try {
+			return transcriptionModel.call(
+					new AudioTranscriptionPrompt(
+							new FileUrlResource(filePath),
+							DashScopeAudioTranscriptionOptions.builder()
+									.withModel(DEFAULT_MODEL_1)
+									.build()
+					)
+			).getResult().getOutput();
+		}
+		finally {
+			// 转写结束后立即删除临时文件，避免 /tmp/audio 无限增长
+			Files.deleteIfExists(Paths.get(filePath));
+		}
 	}
 
 }
@@ -17,7 +17,7 @@
 
 package com.alibaba.cloud.ai.application.service;
 
-import com.alibaba.cloud.ai.application.utils.FilesUtils;
+import com.alibaba.cloud.ai.application.utils.GeneratedImageCache;
 import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
 import com.alibaba.cloud.ai.dashscope.chat.MessageFormat;
 import com.alibaba.cloud.ai.dashscope.image.DashScopeImageOptions;
@@ -26,25 +26,26 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.model.ChatModel;
-import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.content.Media;
 import org.springframework.ai.image.ImageGeneration;
 import org.springframework.ai.image.ImageModel;
 import org.springframework.ai.image.ImagePrompt;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 import reactor.core.publisher.Flux;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URI;
-import java.net.URL;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
 
@@ -72,36 +73,40 @@ public class SAAImageService {
 	 */
 	private final ChatClient daschScopeChatClient;
 
+	/**
+	 * Generated images, keyed on the generation parameters
+	 */
+	private final GeneratedImageCache imageCache;
+
 	public SAAImageService(
 			@Qualifier("dashscopeChatModel") ChatModel chatModel,
-			@Qualifier("dashScopeImageModel") ImageModel imageModel
+			@Qualifier("dashScopeImageModel") ImageModel imageModel,
+			@Value("${spring.ai.alibaba.playground.image.cache.enable:true}") boolean cacheEnabled,
+			@Value("${spring.ai.alibaba.playground.image.cache.path:tmp/image-cache}") String cachePath,
+			@Value("${spring.ai.alibaba.playground.image.cache.max-size:512MB}") DataSize cacheMaxSize
 	) {
 
 		this.imageModel = imageModel;
+		this.imageCache = new GeneratedImageCache(cacheEnabled, Paths.get(cachePath), cacheMaxSize.toBytes());
 		this.daschScopeChatClient = ChatClient
 				.builder(chatModel)
 				.build();
 	}
 
+	/**
+	 * Stream the model answer token by token, the upload is passed to the model from memory.
+	 */
 	public Flux<String> image2Text(String prompt, MultipartFile file) throws IOException {
 
-		String filePath = FilesUtils.saveTempFile(file, "/tmp/image/");
-//		UserMessage message = new UserMessage(
-//				prompt,
-//				new Media(
-//						MimeTypeUtils.IMAGE_PNG,
-//						new FileSystemResource(filePath)
-//				)
-//		);
 		List<Media> mediaList = Lists.newArrayList(new Media(
-				MimeTypeUtils.IMAGE_PNG,
-				new FileSystemResource(filePath)
+				imageMimeType(file),
+				new ByteArrayResource(file.getBytes())
 		));
 		UserMessage message =
 				UserMessage.builder().text(prompt).media(mediaList).metadata(new HashMap<>()).build();
 		message.getMetadata().put(MESSAGE_FORMAT, MessageFormat.IMAGE);
 
-		List<ChatResponse> response = daschScopeChatClient.prompt(
+		return daschScopeChatClient.prompt(
 						new Prompt(
 								message,
 								DashScopeChatOptions.builder()
@@ -109,19 +114,17 @@ public class SAAImageService {
 										.withMultiModel(true)
 										.build())
 				).stream()
-				.chatResponse()
-				.collectList()
-				.block();
-
-		StringBuilder result = new StringBuilder();
-		if (response != null) {
-			for (ChatResponse chatResponse : response) {
-				String outputContent = chatResponse.getResult().getOutput().getText();
-				result.append(outputContent);
-			}
+				.content();
+	}
+
+	private static MimeType imageMimeType(MultipartFile file) {
+
+		String contentType = file.getContentType();
+		if (StringUtils.hasText(contentType) && contentType.startsWith("image/")) {
+			return MimeTypeUtils.parseMimeType(contentType);
 		}
 
-		return Flux.just(result.toString());
+		return MimeTypeUtils.IMAGE_PNG;
 	}
 
 	/**
@@ -132,31 +135,33 @@ public class SAAImageService {
 	 */
 	public void text2Image(String prompt, String resolution, String style, HttpServletResponse response) {
 
-
-		//
-		HttpHeaders headers = new HttpHeaders();
-		headers.add("Content-Security-Policy", "img-src 'self' data:;");
-
-		ImageGeneration result = imageModel.call(
-				new ImagePrompt(
-						prompt,
-						DashScopeImageOptions.builder()
-								.withHeight(Integer.valueOf(resolution.split("\\*")[0]))
-								.withWidth(Integer.valueOf(resolution.split("\\*")[1]))
-								.withStyle(style)
-								.withModel(DEFAULT_IMAGE_MODEL)
-								.build())
-		).getResult();
-
-		String imageUrl = result.getOutput().getUrl();
+		String key = imageCache.key(prompt, resolution, style, DEFAULT_IMAGE_MODEL);
 
 		try {
-			URL url = URI.create(imageUrl).toURL();
-			InputStream in = url.openStream();
-
 			response.setHeader("Content-Security-Policy", "img-src 'self' data:;");
 			response.setHeader("Content-Type", MediaType.IMAGE_PNG_VALUE);
-			response.getOutputStream().write(in.readAllBytes());
+
+			// 相同参数的图片直接读取本地缓存，不再重新生成
+			if (imageCache.serve(key, response.getOutputStream())) {
+				response.getOutputStream().flush();
+				return;
+			}
+
+			ImageGeneration result = imageModel.call(
+					new ImagePrompt(
+							prompt,
+							DashScopeImageOptions.builder()
+									.withHeight(Integer.valueOf(resolution.split("\\*")[0]))
+									.withWidth(Integer.valueOf(resolution.split("\\*")[1]))
+									.withStyle(style)
+									.withModel(DEFAULT_IMAGE_MODEL)
+									.build())
+			).getResult();
+
+			String imageUrl = result.getOutput().getUrl();
+
+			// 边下载边写给客户端，同时写入缓存
+			imageCache.fetch(key, URI.create(imageUrl).toURL(), response.getOutputStream());
 			response.getOutputStream().flush();
 		}
 		catch (IOException e) {
@@ -16,40 +16,27 @@
  */
 package com.alibaba.cloud.ai.application.service;
 
-import java.io.IOException;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 
 import com.alibaba.cloud.ai.application.entity.mcp.McpServer;
 import com.alibaba.cloud.ai.application.entity.tools.ToolCallResp;
+import com.alibaba.cloud.ai.application.mcp.McpClientPool;
 import com.alibaba.cloud.ai.application.mcp.McpServerContainer;
-import com.alibaba.cloud.ai.application.mcp.McpServerUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.alibaba.cloud.ai.application.tools.ParallelToolCallExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
 
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
-import org.springframework.ai.chat.messages.AssistantMessage;
-import org.springframework.ai.chat.messages.ToolResponseMessage;
 import org.springframework.ai.chat.model.ChatModel;
-import org.springframework.ai.chat.model.ChatResponse;
-import org.springframework.ai.chat.prompt.ChatOptions;
-import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.mcp.client.autoconfigure.properties.McpStdioClientProperties;
-import org.springframework.ai.model.tool.ToolCallingChatOptions;
-import org.springframework.ai.model.tool.ToolCallingManager;
-import org.springframework.ai.model.tool.ToolExecutionResult;
 import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 
-import static com.alibaba.cloud.ai.application.mcp.McpServerUtils.getMcpLibsAbsPath;
-
 /**
  * @author brianxiadong
  *         Spring AI Alibaba MCP (Model, Chat, Prompt) Service
@@ -59,27 +46,26 @@ public class SAAMcpService {
 
 	private final ChatClient chatClient;
 
-	private final ObjectMapper objectMapper;
+	// 运行单个 mcp server 时只挂载该 server 的工具
+	private final ChatClient runChatClient;
 
 	private final ToolCallbackProvider tools;
 
-	private final ToolCallingManager toolCallingManager;
+	private final ParallelToolCallExecutor toolCallExecutor;
 
-	private final McpStdioClientProperties mcpStdioClientProperties;
+	private final McpClientPool mcpClientPool;
 
 	private static final Logger logger = LoggerFactory.getLogger(SAAMcpService.class);
 
 	public SAAMcpService(
-			ObjectMapper objectMapper,
 			ToolCallbackProvider tools,
 			SimpleLoggerAdvisor simpleLoggerAdvisor,
-			ToolCallingManager toolCallingManager,
-			McpStdioClientProperties mcpStdioClientProperties,
+			ParallelToolCallExecutor toolCallExecutor,
+			McpClientPool mcpClientPool,
 			@Qualifier("openAiChatModel") ChatModel chatModel
-	) throws IOException {
+	) {
 
-		this.objectMapper = objectMapper;
-		this.mcpStdioClientProperties = mcpStdioClientProperties;
+		this.mcpClientPool = mcpClientPool;
 
 		// Initialize chat client with non-blocking configuration
 		this.chatClient = ChatClient.builder(chatModel)
@@ -87,95 +73,35 @@ public class SAAMcpService {
 						simpleLoggerAdvisor
 				).defaultToolCallbacks(tools)
 				.build();
+		this.runChatClient = ChatClient.builder(chatModel)
+				.defaultAdvisors(
+						simpleLoggerAdvisor
+				).build();
 		this.tools = tools;
-		this.toolCallingManager = toolCallingManager;
-
-		McpServerUtils.initMcpServerContainer(tools);
+		this.toolCallExecutor = toolCallExecutor;
 	}
 
+	/**
+	 * execute tools with no chat memory messages, all tool calls of the model turn run concurrently.
+	 */
 	public ToolCallResp chat(String prompt) {
 
-		// manual run tools flag
-		ChatOptions chatOptions = ToolCallingChatOptions.builder()
-				.toolCallbacks(tools.getToolCallbacks())
-				.internalToolExecutionEnabled(false)
-				.build();
+		return toolCallExecutor.call(chatClient, prompt, List.of(tools.getToolCallbacks()));
+	}
 
-		ChatResponse response = chatClient.prompt(new Prompt(prompt, chatOptions))
-				.call().chatResponse();
-
-		logger.debug("ChatResponse: {}", response);
-		assert response != null;
-		List<AssistantMessage.ToolCall> toolCalls = response.getResult().getOutput().getToolCalls();
-		logger.debug("ToolCalls: {}", toolCalls);
-		String responseByLLm = response.getResult().getOutput().getText();
-		logger.debug("Response by LLM: {}", responseByLLm);
-
-		// execute tools with no chat memory messages.
-		var tcr = ToolCallResp.TCR();
-		if (!toolCalls.isEmpty()) {
-
-			tcr = ToolCallResp.startExecute(
-					responseByLLm,
-					toolCalls.get(0).name(),
-					toolCalls.get(0).arguments()
-			);
-			tcr.setToolParameters(toolCalls.get(0).arguments());
-			logger.debug("Start ToolCallResp: {}", tcr);
-			ToolExecutionResult toolExecutionResult = null;
-
-			try {
-				toolExecutionResult = toolCallingManager.executeToolCalls(new Prompt(prompt, chatOptions), response);
-
-				tcr.setToolEndTime(LocalDateTime.now());
-			}
-			catch (Exception e) {
-
-				tcr.setStatus(ToolCallResp.ToolState.FAILURE);
-				tcr.setErrorMessage(e.getMessage());
-				tcr.setToolEndTime(LocalDateTime.now());
-				tcr.setToolCostTime((long) (tcr.getToolEndTime().getNano() - tcr.getToolStartTime().getNano()));
-				logger.error("Error ToolCallResp: {}, msg: {}", tcr, e.getMessage());
-				// throw new RuntimeException("Tool execution failed, please check the logs for details.");
-			}
-
-			String llmCallResponse = "";
-			if (Objects.nonNull(toolExecutionResult)) {
-//				ToolResponseMessage toolResponseMessage = (ToolResponseMessage) toolExecutionResult.conversationHistory()
-//						.get(toolExecutionResult.conversationHistory().size() - 1);
-//				llmCallResponse = toolResponseMessage.getResponses().get(0).responseData();
-				ChatResponse finalResponse = chatClient.prompt().messages(toolExecutionResult.conversationHistory())
-						.call().chatResponse();
-				if (finalResponse != null) {
-					llmCallResponse = finalResponse.getResult().getOutput().getText();
-				}
-
-				StringBuilder sb = new StringBuilder();
-				toolExecutionResult.conversationHistory().stream()
-						.filter(message -> message instanceof ToolResponseMessage)
-						.forEach(message -> {
-							ToolResponseMessage toolResponseMessage = (ToolResponseMessage) message;
-							toolResponseMessage.getResponses().forEach(tooResponse -> {
-								sb.append(tooResponse.responseData());
-							});
-						});
-				tcr.setToolResponse(sb.toString());
-			}
-
-			tcr.setStatus(ToolCallResp.ToolState.SUCCESS);
-			tcr.setToolResult(llmCallResponse);
-			tcr.setToolCostTime((long) (tcr.getToolEndTime().getNano() - tcr.getToolStartTime().getNano()));
-			logger.debug("End ToolCallResp: {}", tcr);
-		}
-		else {
-			logger.debug("ToolCalls is empty, no tool execution needed.");
-			tcr.setToolResult(responseByLLm);
-		}
+	/**
+	 * Same as {@link #chat(String)}, but the answer after the tool calls is streamed.
+	 */
+	public Flux<ServerSentEvent<Object>> chatStream(String prompt) {
 
-		return tcr;
+		return toolCallExecutor.stream(chatClient, prompt, List.of(tools.getToolCallbacks()));
 	}
 
-	public ToolCallResp run(String id, Map<String, String> envs, String prompt) throws IOException {
+	/**
+	 * Run the prompt against one MCP server, the client is taken from {@link McpClientPool}
+	 * so the server process is started once per env and reused across requests.
+	 */
+	public ToolCallResp run(String id, Map<String, String> envs, String prompt) {
 
 		Optional<McpServer> runMcpServer = McpServerContainer.getServerById(id);
 		if (runMcpServer.isEmpty()) {
@@ -183,27 +109,10 @@ public class SAAMcpService {
 			return ToolCallResp.TCR();
 		}
 
-		String runMcpServerName = runMcpServer.get().getName();
-		var mcpServerConfig = McpServerUtils.getMcpServerConfig();
-		McpStdioClientProperties.Parameters parameters = new McpStdioClientProperties.Parameters(
-				mcpServerConfig.getMcpServers().get(runMcpServerName).command(),
-				mcpServerConfig.getMcpServers().get(runMcpServerName).args(),
-				envs
-		);
-
-		if (parameters.command().startsWith("java")) {
-			String oldMcpLibsPath = McpServerUtils.getLibsPath(parameters.args());
-			String rewriteMcpLibsAbsPath = getMcpLibsAbsPath(McpServerUtils.getLibsPath(parameters.args()));
-
-			parameters.args().remove(oldMcpLibsPath);
-			parameters.args().add(rewriteMcpLibsAbsPath);
+		// 租约保证调用期间 client 不会被替换或回收关闭
+		try (McpClientPool.Lease lease = mcpClientPool.lease(runMcpServer.get().getName(), envs)) {
+			return toolCallExecutor.call(runChatClient, prompt, lease.toolCallbacks());
 		}
-
-		String mcpServerConfigJSON = objectMapper.writeValueAsString(mcpServerConfig);
-		mcpStdioClientProperties.setServersConfiguration(new ByteArrayResource(mcpServerConfigJSON.getBytes()));
-
-		return chat(prompt);
 	}
 
 }
-
@@ -17,27 +17,17 @@
 
 package com.alibaba.cloud.ai.application.service;
 
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Objects;
-
 import com.alibaba.cloud.ai.application.entity.tools.ToolCallResp;
+import com.alibaba.cloud.ai.application.tools.ParallelToolCallExecutor;
 import com.alibaba.cloud.ai.application.tools.ToolsInit;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
 
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
 import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
-import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.model.ChatModel;
-import org.springframework.ai.chat.model.ChatResponse;
-import org.springframework.ai.chat.prompt.ChatOptions;
-import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.model.tool.ToolCallingChatOptions;
-import org.springframework.ai.model.tool.ToolCallingManager;
-import org.springframework.ai.model.tool.ToolExecutionResult;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 
 /**
@@ -48,24 +38,22 @@ import org.springframework.stereotype.Service;
 @Service
 public class SAAToolsService {
 
-	private static final Logger logger = LoggerFactory.getLogger(SAAToolsService.class);
-
 	private final ChatClient chatClient;
 
-	private final ToolCallingManager toolCallingManager;
+	private final ParallelToolCallExecutor toolCallExecutor;
 
 	private final ToolsInit toolsInit;
 
 	public SAAToolsService(
 			ToolsInit toolsInit,
-			ToolCallingManager toolCallingManager,
+			ParallelToolCallExecutor toolCallExecutor,
 			SimpleLoggerAdvisor simpleLoggerAdvisor,
 			MessageChatMemoryAdvisor messageChatMemoryAdvisor,
 			@Qualifier("openAiChatModel") ChatModel chatModel
 	) {
 
 		this.toolsInit = toolsInit;
-		this.toolCallingManager = toolCallingManager;
+		this.toolCallExecutor = toolCallExecutor;
 
 		this.chatClient = ChatClient.builder(chatModel)
 				.defaultAdvisors(
@@ -74,72 +62,20 @@ public class SAAToolsService {
 				).build();
 	}
 
+	/**
+	 * execute tools with no chat memory messages, all tool calls of the model turn run concurrently.
+	 */
 	public ToolCallResp chat(String prompt) {
 
-		// manual run tools flag
-		ChatOptions chatOptions = ToolCallingChatOptions.builder()
-				.toolCallbacks(toolsInit.getTools())
-				.internalToolExecutionEnabled(false)
-				.build();
-		Prompt userPrompt = new Prompt(prompt, chatOptions);
-
-		ChatResponse response = chatClient.prompt(userPrompt)
-				.call().chatResponse();
-
-		logger.debug("ChatResponse: {}", response);
-		assert response != null;
-		List<AssistantMessage.ToolCall> toolCalls = response.getResult().getOutput().getToolCalls();
-		logger.debug("ToolCalls: {}", toolCalls);
-		String responseByLLm = response.getResult().getOutput().getText();
-		logger.debug("Response by LLM: {}", responseByLLm);
-
-		// execute tools with no chat memory messages.
-		var tcr = ToolCallResp.TCR();
-		if (!toolCalls.isEmpty()) {
-
-			tcr = ToolCallResp.startExecute(
-					responseByLLm,
-					toolCalls.get(0).name(),
-					toolCalls.get(0).arguments()
-			);
-			logger.debug("Start ToolCallResp: {}", tcr);
-			ToolExecutionResult toolExecutionResult = null;
-
-			try {
-				toolExecutionResult = toolCallingManager.executeToolCalls(new Prompt(prompt, chatOptions), response);
-
-				tcr.setToolEndTime(LocalDateTime.now());
-			}
-			catch (Exception e) {
-
-				tcr.setStatus(ToolCallResp.ToolState.FAILURE);
-				tcr.setErrorMessage(e.getMessage());
-				tcr.setToolEndTime(LocalDateTime.now());
-				tcr.setToolCostTime((long) (tcr.getToolEndTime().getNano() - tcr.getToolStartTime().getNano()));
-				logger.error("Error ToolCallResp: {}, msg: {}", tcr, e.getMessage());
-				// throw new RuntimeException("Tool execution failed, please check the logs for details.");
-			}
-
-			String llmCallResponse = "";
-			if (Objects.nonNull(toolExecutionResult)) {
-//				ToolResponseMessage toolResponseMessage = (ToolResponseMessage) toolExecutionResult.conversationHistory()
-//						.get(toolExecutionResult.conversationHistory().size() - 1);
-//				llmCallResponse = toolResponseMessage.getResponses().get(0).responseData();
-				ChatResponse finalResponse = chatClient.prompt().messages(toolExecutionResult.conversationHistory()).call().chatResponse();
-				llmCallResponse = finalResponse.getResult().getOutput().getText();
-			}
-
-			tcr.setStatus(ToolCallResp.ToolState.SUCCESS);
-			tcr.setToolResult(llmCallResponse);
-			tcr.setToolCostTime((long) (tcr.getToolEndTime().getNano() - tcr.getToolStartTime().getNano()));
-			logger.debug("End ToolCallResp: {}", tcr);
-		}
-		else {
-			logger.debug("ToolCalls is empty, no tool execution needed.");
-			tcr.setToolResult(responseByLLm);
-		}
-
-		return tcr;
+		return toolCallExecutor.call(chatClient, prompt, toolsInit.getTools());
+	}
+
+	/**
+	 * Same as {@link #chat(String)}, but the answer after the tool calls is streamed.
+	 */
+	public Flux<ServerSentEvent<Object>> chatStream(String prompt) {
+
+		return toolCallExecutor.stream(chatClient, prompt, toolsInit.getTools());
 	}
 
 }
@@ -17,36 +17,30 @@
 
 package com.alibaba.cloud.ai.application.service;
 
+import com.alibaba.cloud.ai.application.utils.VideoFrameExtractor;
 import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
 import com.alibaba.cloud.ai.dashscope.video.VideoModel;
 import com.alibaba.cloud.ai.dashscope.video.VideoPrompt;
-import org.bytedeco.javacv.FFmpegFrameGrabber;
-import org.bytedeco.javacv.Frame;
-import org.bytedeco.javacv.Java2DFrameConverter;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.content.Media;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
-import java.util.UUID;
 
 import static com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatModel.QWEN_VL_MAX;
 
@@ -54,20 +48,25 @@ import static com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatModel.QWEN_VL_
  * @author huangzhen
  */
 @Service
-public class SAAVideoService  {
+public class SAAVideoService implements DisposableBean {
 
     private final VideoModel videoModel;
 
-    private static final String TEMP_IMAGE_DIR = "temp-frames";
-
     private final ChatClient daschScopeChatClient;
 
+    private final VideoFrameExtractor frameExtractor;
+
     public SAAVideoService(
             VideoModel videoModel,
-            @Qualifier("dashscopeChatModel") ChatModel chatModel
+            @Qualifier("dashscopeChatModel") ChatModel chatModel,
+            @Value("${spring.ai.alibaba.playground.video.max-frames:10}") int maxFrames,
+            @Value("${spring.ai.alibaba.playground.video.jpeg-quality:0.8}") float jpegQuality,
+            @Value("${spring.ai.alibaba.playground.video.scene-threshold:10}") int sceneThreshold,
+            @Value("${spring.ai.alibaba.playground.video.encode-workers:2}") int encodeWorkers
     ) {
 
         this.videoModel = videoModel;
+        this.frameExtractor = new VideoFrameExtractor(maxFrames, jpegQuality, sceneThreshold, encodeWorkers);
         this.daschScopeChatClient = ChatClient
                 .builder(chatModel)
                 .build();
@@ -85,19 +84,24 @@ public class SAAVideoService  {
             throw new IllegalArgumentException("不支持的视频格式");
         }
 
-        // 2. 保存视频到临时文件
-        Path tempVideoPath = Paths.get(System.getProperty("java.io.tmpdir"), videoFile.getOriginalFilename());
-        videoFile.transferTo(tempVideoPath.toFile());
+        // 2. 保存视频到临时文件，文件名唯一，避免并发上传同名文件互相覆盖
+        Path tempVideoPath = Files.createTempFile("saa-video-", ".tmp");
 
-        // 3. 从视频中提取10帧
-        List<File> frames = extractFrames(tempVideoPath.toFile(), 10);
+        // 3. 单次顺序解码，按画面变化挑选关键帧，去掉近似重复帧，内存中编码为 JPEG
+        List<byte[]> frames;
+        try {
+            videoFile.transferTo(tempVideoPath.toFile());
+            frames = frameExtractor.extract(tempVideoPath.toFile());
+        } finally {
+            Files.deleteIfExists(tempVideoPath);
+        }
 
         // 4. 准备AI分析所需的媒体列表
-        List<Media> mediaList = new ArrayList<>();
-        for (File frame : frames) {
+        List<Media> mediaList = new ArrayList<>(frames.size());
+        for (byte[] frame : frames) {
             mediaList.add(new Media(
-                    MimeTypeUtils.IMAGE_PNG,
-                    new FileSystemResource(frame)
+                    MimeTypeUtils.IMAGE_JPEG,
+                    new ByteArrayResource(frame)
             ));
         }
 
@@ -129,63 +133,9 @@ public class SAAVideoService  {
             }
         }
 
-        // 8. 清理临时文件
-        cleanUpFiles(frames);
-        Files.deleteIfExists(tempVideoPath);
-
         return result.toString();
     }
 
-    /**
-     * 从视频中提取指定数量的帧
-     * @param videoFile 视频文件
-     * @param frameCount 要提取的帧数
-     * @return 提取的帧图片文件列表
-     */
-    private List<File> extractFrames(File videoFile, int frameCount) throws IOException {
-        List<File> frames = new ArrayList<>();
-        FFmpegFrameGrabber grabber = new FFmpegFrameGrabber(videoFile);
-        grabber.start();
-
-        try {
-            // 创建临时目录（如果不存在）
-            Path tempDir = Paths.get(System.getProperty("java.io.tmpdir"), TEMP_IMAGE_DIR);
-            if (!Files.exists(tempDir)) {
-                Files.createDirectories(tempDir);
-            }
-
-            int totalFrames = grabber.getLengthInFrames();
-            int step = totalFrames / frameCount; // 计算帧间隔
-
-            Java2DFrameConverter converter = new Java2DFrameConverter();
-            for (int i = 0; i < frameCount; i++) {
-                int frameNumber = i * step; // 计算当前帧位置
-                grabber.setFrameNumber(frameNumber);
-                Frame frame = grabber.grabImage();
-                BufferedImage image = converter.convert(frame);
-
-                // 保存帧为PNG图片
-                File outputFile = tempDir.resolve(UUID.randomUUID() + ".png").toFile();
-                ImageIO.write(image, "png", outputFile);
-                frames.add(outputFile);
-            }
-        } finally {
-            grabber.stop();
-        }
-
-        return frames;
-    }
-
-    /**
-     * 清理临时文件
-     * @param files 要删除的文件列表
-     */
-    private void cleanUpFiles(List<File> files) {
-        for (File file : files) {
-            file.delete();
-        }
-    }
-
     /**
      * 检查视频格式是否支持
      * @param file 上传的文件
@@ -210,4 +160,10 @@ public class SAAVideoService  {
                 .getVideoUrl();
     }
 
+    @Override
+    public void destroy() {
+
+        frameExtractor.close();
+    }
+
 }
@@ -19,10 +19,14 @@ package com.alibaba.cloud.ai.application.service;
 
 import com.alibaba.cloud.ai.application.advisor.ReasoningContentAdvisor;
 import com.alibaba.cloud.ai.application.entity.dashscope.ChatResponseDTO;
+import com.alibaba.cloud.ai.application.modulerag.IQSSearchProperties;
 import com.alibaba.cloud.ai.application.modulerag.WebSearchRetriever;
 import com.alibaba.cloud.ai.application.modulerag.core.IQSSearchEngine;
+import com.alibaba.cloud.ai.application.modulerag.core.ReactiveIQSSearchEngine;
 import com.alibaba.cloud.ai.application.modulerag.data.DataClean;
 import com.alibaba.cloud.ai.application.modulerag.join.ConcatenationDocumentJoiner;
+import com.alibaba.cloud.ai.application.modulerag.join.ReciprocalRankFusionDocumentJoiner;
+import com.alibaba.cloud.ai.application.modulerag.postretrieval.LexicalDocumentRanker;
 import com.alibaba.cloud.ai.application.modulerag.prompt.CustomContextQueryAugmenter;
 import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
 import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
@@ -31,19 +35,26 @@ import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.ai.rag.advisor.RetrievalAugmentationAdvisor;
+import org.springframework.ai.rag.postretrieval.document.DocumentPostProcessor;
 import org.springframework.ai.rag.preretrieval.query.expansion.QueryExpander;
 import org.springframework.ai.rag.preretrieval.query.transformation.QueryTransformer;
+import org.springframework.ai.rag.retrieval.join.DocumentJoiner;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
+import java.util.List;
+
 /**
  * @author yuluo
  * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
  */
 
 @Service("webSearchServiceImpl")
-public class SAAWebSearchService implements ISAAWebSearchService {
+public class SAAWebSearchService implements ISAAWebSearchService, DisposableBean {
 
     private final DataClean dataCleaner;
 
@@ -61,10 +72,27 @@ public class SAAWebSearchService implements ISAAWebSearchService {
 
     private final ReasoningContentAdvisor reasoningContentAdvisor;
 
+    /**
+     * 多查询扩展后，各个查询的联网搜索在该线程池中并发执行，总耗时取决于最慢的单个查询.
+     * 线程池只在本服务内部使用，不注册为 Bean，避免 Spring Boot 跳过默认的 applicationTaskExecutor
+     */
+    private final ThreadPoolTaskExecutor webSearchTaskExecutor;
+
+    /**
+     * 同步搜索客户端的 HTTP 调用在独立线程池中执行，检索线程只按单查询总超时等待结果
+     */
+    private final ThreadPoolTaskExecutor blockingSearchTaskExecutor;
+
+    private final DocumentJoiner documentJoiner;
+
+    private final List<DocumentPostProcessor> documentPostProcessors;
+
     public SAAWebSearchService(
             DataClean dataCleaner,
             QueryExpander queryExpander,
             IQSSearchEngine searchEngine,
+            ObjectProvider<ReactiveIQSSearchEngine> reactiveSearchEngine,
+            IQSSearchProperties iqsSearchProperties,
             QueryTransformer queryTransformer,
             SimpleLoggerAdvisor simpleLoggerAdvisor,
             @Qualifier("dashscopeChatModel") ChatModel chatModel,
@@ -75,6 +103,24 @@ public class SAAWebSearchService implements ISAAWebSearchService {
         this.queryTransformer = queryTransformer;
         this.queryExpander = queryExpander;
         this.queryArgumentPromptTemplate = queryArgumentPromptTemplate;
+        this.webSearchTaskExecutor = newTaskExecutor("web-search-", 8, 32, 256);
+        this.blockingSearchTaskExecutor = iqsSearchProperties.isReactive()
+                ? null
+                : newTaskExecutor("web-search-io-", 8, 32, 256);
+
+        // 默认按倒数排名融合多个查询的结果，只保留得分最高的 topK 个文档
+        this.documentJoiner = "concatenation".equalsIgnoreCase(iqsSearchProperties.getJoiner())
+                ? new ConcatenationDocumentJoiner()
+                : new ReciprocalRankFusionDocumentJoiner(iqsSearchProperties.getJoinTopK());
+
+        // 本地 BM25 重排，只把最相关的几个文档放进 prompt
+        this.documentPostProcessors = iqsSearchProperties.isRerankEnabled()
+                ? List.of(LexicalDocumentRanker.builder()
+                        .topN(iqsSearchProperties.getRerankTopN())
+                        .budget(iqsSearchProperties.getRerankBudget())
+                        .executor(webSearchTaskExecutor)
+                        .build())
+                : List.of();
 
         // reasoning content for DeepSeek-r1 is integrated into the output
         this.reasoningContentAdvisor = new ReasoningContentAdvisor(1);
@@ -93,8 +139,12 @@ public class SAAWebSearchService implements ISAAWebSearchService {
 
         this.webSearchRetriever = WebSearchRetriever.builder()
                 .searchEngine(searchEngine)
+                // reactive 关闭时不会注册 ReactiveIQSSearchEngine，回退到同步客户端
+                .reactiveSearchEngine(reactiveSearchEngine.getIfAvailable())
                 .dataCleaner(dataCleaner)
-                .maxResults(2)
+                .maxResults(iqsSearchProperties.getMaxResults())
+                .timeout(iqsSearchProperties.getTimeout())
+                .executor(blockingSearchTaskExecutor)
                 .build();
     }
 
@@ -124,8 +174,33 @@ public class SAAWebSearchService implements ISAAWebSearchService {
                                 null,
                                 true)
                 ).queryExpander(queryExpander)
-                .documentJoiner(new ConcatenationDocumentJoiner())
+                // 扩展后的多个查询并发检索
+                .taskExecutor(webSearchTaskExecutor)
+                .documentJoiner(documentJoiner)
+                .documentPostProcessors(documentPostProcessors)
                 .build();
     }
 
+    @Override
+    public void destroy() {
+
+        webSearchTaskExecutor.shutdown();
+        if (blockingSearchTaskExecutor != null) {
+            blockingSearchTaskExecutor.shutdown();
+        }
+    }
+
+    private static ThreadPoolTaskExecutor newTaskExecutor(String threadNamePrefix, int corePoolSize, int maxPoolSize, int queueCapacity) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+
+        return executor;
+    }
+
 }
@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.tools;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import com.alibaba.cloud.ai.application.entity.tools.ToolCallResp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Manual tool calling shared by the tools and MCP services.
+ * <p>
+ * All tool calls of one model turn run concurrently, each with its own deadline, so a turn with
+ * several tools takes as long as the slowest tool instead of the sum. A call still running at its
+ * deadline is cancelled and its worker thread interrupted, and a call rejected by the full pool is
+ * reported as a failed tool response instead of failing the turn. Every call is timed with
+ * {@link System#nanoTime()} and reported on its own {@link ToolCallResp}. The answer after the
+ * tool calls is either returned as a whole or streamed.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+@Component
+public class ParallelToolCallExecutor implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(ParallelToolCallExecutor.class);
+
+	public static final String TOOL_EVENT = "tool";
+
+	public static final String MESSAGE_EVENT = "message";
+
+	/**
+	 * 同一轮模型响应中的多个工具调用在该线程池中并发执行.
+	 * 线程池不注册为 Bean，避免 Spring Boot 跳过默认的 applicationTaskExecutor
+	 */
+	private final ThreadPoolTaskExecutor toolCallTaskExecutor;
+
+	private final Duration timeout;
+
+	public ParallelToolCallExecutor(
+			@Value("${spring.ai.alibaba.playground.tool-calling.timeout:30s}") Duration timeout
+	) {
+
+		this.timeout = timeout;
+
+		this.toolCallTaskExecutor = new ThreadPoolTaskExecutor();
+		this.toolCallTaskExecutor.setCorePoolSize(4);
+		this.toolCallTaskExecutor.setMaxPoolSize(16);
+		this.toolCallTaskExecutor.setQueueCapacity(64);
+		this.toolCallTaskExecutor.setThreadNamePrefix("tool-call-");
+		this.toolCallTaskExecutor.initialize();
+	}
+
+	/**
+	 * Run the tool calls and return the final answer as a whole.
+	 */
+	public ToolCallResp call(ChatClient chatClient, String prompt, List<ToolCallback> toolCallbacks) {
+
+		Turn turn = firstTurn(chatClient, prompt, toolCallbacks);
+		if (turn.calls().isEmpty()) {
+			logger.debug("ToolCalls is empty, no tool execution needed.");
+			var tcr = ToolCallResp.TCR();
+			tcr.setToolResult(turn.text());
+			return tcr;
+		}
+
+		ChatResponse finalResponse = chatClient.prompt().messages(turn.conversationHistory())
+				.call().chatResponse();
+
+		ToolCallResp tcr = summary(turn);
+		tcr.setToolResult(Objects.nonNull(finalResponse) ? finalResponse.getResult().getOutput().getText() : "");
+		logger.debug("End ToolCallResp: {}", tcr);
+
+		return tcr;
+	}
+
+	/**
+	 * Run the tool calls, emit one {@link #TOOL_EVENT} per executed call and then stream the final
+	 * answer as {@link #MESSAGE_EVENT}s.
+	 */
+	public Flux<ServerSentEvent<Object>> stream(ChatClient chatClient, String prompt, List<ToolCallback> toolCallbacks) {
+
+		return Mono.fromCallable(() -> firstTurn(chatClient, prompt, toolCallbacks))
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMapMany(turn -> {
+					if (turn.calls().isEmpty()) {
+						return Flux.just(event(MESSAGE_EVENT, turn.text()));
+					}
+
+					Flux<ServerSentEvent<Object>> tools = Flux.fromIterable(turn.calls())
+							.map(call -> event(TOOL_EVENT, call));
+					Flux<ServerSentEvent<Object>> answer = chatClient.prompt()
+							.messages(turn.conversationHistory())
+							.stream()
+							.content()
+							.map(text -> event(MESSAGE_EVENT, text));
+
+					return Flux.concat(tools, answer);
+				});
+	}
+
+	private Turn firstTurn(ChatClient chatClient, String prompt, List<ToolCallback> toolCallbacks) {
+
+		// manual run tools flag
+		ChatOptions chatOptions = ToolCallingChatOptions.builder()
+				.toolCallbacks(toolCallbacks)
+				.internalToolExecutionEnabled(false)
+				.build();
+		Prompt userPrompt = new Prompt(prompt, chatOptions);
+
+		ChatResponse response = chatClient.prompt(userPrompt).call().chatResponse();
+		logger.debug("ChatResponse: {}", response);
+
+		AssistantMessage assistantMessage = Objects.requireNonNull(response).getResult().getOutput();
+		String text = assistantMessage.getText();
+		if (!assistantMessage.hasToolCalls()) {
+			return new Turn(text, List.of(), List.of(), 0L);
+		}
+
+		long start = System.nanoTime();
+		List<ToolCallResp> calls = execute(text, assistantMessage.getToolCalls(), toolCallbacks);
+		long elapsed = System.nanoTime() - start;
+
+		List<ToolResponseMessage.ToolResponse> responses = new ArrayList<>(calls.size());
+		for (int i = 0; i < calls.size(); i++) {
+			AssistantMessage.ToolCall toolCall = assistantMessage.getToolCalls().get(i);
+			ToolCallResp call = calls.get(i);
+			String data = call.getStatus() == ToolCallResp.ToolState.SUCCESS
+					? call.getToolResponse()
+					: "Tool execution failed: " + call.getErrorMessage();
+			responses.add(new ToolResponseMessage.ToolResponse(toolCall.id(), toolCall.name(), data));
+		}
+
+		List<Message> conversationHistory = new ArrayList<>(userPrompt.getInstructions());
+		conversationHistory.add(assistantMessage);
+		conversationHistory.add(new ToolResponseMessage(responses));
+
+		return new Turn(text, calls, conversationHistory, elapsed);
+	}
+
+	private List<ToolCallResp> execute(String toolInput, List<AssistantMessage.ToolCall> toolCalls,
+			List<ToolCallback> toolCallbacks) {
+
+		Map<String, ToolCallback> callbacks = new HashMap<>();
+		for (ToolCallback callback : toolCallbacks) {
+			callbacks.put(callback.getToolDefinition().name(), callback);
+		}
+
+		List<Submitted> submitted = new ArrayList<>(toolCalls.size());
+		for (AssistantMessage.ToolCall toolCall : toolCalls) {
+			// 截止时间从提交时开始计算，所有调用并发等待，总耗时不超过单个超时时间
+			long submittedAt = System.nanoTime();
+			try {
+				Future<ToolCallResp> future = toolCallTaskExecutor.submit(
+						() -> invoke(toolInput, toolCall, callbacks.get(toolCall.name())));
+				submitted.add(new Submitted(future, submittedAt, submittedAt + timeout.toNanos()));
+			}
+			catch (TaskRejectedException e) {
+				// 线程池已满时只让这一次调用失败，其余调用照常执行
+				logger.warn("Tool call {} rejected, the tool call pool is full.", toolCall.name());
+				submitted.add(new Submitted(null, submittedAt, submittedAt + timeout.toNanos()));
+			}
+		}
+
+		List<ToolCallResp> calls = new ArrayList<>(toolCalls.size());
+		for (int i = 0; i < submitted.size(); i++) {
+			calls.add(await(toolInput, toolCalls.get(i), submitted.get(i)));
+		}
+
+		return calls;
+	}
+
+	private ToolCallResp invoke(String toolInput, AssistantMessage.ToolCall toolCall, ToolCallback callback) {
+
+		var tcr = ToolCallResp.startExecute(toolInput, toolCall.name(), toolCall.arguments());
+		logger.debug("Start ToolCallResp: {}", tcr);
+		long start = System.nanoTime();
+
+		try {
+			if (Objects.isNull(callback)) {
+				throw new IllegalStateException("No tool callback found for: " + toolCall.name());
+			}
+
+			tcr.setToolResponse(callback.call(toolCall.arguments()));
+			tcr.setStatus(ToolCallResp.ToolState.SUCCESS);
+		}
+		catch (Exception e) {
+			tcr.setStatus(ToolCallResp.ToolState.FAILURE);
+			tcr.setErrorMessage(e.getMessage());
+			logger.error("Error ToolCallResp: {}, msg: {}", tcr, e.getMessage());
+		}
+		finally {
+			tcr.setToolEndTime(LocalDateTime.now());
+			tcr.setToolCostTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		}
+
+		return tcr;
+	}
+
+	/**
+	 * A rejected, failed or timed out call is reported as a failure instead of failing the whole turn.
+	 * A call still running at its deadline is cancelled, which interrupts the tool callback.
+	 */
+	private ToolCallResp await(String toolInput, AssistantMessage.ToolCall toolCall, Submitted submitted) {
+
+		if (Objects.isNull(submitted.future())) {
+			return failed(toolInput, toolCall, "Tool execution rejected, too many concurrent tool calls", 0L);
+		}
+
+		try {
+			long remaining = Math.max(0L, submitted.deadline() - System.nanoTime());
+			return submitted.future().get(remaining, TimeUnit.NANOSECONDS);
+		}
+		catch (TimeoutException e) {
+			submitted.future().cancel(true);
+			logger.warn("Tool call {} timed out after {} ms, cancelled.", toolCall.name(), timeout.toMillis());
+			return failed(toolInput, toolCall, "Tool execution timed out after " + timeout.toMillis() + " ms",
+					submitted.elapsedMillis());
+		}
+		catch (InterruptedException e) {
+			submitted.future().cancel(true);
+			Thread.currentThread().interrupt();
+			return failed(toolInput, toolCall, "Tool execution interrupted", submitted.elapsedMillis());
+		}
+		catch (ExecutionException e) {
+			return failed(toolInput, toolCall, String.valueOf(e.getCause()), submitted.elapsedMillis());
+		}
+	}
+
+	private static ToolCallResp failed(String toolInput, AssistantMessage.ToolCall toolCall, String errorMessage,
+			long costTime) {
+
+		var tcr = ToolCallResp.startExecute(toolInput, toolCall.name(), toolCall.arguments());
+		tcr.setStatus(ToolCallResp.ToolState.FAILURE);
+		tcr.setErrorMessage(errorMessage);
+		tcr.setToolEndTime(LocalDateTime.now());
+		tcr.setToolCostTime(costTime);
+		return tcr;
+	}
+
+	/**
+	 * Top level response, the first call is copied to the top level fields for existing clients.
+	 */
+	private static ToolCallResp summary(Turn turn) {
+
+		ToolCallResp first = turn.calls().get(0);
+		var tcr = ToolCallResp.startExecute(first.getToolInput(), first.getToolName(), first.getToolParameters());
+		tcr.setToolCalls(turn.calls());
+		tcr.setToolStartTime(turn.calls().stream().map(ToolCallResp::getToolStartTime)
+				.min(Comparator.naturalOrder()).orElse(first.getToolStartTime()));
+		tcr.setToolEndTime(turn.calls().stream().map(ToolCallResp::getToolEndTime)
+				.max(Comparator.naturalOrder()).orElse(first.getToolEndTime()));
+		tcr.setToolCostTime(TimeUnit.NANOSECONDS.toMillis(turn.elapsedNanos()));
+		// 每个调用的结果单独一行，完整的结果在 toolCalls 中
+		tcr.setToolResponse(turn.calls().stream().map(ToolCallResp::getToolResponse)
+				.filter(Objects::nonNull).collect(Collectors.joining("\n")));
+
+		String errors = turn.calls().stream().map(ToolCallResp::getErrorMessage)
+				.filter(Objects::nonNull).collect(Collectors.joining("; "));
+		tcr.setStatus(errors.isEmpty() ? ToolCallResp.ToolState.SUCCESS : ToolCallResp.ToolState.FAILURE);
+		tcr.setErrorMessage(errors.isEmpty() ? null : errors);
+
+		return tcr;
+	}
+
+	private static ServerSentEvent<Object> event(String name, Object data) {
+		return ServerSentEvent.builder(data).event(name).build();
+	}
+
+	@Override
+	public void destroy() {
+
+		toolCallTaskExecutor.shutdown();
+	}
+
+	private record Turn(String text, List<ToolCallResp> calls, List<Message> conversationHistory, long elapsedNanos) {
+	}
+
+	/**
+	 * A submitted tool call, {@code future} is null when the pool rejected it.
+	 */
+	private record Submitted(Future<ToolCallResp> future, long submittedAt, long deadline) {
+
+		long elapsedMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submittedAt);
+		}
+
+	}
+
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import com.alibaba.cloud.ai.application.exception.SAAAppException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk LRU cache of generated images.
+ * <p>
+ * A cached image is stored under the SHA-256 of its generation parameters, so the same
+ * (prompt, resolution, style, model) request is served from the local file. On a miss the image
+ * is piped from the upstream URL to the client through a fixed size buffer and written to the
+ * cache at the same time, a whole image is never held on the heap. The least recently used
+ * images are evicted once the cache exceeds its size limit.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+public class GeneratedImageCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(GeneratedImageCache.class);
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final String SUFFIX = ".png";
+
+	private static final String TMP_SUFFIX = ".tmp";
+
+	private final boolean enabled;
+
+	private final Path directory;
+
+	private final long maxBytes;
+
+	/**
+	 * key -> file size, in access order.
+	 */
+	private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long totalBytes;
+
+	public GeneratedImageCache(boolean enabled, Path directory, long maxBytes) {
+
+		this.enabled = enabled;
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+
+		if (enabled) {
+			load();
+		}
+	}
+
+	public String key(String prompt, String resolution, String style, String model) {
+
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (String part : List.of(model, resolution, style, prompt)) {
+				digest.update(part.getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+			}
+
+			return HexFormat.of().formatHex(digest.digest());
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new SAAAppException("SHA-256 not supported: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Write the cached image to the output stream.
+	 * @return {@code false} on a cache miss, nothing is written then
+	 */
+	public boolean serve(String key, OutputStream outputStream) throws IOException {
+
+		if (!enabled || !touch(key)) {
+			return false;
+		}
+
+		try {
+			Files.copy(file(key), outputStream);
+			return true;
+		}
+		catch (NoSuchFileException e) {
+			// 文件被外部删除，按未命中处理
+			remove(key);
+			return false;
+		}
+	}
+
+	/**
+	 * Pipe the image from the upstream URL to the output stream and cache it on the way.
+	 */
+	public void fetch(String key, URL source, OutputStream outputStream) throws IOException {
+
+		if (!enabled) {
+			try (InputStream in = source.openStream()) {
+				in.transferTo(outputStream);
+			}
+			return;
+		}
+
+		Path tmp = directory.resolve(key + "." + UUID.randomUUID() + TMP_SUFFIX);
+		try (InputStream in = source.openStream(); OutputStream cached = Files.newOutputStream(tmp)) {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				outputStream.write(buffer, 0, read);
+				cached.write(buffer, 0, read);
+			}
+		}
+		catch (IOException e) {
+			Files.deleteIfExists(tmp);
+			throw e;
+		}
+
+		long size = Files.size(tmp);
+		Files.move(tmp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		put(key, size);
+	}
+
+	private synchronized boolean touch(String key) {
+		return entries.get(key) != null;
+	}
+
+	private synchronized void put(String key, long size) {
+
+		Long previous = entries.put(key, size);
+		totalBytes += size - (previous == null ? 0L : previous);
+
+		Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+		while (totalBytes > maxBytes && eldest.hasNext()) {
+			Map.Entry<String, Long> entry = eldest.next();
+			if (entry.getKey().equals(key)) {
+				continue;
+			}
+
+			delete(entry.getKey());
+			totalBytes -= entry.getValue();
+			eldest.remove();
+		}
+	}
+
+	private synchronized void remove(String key) {
+
+		Long size = entries.remove(key);
+		if (size != null) {
+			totalBytes -= size;
+		}
+	}
+
+	private void load() {
+
+		try {
+			Files.createDirectories(directory);
+
+			try (Stream<Path> files = Files.list(directory)) {
+				List<Path> paths = files.filter(Files::isRegularFile).toList();
+				List<Path> images = paths.stream()
+						.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+						.sorted(Comparator.comparingLong(GeneratedImageCache::lastModified))
+						.toList();
+
+				// 上次异常退出遗留的临时文件
+				for (Path path : paths) {
+					if (path.getFileName().toString().endsWith(TMP_SUFFIX)) {
+						Files.deleteIfExists(path);
+					}
+				}
+
+				for (Path image : images) {
+					String name = image.getFileName().toString();
+					put(name.substring(0, name.length() - SUFFIX.length()), Files.size(image));
+				}
+			}
+
+			logger.debug("Loaded {} cached images ({} bytes) from {}", entries.size(), totalBytes, directory);
+		}
+		catch (IOException e) {
+			throw new SAAAppException("Failed to load image cache from " + directory + ": " + e.getMessage());
+		}
+	}
+
+	private void delete(String key) {
+
+		try {
+			Files.deleteIfExists(file(key));
+		}
+		catch (IOException e) {
+			logger.warn("Failed to evict cached image {}: {}", key, e.getMessage());
+		}
+	}
+
+	private Path file(String key) {
+		return directory.resolve(key + SUFFIX);
+	}
+
+	private static long lastModified(Path path) {
+
+		try {
+			return Files.getLastModifiedTime(path).toMillis();
+		}
+		catch (IOException e) {
+			return 0L;
+		}
+	}
+
+}
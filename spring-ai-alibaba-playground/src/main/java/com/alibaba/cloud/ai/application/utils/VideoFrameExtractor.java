@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.utils;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.bytedeco.javacv.Frame;
+import org.bytedeco.javacv.Java2DFrameConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Extract representative frames of a video for the vision model.
+ * <p>
+ * The video is decoded once front to back. Sampled frames are compared with a 64 bit
+ * difference hash (dHash), a frame is only kept when it differs from the last kept frame by
+ * more than the scene threshold, so near duplicates never reach the model. Kept frames are
+ * downscaled and JPEG encoded in memory on a small worker pool while decoding goes on.
+ * <p>
+ * At most {@code maxFrames * OVERSAMPLING} frames are held at a time, also when the frame count
+ * of the video is unknown: when the reservoir is full every second held frame is dropped and
+ * only every second following scene change is kept, so the held frames stay spread over the
+ * whole video. {@link #close()} shuts the encoding pool down.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+public class VideoFrameExtractor implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(VideoFrameExtractor.class);
+
+	/**
+	 * Frames sampled per requested frame, leaves room for the scene change detection.
+	 */
+	private static final int OVERSAMPLING = 4;
+
+	/**
+	 * Longest edge of an encoded frame, the vision model does not need more.
+	 */
+	private static final int MAX_EDGE = 1280;
+
+	private final int maxFrames;
+
+	private final float jpegQuality;
+
+	private final int sceneThreshold;
+
+	private final ExecutorService encoder;
+
+	/**
+	 * @param maxFrames max frames returned
+	 * @param jpegQuality JPEG quality in {@code (0, 1]}
+	 * @param sceneThreshold min hamming distance between the hashes of two kept frames, {@code 0..64}
+	 * @param workers JPEG encoding threads
+	 */
+	public VideoFrameExtractor(int maxFrames, float jpegQuality, int sceneThreshold, int workers) {
+
+		this.maxFrames = Math.max(1, maxFrames);
+		this.jpegQuality = Math.min(1f, Math.max(0.1f, jpegQuality));
+		this.sceneThreshold = sceneThreshold;
+
+		AtomicInteger index = new AtomicInteger();
+		this.encoder = Executors.newFixedThreadPool(Math.max(1, workers), runnable -> {
+			Thread thread = new Thread(runnable, "video-frame-encoder-" + index.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * @return JPEG encoded frames in playback order
+	 */
+	public List<byte[]> extract(File videoFile) throws IOException {
+
+		// 视频帧数未知时 stride 为 1，用固定容量的蓄水池限制同时持有的帧
+		int capacity = maxFrames * OVERSAMPLING;
+		List<Future<byte[]>> encoded = new ArrayList<>(capacity);
+		int decoded = 0;
+		int sceneChanges = 0;
+		int keepEvery = 1;
+
+		try (FFmpegFrameGrabber grabber = new FFmpegFrameGrabber(videoFile)) {
+			grabber.start();
+
+			int stride = Math.max(1, grabber.getLengthInFrames() / (maxFrames * OVERSAMPLING));
+			Java2DFrameConverter converter = new Java2DFrameConverter();
+
+			long lastHash = 0L;
+			Frame frame;
+			while (Objects.nonNull(frame = grabber.grabImage())) {
+				if (decoded++ % stride != 0) {
+					continue;
+				}
+
+				BufferedImage image = converter.convert(frame);
+				if (Objects.isNull(image)) {
+					continue;
+				}
+
+				long hash = differenceHash(image);
+				if (sceneChanges > 0 && Long.bitCount(hash ^ lastHash) <= sceneThreshold) {
+					continue;
+				}
+				lastHash = hash;
+				if (sceneChanges++ % keepEvery != 0) {
+					continue;
+				}
+
+				// 缩放后的图片是独立副本，grabber 复用的帧缓冲可以继续解码
+				BufferedImage scaled = scale(image);
+				encoded.add(encoder.submit(() -> jpeg(scaled)));
+
+				if (encoded.size() >= capacity) {
+					encoded = halve(encoded);
+					keepEvery *= 2;
+				}
+			}
+		}
+		catch (IOException e) {
+			encoded.forEach(future -> future.cancel(true));
+			throw e;
+		}
+
+		List<Future<byte[]>> selected = select(encoded);
+		List<byte[]> frames = new ArrayList<>(selected.size());
+		try {
+			for (Future<byte[]> future : selected) {
+				frames.add(future.get());
+			}
+		}
+		catch (ExecutionException e) {
+			throw new IOException("Failed to encode video frame: " + e.getCause().getMessage(), e.getCause());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while encoding video frames", e);
+		}
+
+		logger.debug("Decoded {} frames, {} scene changes, keep {} frames", decoded, sceneChanges, frames.size());
+
+		return frames;
+	}
+
+	/**
+	 * Keep every second frame of a full reservoir, the others are cancelled and released.
+	 */
+	private static List<Future<byte[]>> halve(List<Future<byte[]>> encoded) {
+
+		List<Future<byte[]>> kept = new ArrayList<>(encoded.size());
+		for (int i = 0; i < encoded.size(); i++) {
+			if (i % 2 == 0) {
+				kept.add(encoded.get(i));
+			}
+			else {
+				encoded.get(i).cancel(true);
+			}
+		}
+
+		return kept;
+	}
+
+	/**
+	 * Spread the kept frames evenly over the video when there are more scene changes than allowed.
+	 */
+	private List<Future<byte[]>> select(List<Future<byte[]>> encoded) {
+
+		if (encoded.size() <= maxFrames) {
+			return encoded;
+		}
+
+		List<Future<byte[]>> selected = new ArrayList<>(maxFrames);
+		int next = 0;
+		for (int i = 0; i < encoded.size(); i++) {
+			if (next < maxFrames && i == (int) ((long) next * encoded.size() / maxFrames)) {
+				selected.add(encoded.get(i));
+				next++;
+			}
+			else {
+				encoded.get(i).cancel(true);
+			}
+		}
+
+		return selected;
+	}
+
+	/**
+	 * 9x8 grayscale thumbnail, one bit per horizontal brightness gradient.
+	 */
+	private static long differenceHash(BufferedImage image) {
+
+		BufferedImage thumbnail = new BufferedImage(9, 8, BufferedImage.TYPE_BYTE_GRAY);
+		Graphics2D graphics = thumbnail.createGraphics();
+		graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		graphics.drawImage(image, 0, 0, 9, 8, null);
+		graphics.dispose();
+
+		Raster raster = thumbnail.getRaster();
+		long hash = 0L;
+		for (int y = 0; y < 8; y++) {
+			for (int x = 0; x < 8; x++) {
+				hash = (hash << 1) | (raster.getSample(x, y, 0) < raster.getSample(x + 1, y, 0) ? 1L : 0L);
+			}
+		}
+
+		return hash;
+	}
+
+	private static BufferedImage scale(BufferedImage image) {
+
+		double ratio = Math.min(1d, (double) MAX_EDGE / Math.max(image.getWidth(), image.getHeight()));
+		int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+		int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+
+		BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = scaled.createGraphics();
+		graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		graphics.drawImage(image, 0, 0, width, height, null);
+		graphics.dispose();
+
+		return scaled;
+	}
+
+	private byte[] jpeg(BufferedImage image) throws IOException {
+
+		ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		try (MemoryCacheImageOutputStream imageOutputStream = new MemoryCacheImageOutputStream(outputStream)) {
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+			param.setCompressionQuality(jpegQuality);
+
+			writer.setOutput(imageOutputStream);
+			writer.write(null, new IIOImage(image, null, null), param);
+		}
+		finally {
+			writer.dispose();
+		}
+
+		return outputStream.toByteArray();
+	}
+
+	@Override
+	public void close() {
+
+		encoder.shutdownNow();
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.vectorstore;
+
+import java.util.List;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+/**
+ * {@link VectorStore} decorator which answers repeated similarity searches from the
+ * {@link RetrievalCache} and invalidates the cached results of this store on every write.
+ * On a miss the query is embedded once, by the delegate.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+public class CachingVectorStore implements VectorStore {
+
+	private final VectorStore delegate;
+
+	private final RetrievalCache cache;
+
+	private final String storeName;
+
+	public CachingVectorStore(VectorStore delegate, RetrievalCache cache) {
+		this.delegate = delegate;
+		this.cache = cache;
+		this.storeName = delegate.getName();
+	}
+
+	@Override
+	public void add(List<Document> documents) {
+
+		try {
+			this.delegate.add(documents);
+		}
+		finally {
+			this.cache.invalidateResults(this.storeName);
+		}
+	}
+
+	@Override
+	public void delete(List<String> idList) {
+
+		try {
+			this.delegate.delete(idList);
+		}
+		finally {
+			this.cache.invalidateResults(this.storeName);
+		}
+	}
+
+	@Override
+	public void delete(Filter.Expression filterExpression) {
+
+		try {
+			this.delegate.delete(filterExpression);
+		}
+		finally {
+			this.cache.invalidateResults(this.storeName);
+		}
+	}
+
+	@Override
+	public List<Document> similaritySearch(SearchRequest request) {
+
+		return this.cache.results(this.storeName, request, () -> this.delegate.similaritySearch(request));
+	}
+
+	@Override
+	public String getName() {
+		return this.delegate.getName();
+	}
+
+	public VectorStore getDelegate() {
+		return this.delegate;
+	}
+
+}
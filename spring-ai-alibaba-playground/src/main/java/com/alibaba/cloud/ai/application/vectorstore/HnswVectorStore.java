@@ -0,0 +1,616 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.vectorstore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptionsBuilder;
+import org.springframework.ai.observation.conventions.VectorStoreProvider;
+import org.springframework.ai.observation.conventions.VectorStoreSimilarityMetric;
+import org.springframework.ai.vectorstore.AbstractVectorStoreBuilder;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.observation.AbstractObservationVectorStore;
+import org.springframework.ai.vectorstore.observation.VectorStoreObservationContext;
+import org.springframework.util.Assert;
+
+/**
+ * In-process approximate nearest-neighbour vector store backed by an HNSW graph
+ * (<a href="https://arxiv.org/abs/1603.09320">Malkov &amp; Yashunin</a>).
+ * <p>
+ * Vectors are normalized {@code float[]}, neighbour lists are plain {@code int[]} per node and
+ * layer. Inserts are incremental, deletes are tombstones: a deleted node still routes the
+ * search but never shows up in the results. Once tombstones make up {@link #COMPACT_RATIO} of
+ * the graph it is rebuilt from the live nodes. Re-adding an id with an unchanged embedding only
+ * refreshes its text and metadata. When deleted or filtered nodes leave fewer than {@code topK}
+ * hits, the search is retried with a doubled {@code ef}.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+public class HnswVectorStore extends AbstractObservationVectorStore {
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * Share of tombstoned nodes that triggers a rebuild of the graph.
+	 */
+	private static final double COMPACT_RATIO = 0.3;
+
+	private static final int MIN_COMPACT_SIZE = 64;
+
+	private final int m;
+
+	private final int maxM0;
+
+	private final int efConstruction;
+
+	private final int efSearch;
+
+	private final double levelMultiplier;
+
+	// only used by inserts, which run under the write lock
+	private final Random random;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Map<String, Integer> nodes = new HashMap<>();
+
+	private final BitSet deleted = new BitSet();
+
+	// searches run concurrently under the read lock, every thread reuses its own visited marks
+	private final ThreadLocal<VisitedList> visitedList = ThreadLocal.withInitial(VisitedList::new);
+
+	private float[][] vectors = new float[INITIAL_CAPACITY][];
+
+	// links[node][level] = neighbour ids, links[node][level][0] is the neighbour count
+	private int[][][] links = new int[INITIAL_CAPACITY][][];
+
+	private StoredDocument[] documents = new StoredDocument[INITIAL_CAPACITY];
+
+	private int size;
+
+	private int entryPoint = -1;
+
+	private int maxLevel = -1;
+
+	private int dimensions = -1;
+
+	protected HnswVectorStore(HnswVectorStoreBuilder builder) {
+
+		super(builder);
+
+		Assert.isTrue(builder.m > 1, "M must be greater than 1");
+		Assert.isTrue(builder.efConstruction > 0, "efConstruction must be positive");
+		Assert.isTrue(builder.efSearch > 0, "efSearch must be positive");
+
+		this.m = builder.m;
+		this.maxM0 = builder.m * 2;
+		this.efConstruction = builder.efConstruction;
+		this.efSearch = builder.efSearch;
+		this.levelMultiplier = 1 / Math.log(builder.m);
+		this.random = Objects.nonNull(builder.random) ? builder.random : new Random();
+	}
+
+	public static HnswVectorStoreBuilder builder(EmbeddingModel embeddingModel) {
+		return new HnswVectorStoreBuilder(embeddingModel);
+	}
+
+	@Override
+	public void doAdd(List<Document> documents) {
+
+		Objects.requireNonNull(documents, "Documents list cannot be null");
+		if (documents.isEmpty()) {
+			return;
+		}
+
+		List<float[]> embeddings = this.embeddingModel.embed(documents, EmbeddingOptionsBuilder.builder().build(),
+				this.batchingStrategy);
+
+		lock.writeLock().lock();
+		try {
+			for (float[] embedding : embeddings) {
+				int expected = this.dimensions < 0 ? embeddings.get(0).length : this.dimensions;
+				Assert.isTrue(embedding.length == expected, () -> "Embedding dimension " + embedding.length
+						+ " does not match the store dimension " + expected);
+			}
+
+			for (int i = 0; i < documents.size(); i++) {
+				Document document = documents.get(i);
+				StoredDocument stored = new StoredDocument(document.getId(), document.getText(),
+						new HashMap<>(document.getMetadata()));
+				float[] vector = VectorMath.normalize(embeddings.get(i));
+
+				Integer existing = this.nodes.get(document.getId());
+				if (Objects.nonNull(existing) && Arrays.equals(this.vectors[existing], vector)) {
+					// same embedding, only refresh the payload
+					this.documents[existing] = stored;
+					this.deleted.clear(existing);
+					continue;
+				}
+				if (Objects.nonNull(existing)) {
+					this.deleted.set(existing);
+				}
+
+				this.nodes.put(document.getId(), insert(vector, stored));
+			}
+
+			compactIfNeeded();
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void doDelete(List<String> idList) {
+
+		lock.writeLock().lock();
+		try {
+			for (String id : idList) {
+				Integer node = this.nodes.remove(id);
+				if (Objects.nonNull(node)) {
+					this.deleted.set(node);
+					this.documents[node] = null;
+				}
+			}
+
+			compactIfNeeded();
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	protected void doDelete(Filter.Expression filterExpression) {
+
+		Predicate<StoredDocument> predicate = StoredDocument.filter(filterExpression);
+
+		List<String> ids = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			for (int node = 0; node < this.size; node++) {
+				if (!this.deleted.get(node) && predicate.test(this.documents[node])) {
+					ids.add(this.documents[node].id());
+				}
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+
+		doDelete(ids);
+	}
+
+	@Override
+	public List<Document> doSimilaritySearch(SearchRequest request) {
+
+		float[] query = VectorMath.normalize(this.embeddingModel.embed(request.getQuery()));
+		Predicate<StoredDocument> predicate = request.hasFilterExpression()
+				? StoredDocument.filter(request.getFilterExpression()) : document -> true;
+		int topK = request.getTopK();
+
+		lock.readLock().lock();
+		try {
+			if (this.entryPoint < 0 || query.length != this.vectors[this.entryPoint].length) {
+				return List.of();
+			}
+
+			int current = this.entryPoint;
+			for (int level = this.maxLevel; level > 0; level--) {
+				current = greedySearch(query, current, level);
+			}
+
+			// the graph search over-fetches by ef, deleted and filtered nodes are dropped afterwards,
+			// when that leaves fewer than topK hits the search is repeated with a doubled ef
+			int ef = Math.max(this.efSearch, topK);
+			while (true) {
+				List<Candidate> candidates = searchLayer(query, current, ef, 0);
+				candidates.sort(Comparator.comparingDouble(Candidate::distance));
+
+				List<Document> results = new ArrayList<>(topK);
+				boolean belowThreshold = false;
+				for (Candidate candidate : candidates) {
+					if (results.size() >= topK) {
+						break;
+					}
+
+					double score = 1 - candidate.distance();
+					if (score < request.getSimilarityThreshold()) {
+						// candidates are sorted, every further one is below the threshold as well
+						belowThreshold = true;
+						break;
+					}
+					if (this.deleted.get(candidate.node()) || !predicate.test(this.documents[candidate.node()])) {
+						continue;
+					}
+					results.add(this.documents[candidate.node()].toDocument(score));
+				}
+
+				if (results.size() >= topK || belowThreshold || candidates.size() < ef || ef >= this.size) {
+					return results;
+				}
+				ef = Math.min(ef * 2, this.size);
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public VectorStoreObservationContext.Builder createObservationContextBuilder(String operationName) {
+
+		return VectorStoreObservationContext.builder(VectorStoreProvider.SIMPLE.value(), operationName)
+				.dimensions(this.embeddingModel.dimensions())
+				.collectionName("hnsw")
+				.similarityMetric(VectorStoreSimilarityMetric.COSINE.value());
+	}
+
+	public int size() {
+
+		lock.readLock().lock();
+		try {
+			return this.nodes.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private int insert(float[] vector, StoredDocument document) {
+
+		int node = this.size++;
+		ensureCapacity(this.size);
+		this.dimensions = vector.length;
+
+		int level = randomLevel();
+		this.vectors[node] = vector;
+		this.documents[node] = document;
+		this.links[node] = new int[level + 1][];
+		for (int l = 0; l <= level; l++) {
+			this.links[node][l] = new int[(l == 0 ? this.maxM0 : this.m) + 1];
+		}
+
+		if (this.entryPoint < 0) {
+			this.entryPoint = node;
+			this.maxLevel = level;
+			return node;
+		}
+
+		int current = this.entryPoint;
+		for (int l = this.maxLevel; l > level; l--) {
+			current = greedySearch(vector, current, l);
+		}
+
+		for (int l = Math.min(level, this.maxLevel); l >= 0; l--) {
+			List<Candidate> candidates = searchLayer(vector, current, this.efConstruction, l);
+			candidates.sort(Comparator.comparingDouble(Candidate::distance));
+
+			int maxConnections = l == 0 ? this.maxM0 : this.m;
+			for (int neighbour : selectNeighbours(candidates, this.m)) {
+				connect(node, neighbour, l);
+				connect(neighbour, node, l);
+				if (this.links[neighbour][l][0] > maxConnections) {
+					shrink(neighbour, l, maxConnections);
+				}
+			}
+
+			current = candidates.get(0).node();
+		}
+
+		if (level > this.maxLevel) {
+			this.maxLevel = level;
+			this.entryPoint = node;
+		}
+
+		return node;
+	}
+
+	private int greedySearch(float[] query, int start, int level) {
+
+		int current = start;
+		double currentDistance = distance(query, current);
+
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			int[] neighbours = this.links[current][level];
+			for (int i = 1; i <= neighbours[0]; i++) {
+				double d = distance(query, neighbours[i]);
+				if (d < currentDistance) {
+					currentDistance = d;
+					current = neighbours[i];
+					changed = true;
+				}
+			}
+		}
+
+		return current;
+	}
+
+	private List<Candidate> searchLayer(float[] query, int start, int ef, int level) {
+
+		VisitedList visited = this.visitedList.get();
+		visited.reset(this.size);
+		PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance));
+		PriorityQueue<Candidate> nearest = new PriorityQueue<>(
+				Comparator.comparingDouble(Candidate::distance).reversed());
+
+		Candidate first = new Candidate(start, distance(query, start));
+		visited.visit(start);
+		candidates.add(first);
+		nearest.add(first);
+
+		while (!candidates.isEmpty()) {
+			Candidate closest = candidates.poll();
+			if (closest.distance() > nearest.peek().distance() && nearest.size() >= ef) {
+				break;
+			}
+
+			int[] neighbours = this.links[closest.node()][level];
+			for (int i = 1; i <= neighbours[0]; i++) {
+				int neighbour = neighbours[i];
+				if (!visited.visit(neighbour)) {
+					continue;
+				}
+
+				double d = distance(query, neighbour);
+				if (nearest.size() < ef || d < nearest.peek().distance()) {
+					Candidate candidate = new Candidate(neighbour, d);
+					candidates.add(candidate);
+					nearest.add(candidate);
+					if (nearest.size() > ef) {
+						nearest.poll();
+					}
+				}
+			}
+		}
+
+		return new ArrayList<>(nearest);
+	}
+
+	/**
+	 * Neighbour selection heuristic: keep a candidate only if it is closer to the base node than
+	 * to every neighbour already selected, then top up with the closest remaining ones.
+	 */
+	private List<Integer> selectNeighbours(List<Candidate> sortedCandidates, int max) {
+
+		List<Integer> selected = new ArrayList<>(max);
+		List<Integer> pruned = new ArrayList<>();
+
+		for (Candidate candidate : sortedCandidates) {
+			if (selected.size() >= max) {
+				break;
+			}
+
+			boolean diverse = true;
+			for (int chosen : selected) {
+				if (distance(this.vectors[candidate.node()], chosen) < candidate.distance()) {
+					diverse = false;
+					break;
+				}
+			}
+
+			if (diverse) {
+				selected.add(candidate.node());
+			}
+			else {
+				pruned.add(candidate.node());
+			}
+		}
+
+		for (int i = 0; i < pruned.size() && selected.size() < max; i++) {
+			selected.add(pruned.get(i));
+		}
+
+		return selected;
+	}
+
+	private void connect(int from, int to, int level) {
+
+		int[] neighbours = this.links[from][level];
+		int count = neighbours[0];
+		if (count + 1 >= neighbours.length) {
+			neighbours = Arrays.copyOf(neighbours, neighbours.length + 1);
+			this.links[from][level] = neighbours;
+		}
+
+		neighbours[count + 1] = to;
+		neighbours[0] = count + 1;
+	}
+
+	private void shrink(int node, int level, int maxConnections) {
+
+		int[] neighbours = this.links[node][level];
+		List<Candidate> candidates = new ArrayList<>(neighbours[0]);
+		for (int i = 1; i <= neighbours[0]; i++) {
+			candidates.add(new Candidate(neighbours[i], distance(this.vectors[node], neighbours[i])));
+		}
+		candidates.sort(Comparator.comparingDouble(Candidate::distance));
+
+		List<Integer> kept = selectNeighbours(candidates, maxConnections);
+		int[] shrunk = new int[maxConnections + 1];
+		shrunk[0] = kept.size();
+		for (int i = 0; i < kept.size(); i++) {
+			shrunk[i + 1] = kept.get(i);
+		}
+
+		this.links[node][level] = shrunk;
+	}
+
+	private int randomLevel() {
+
+		double random = this.random.nextDouble();
+		return (int) Math.floor(-Math.log(Math.max(random, Double.MIN_VALUE)) * this.levelMultiplier);
+	}
+
+	/**
+	 * Rebuild the graph from the live nodes once tombstones make up {@link #COMPACT_RATIO} of it.
+	 * Must be called with the write lock held.
+	 */
+	private void compactIfNeeded() {
+
+		int tombstones = this.deleted.cardinality();
+		if (this.size < MIN_COMPACT_SIZE || tombstones < this.size * COMPACT_RATIO) {
+			return;
+		}
+
+		float[][] oldVectors = this.vectors;
+		StoredDocument[] oldDocuments = this.documents;
+		BitSet oldDeleted = (BitSet) this.deleted.clone();
+		int oldSize = this.size;
+
+		int capacity = Math.max(INITIAL_CAPACITY, oldSize - tombstones);
+		this.vectors = new float[capacity][];
+		this.links = new int[capacity][][];
+		this.documents = new StoredDocument[capacity];
+		this.size = 0;
+		this.entryPoint = -1;
+		this.maxLevel = -1;
+		this.deleted.clear();
+		this.nodes.clear();
+
+		for (int node = 0; node < oldSize; node++) {
+			if (!oldDeleted.get(node)) {
+				this.nodes.put(oldDocuments[node].id(), insert(oldVectors[node], oldDocuments[node]));
+			}
+		}
+	}
+
+	private void ensureCapacity(int required) {
+
+		if (required <= this.vectors.length) {
+			return;
+		}
+
+		int newCapacity = Math.max(required, this.vectors.length * 2);
+		this.vectors = Arrays.copyOf(this.vectors, newCapacity);
+		this.links = Arrays.copyOf(this.links, newCapacity);
+		this.documents = Arrays.copyOf(this.documents, newCapacity);
+	}
+
+	private double distance(float[] query, int node) {
+		return 1 - VectorMath.dot(query, this.vectors[node]);
+	}
+
+	private record Candidate(int node, double distance) {
+	}
+
+	/**
+	 * Visited marks reused across searches: a node is visited when its mark equals the current
+	 * epoch, so a new search only bumps the epoch instead of allocating and clearing a bit set.
+	 */
+	private static final class VisitedList {
+
+		private int[] marks = new int[0];
+
+		private int epoch;
+
+		void reset(int capacity) {
+
+			if (this.marks.length < capacity) {
+				this.marks = new int[Math.max(capacity, this.marks.length * 2)];
+				this.epoch = 0;
+			}
+
+			if (++this.epoch == Integer.MAX_VALUE) {
+				Arrays.fill(this.marks, 0);
+				this.epoch = 1;
+			}
+		}
+
+		/**
+		 * @return {@code true} if the node was not visited in the current search yet
+		 */
+		boolean visit(int node) {
+
+			if (this.marks[node] == this.epoch) {
+				return false;
+			}
+
+			this.marks[node] = this.epoch;
+			return true;
+		}
+
+	}
+
+	public static final class HnswVectorStoreBuilder extends AbstractVectorStoreBuilder<HnswVectorStoreBuilder> {
+
+		private int m = 16;
+
+		private int efConstruction = 200;
+
+		private int efSearch = 64;
+
+		private Random random;
+
+		private HnswVectorStoreBuilder(EmbeddingModel embeddingModel) {
+			super(embeddingModel);
+		}
+
+		/**
+		 * Max neighbours per node on the upper layers, layer 0 keeps {@code 2 * M}.
+		 */
+		public HnswVectorStoreBuilder m(int m) {
+			this.m = m;
+			return this;
+		}
+
+		public HnswVectorStoreBuilder efConstruction(int efConstruction) {
+			this.efConstruction = efConstruction;
+			return this;
+		}
+
+		public HnswVectorStoreBuilder efSearch(int efSearch) {
+			this.efSearch = efSearch;
+			return this;
+		}
+
+		/**
+		 * Source of the node levels, a seeded one makes the graph layout reproducible.
+		 */
+		HnswVectorStoreBuilder random(Random random) {
+			this.random = random;
+			return this;
+		}
+
+		@Override
+		public HnswVectorStore build() {
+			return new HnswVectorStore(this);
+		}
+
+	}
+
+}
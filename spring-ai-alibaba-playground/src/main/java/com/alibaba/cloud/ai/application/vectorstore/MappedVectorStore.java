@@ -0,0 +1,606 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.vectorstore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptionsBuilder;
+import org.springframework.ai.observation.conventions.VectorStoreProvider;
+import org.springframework.ai.observation.conventions.VectorStoreSimilarityMetric;
+import org.springframework.ai.vectorstore.AbstractVectorStoreBuilder;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.observation.AbstractObservationVectorStore;
+import org.springframework.ai.vectorstore.observation.VectorStoreObservationContext;
+
+/**
+ * In-process vector store with a binary, memory-mapped snapshot.
+ * <p>
+ * Embeddings are normalized and kept as float32 in one contiguous off-heap region, text and
+ * metadata live in a separate heap segment. The snapshot is written as two files:
+ * <ul>
+ *     <li>{@code <name>.vec}: header (magic, version, dimensions, count, generation) followed by the raw little-endian vectors</li>
+ *     <li>{@code <name>.meta}: header (magic, version, count, generation) followed by length-prefixed id, text and metadata JSON</li>
+ * </ul>
+ * Every save writes a new random generation into both headers, a pair of files from different
+ * saves, e.g. after a crash between the two renames, is rejected on load. On startup the vector
+ * file is mapped copy-on-write, so loading a snapshot costs one {@code mmap} instead of
+ * re-embedding the whole corpus.
+ * <p>
+ * The vectors live in a single buffer, so the store holds at most 2 GB of embeddings.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+public class MappedVectorStore extends AbstractObservationVectorStore implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(MappedVectorStore.class);
+
+	private static final int MAGIC = 0x53414156;
+
+	private static final int VERSION = 2;
+
+	private static final int VECTOR_HEADER_BYTES = 4 * Integer.BYTES + Long.BYTES;
+
+	/**
+	 * Largest vector region a single {@link ByteBuffer} can address.
+	 */
+	private static final long MAX_VECTOR_BYTES = Integer.MAX_VALUE;
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private static final String VECTOR_FILE_SUFFIX = ".vec";
+
+	private static final String META_FILE_SUFFIX = ".meta";
+
+	private final Path snapshotPath;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Map<String, Integer> slots = new HashMap<>();
+
+	// index is the vector slot, null marks a deleted slot
+	private final List<StoredDocument> documents = new ArrayList<>();
+
+	private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+	private ByteBuffer vectors;
+
+	private FloatBuffer vectorView;
+
+	private int dimensions;
+
+	private int capacity;
+
+	private boolean restored;
+
+	private volatile boolean dirty;
+
+	protected MappedVectorStore(MappedVectorStoreBuilder builder) {
+
+		super(builder);
+		this.snapshotPath = builder.snapshotPath;
+
+		if (Objects.nonNull(this.snapshotPath)) {
+			load();
+		}
+	}
+
+	public static MappedVectorStoreBuilder builder(EmbeddingModel embeddingModel) {
+		return new MappedVectorStoreBuilder(embeddingModel);
+	}
+
+	@Override
+	public void doAdd(List<Document> documents) {
+
+		Objects.requireNonNull(documents, "Documents list cannot be null");
+		if (documents.isEmpty()) {
+			return;
+		}
+
+		List<float[]> embeddings = this.embeddingModel.embed(documents, EmbeddingOptionsBuilder.builder().build(),
+				this.batchingStrategy);
+
+		lock.writeLock().lock();
+		try {
+			for (int i = 0; i < documents.size(); i++) {
+				Document document = documents.get(i);
+				float[] embedding = embeddings.get(i);
+
+				if (this.dimensions == 0) {
+					this.dimensions = embedding.length;
+				}
+				if (embedding.length != this.dimensions) {
+					throw new IllegalArgumentException("Embedding dimensions mismatch, expected " + this.dimensions
+							+ " but was " + embedding.length + " for document " + document.getId());
+				}
+
+				Integer slot = this.slots.get(document.getId());
+				if (Objects.isNull(slot)) {
+					slot = allocateSlot();
+					this.slots.put(document.getId(), slot);
+				}
+
+				writeVector(slot, embedding);
+				this.documents.set(slot, new StoredDocument(document.getId(), document.getText(),
+						new HashMap<>(document.getMetadata())));
+			}
+			this.dirty = true;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void doDelete(List<String> idList) {
+
+		lock.writeLock().lock();
+		try {
+			for (String id : idList) {
+				Integer slot = this.slots.remove(id);
+				if (Objects.nonNull(slot)) {
+					this.documents.set(slot, null);
+					this.freeSlots.push(slot);
+					this.dirty = true;
+				}
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	protected void doDelete(Filter.Expression filterExpression) {
+
+		Predicate<StoredDocument> predicate = StoredDocument.filter(filterExpression);
+
+		List<String> ids = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			for (StoredDocument document : this.documents) {
+				if (Objects.nonNull(document) && predicate.test(document)) {
+					ids.add(document.id());
+				}
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+
+		doDelete(ids);
+	}
+
+	@Override
+	public List<Document> doSimilaritySearch(SearchRequest request) {
+
+		float[] query = VectorMath.normalize(this.embeddingModel.embed(request.getQuery()));
+		Predicate<StoredDocument> predicate = request.hasFilterExpression()
+				? StoredDocument.filter(request.getFilterExpression()) : document -> true;
+
+		PriorityQueue<ScoredSlot> topK = new PriorityQueue<>(Math.max(1, request.getTopK()),
+				Comparator.comparingDouble(ScoredSlot::score));
+
+		lock.readLock().lock();
+		try {
+			if (query.length != this.dimensions) {
+				return List.of();
+			}
+
+			for (int slot = 0; slot < this.documents.size(); slot++) {
+				StoredDocument document = this.documents.get(slot);
+				if (Objects.isNull(document) || !predicate.test(document)) {
+					continue;
+				}
+
+				double score = dot(slot, query);
+				if (score < request.getSimilarityThreshold()) {
+					continue;
+				}
+
+				if (topK.size() < request.getTopK()) {
+					topK.offer(new ScoredSlot(slot, score));
+				}
+				else if (!topK.isEmpty() && topK.peek().score() < score) {
+					topK.poll();
+					topK.offer(new ScoredSlot(slot, score));
+				}
+			}
+
+			List<Document> results = new ArrayList<>(topK.size());
+			while (!topK.isEmpty()) {
+				ScoredSlot scored = topK.poll();
+				results.add(this.documents.get(scored.slot()).toDocument(scored.score()));
+			}
+
+			Collections.reverse(results);
+
+			return results;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public VectorStoreObservationContext.Builder createObservationContextBuilder(String operationName) {
+
+		return VectorStoreObservationContext.builder(VectorStoreProvider.SIMPLE.value(), operationName)
+				.dimensions(this.embeddingModel.dimensions())
+				.collectionName("mapped-snapshot")
+				.similarityMetric(VectorStoreSimilarityMetric.COSINE.value());
+	}
+
+	/**
+	 * Whether the store content has been restored from an existing snapshot.
+	 */
+	public boolean isRestored() {
+		return this.restored;
+	}
+
+	public int size() {
+
+		lock.readLock().lock();
+		try {
+			return this.slots.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Write the current content to the snapshot files. Deleted slots are compacted away.
+	 */
+	public void save() {
+
+		if (Objects.isNull(this.snapshotPath)) {
+			return;
+		}
+
+		Path vectorFile = resolve(VECTOR_FILE_SUFFIX);
+		Path metaFile = resolve(META_FILE_SUFFIX);
+		Path vectorTmp = resolve(VECTOR_FILE_SUFFIX + ".tmp");
+		Path metaTmp = resolve(META_FILE_SUFFIX + ".tmp");
+
+		lock.readLock().lock();
+		try {
+			if (Objects.nonNull(this.snapshotPath.getParent())) {
+				Files.createDirectories(this.snapshotPath.getParent());
+			}
+
+			int count = this.slots.size();
+			long generation = ThreadLocalRandom.current().nextLong();
+			writeVectorFile(vectorTmp, count, generation);
+			writeMetaFile(metaTmp, count, generation);
+
+			Files.move(metaTmp, metaFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			Files.move(vectorTmp, vectorFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			this.dirty = false;
+
+			logger.info("Save vector store snapshot {} successfully, {} documents, {} dimensions.",
+					this.snapshotPath, count, this.dimensions);
+		}
+		catch (IOException e) {
+			logger.error("Failed to save vector store snapshot {}: {}", this.snapshotPath, e.getMessage());
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Save on shutdown if anything changed since the last snapshot.
+	 */
+	@Override
+	public void close() {
+
+		if (this.dirty) {
+			save();
+		}
+	}
+
+	private void writeVectorFile(Path file, int count, long generation) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			ByteBuffer header = ByteBuffer.allocate(VECTOR_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(this.dimensions).putInt(count).putLong(generation).flip();
+			writeFully(channel, header);
+
+			long vectorBytes = (long) this.dimensions * Float.BYTES;
+			for (int slot = 0; slot < this.documents.size(); slot++) {
+				if (Objects.isNull(this.documents.get(slot))) {
+					continue;
+				}
+
+				int start = Math.toIntExact(slot * vectorBytes);
+				ByteBuffer vector = this.vectors.duplicate();
+				vector.limit(Math.toIntExact(start + vectorBytes)).position(start);
+				writeFully(channel, vector);
+			}
+		}
+	}
+
+	private void writeMetaFile(Path file, int count, long generation) throws IOException {
+
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(count);
+			output.writeLong(generation);
+
+			for (StoredDocument document : this.documents) {
+				if (Objects.isNull(document)) {
+					continue;
+				}
+
+				writeBytes(output, document.id().getBytes(StandardCharsets.UTF_8));
+				writeBytes(output, Objects.isNull(document.text()) ? null : document.text().getBytes(StandardCharsets.UTF_8));
+				writeBytes(output, this.objectMapper.writeValueAsBytes(document.metadata()));
+			}
+		}
+	}
+
+	private void load() {
+
+		Path vectorFile = resolve(VECTOR_FILE_SUFFIX);
+		Path metaFile = resolve(META_FILE_SUFFIX);
+
+		if (!Files.exists(vectorFile) || !Files.exists(metaFile)) {
+			logger.debug("Vector store snapshot {} not found, start with an empty store.", this.snapshotPath);
+			return;
+		}
+
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(metaFile)));
+				FileChannel channel = FileChannel.open(vectorFile, StandardOpenOption.READ)) {
+
+			ByteBuffer header = ByteBuffer.allocate(VECTOR_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining() && channel.read(header) != -1) {
+				// read the whole header
+			}
+			header.flip();
+
+			if (header.remaining() < VECTOR_HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION
+					|| input.readInt() != MAGIC || input.readInt() != VERSION) {
+				logger.warn("Vector store snapshot {} has an unknown format, ignore it.", this.snapshotPath);
+				return;
+			}
+
+			int dims = header.getInt();
+			int count = header.getInt();
+			long generation = header.getLong();
+			long vectorBytes = (long) count * dims * Float.BYTES;
+			if (input.readInt() != count || input.readLong() != generation
+					|| channel.size() != VECTOR_HEADER_BYTES + vectorBytes) {
+				logger.warn("Vector store snapshot {} is inconsistent, ignore it.", this.snapshotPath);
+				return;
+			}
+
+			if (vectorBytes > MAX_VECTOR_BYTES) {
+				logger.warn("Vector store snapshot {} holds {} bytes of vectors, more than the {} bytes limit, ignore it.",
+						this.snapshotPath, vectorBytes, MAX_VECTOR_BYTES);
+				return;
+			}
+
+			List<StoredDocument> loaded = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				String id = new String(readBytes(input), StandardCharsets.UTF_8);
+				byte[] text = readBytes(input);
+				Map<String, Object> metadata = this.objectMapper.readValue(readBytes(input),
+						new TypeReference<Map<String, Object>>() {
+						});
+				loaded.add(new StoredDocument(id, Objects.isNull(text) ? null : new String(text, StandardCharsets.UTF_8),
+						metadata));
+			}
+
+			if (count > 0) {
+				this.vectors = channel.map(FileChannel.MapMode.PRIVATE, VECTOR_HEADER_BYTES, vectorBytes)
+						.order(ByteOrder.LITTLE_ENDIAN);
+				this.vectorView = this.vectors.asFloatBuffer();
+			}
+			this.dimensions = dims;
+			this.capacity = count;
+
+			for (int slot = 0; slot < loaded.size(); slot++) {
+				this.documents.add(loaded.get(slot));
+				this.slots.put(loaded.get(slot).id(), slot);
+			}
+			this.restored = true;
+
+			logger.info("Load vector store snapshot {} successfully, {} documents, {} dimensions.",
+					this.snapshotPath, count, dims);
+		}
+		catch (IOException | RuntimeException e) {
+			logger.warn("Failed to load vector store snapshot {}, start with an empty store: {}",
+					this.snapshotPath, e.getMessage());
+			this.documents.clear();
+			this.slots.clear();
+			this.vectors = null;
+			this.vectorView = null;
+			this.dimensions = 0;
+			this.capacity = 0;
+			this.restored = false;
+		}
+	}
+
+	private int allocateSlot() {
+
+		if (!this.freeSlots.isEmpty()) {
+			return this.freeSlots.pop();
+		}
+
+		int slot = this.documents.size();
+		ensureCapacity(slot + 1);
+		this.documents.add(null);
+
+		return slot;
+	}
+
+	/**
+	 * Grow the off-heap region. A mapped snapshot is copied once into a direct buffer on the
+	 * first append beyond its size.
+	 */
+	private void ensureCapacity(int required) {
+
+		if (Objects.nonNull(this.vectorView) && required <= this.capacity) {
+			return;
+		}
+
+		long vectorBytes = (long) this.dimensions * Float.BYTES;
+		long maxCapacity = MAX_VECTOR_BYTES / vectorBytes;
+		if (required > maxCapacity) {
+			throw new IllegalStateException("Mapped vector store holds at most " + maxCapacity + " vectors of "
+					+ this.dimensions + " dimensions (" + MAX_VECTOR_BYTES + " bytes), use another vector store type");
+		}
+
+		long newCapacity = Math.min(maxCapacity, Math.max(INITIAL_CAPACITY, Math.max(required, this.capacity * 2L)));
+		ByteBuffer grown = ByteBuffer.allocateDirect(Math.toIntExact(newCapacity * vectorBytes))
+				.order(ByteOrder.LITTLE_ENDIAN);
+
+		if (Objects.nonNull(this.vectors)) {
+			ByteBuffer used = this.vectors.duplicate();
+			used.limit(Math.toIntExact(this.documents.size() * vectorBytes)).position(0);
+			grown.put(used);
+			grown.clear();
+		}
+
+		this.vectors = grown;
+		this.vectorView = grown.asFloatBuffer();
+		this.capacity = (int) newCapacity;
+	}
+
+	private void writeVector(int slot, float[] embedding) {
+
+		float[] normalized = VectorMath.normalize(embedding);
+		int base = slot * this.dimensions;
+		for (int i = 0; i < this.dimensions; i++) {
+			this.vectorView.put(base + i, normalized[i]);
+		}
+	}
+
+	private double dot(int slot, float[] query) {
+
+		int base = slot * this.dimensions;
+		double sum = 0d;
+		for (int i = 0; i < this.dimensions; i++) {
+			sum += this.vectorView.get(base + i) * query[i];
+		}
+
+		return sum;
+	}
+
+	private Path resolve(String suffix) {
+		return this.snapshotPath.resolveSibling(this.snapshotPath.getFileName() + suffix);
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException {
+
+		if (Objects.isNull(bytes)) {
+			output.writeInt(-1);
+			return;
+		}
+
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private static byte[] readBytes(DataInputStream input) throws IOException {
+
+		int length = input.readInt();
+		if (length < 0) {
+			return null;
+		}
+
+		return input.readNBytes(length);
+	}
+
+	private record ScoredSlot(int slot, double score) {
+	}
+
+	public static final class MappedVectorStoreBuilder extends AbstractVectorStoreBuilder<MappedVectorStoreBuilder> {
+
+		private Path snapshotPath;
+
+		private MappedVectorStoreBuilder(EmbeddingModel embeddingModel) {
+			super(embeddingModel);
+		}
+
+		/**
+		 * Snapshot base path, {@code <path>.vec} and {@code <path>.meta} are written next to it.
+		 * {@code null} keeps the store purely in memory.
+		 */
+		public MappedVectorStoreBuilder snapshotPath(Path snapshotPath) {
+			this.snapshotPath = snapshotPath;
+			return this;
+		}
+
+		@Override
+		public MappedVectorStore build() {
+			return new MappedVectorStore(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.vectorstore;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.alibaba.cloud.ai.application.exception.SAAAppException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+/**
+ * Two-level cache in front of the RAG retrieval step.
+ * <ol>
+ *     <li>normalized query text -> query embedding, saves the paid embedding call</li>
+ *     <li>(store, store version, normalized query text, topK, similarity threshold, filter) -> retrieved
+ *     documents, saves the embedding call and the vector scan</li>
+ * </ol>
+ * Both levels are bounded by size and TTL. Every write to a vector store bumps its version, so
+ * results cached before the write are never served again, including results of a search that was
+ * still in flight when the write happened. Query embeddings stay valid as long as the embedding
+ * model does not change.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+public class RetrievalCache {
+
+	private final Cache<String, float[]> embeddings;
+
+	private final Cache<ResultKey, List<Document>> results;
+
+	private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+	public RetrievalCache(long maxEmbeddings, long maxResults, Duration ttl) {
+
+		this.embeddings = CacheBuilder.newBuilder()
+				.maximumSize(maxEmbeddings)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+		this.results = CacheBuilder.newBuilder()
+				.maximumSize(maxResults)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+	}
+
+	public float[] embedding(String query, Function<String, float[]> loader) {
+		return get(this.embeddings, normalize(query), () -> loader.apply(query));
+	}
+
+	public List<Document> results(String store, SearchRequest request, Supplier<List<Document>> loader) {
+
+		// 版本在加载前读取，加载期间发生写入时结果落在旧版本下，不会再被读到
+		ResultKey key = new ResultKey(store, version(store).get(), normalize(request.getQuery()), request.getTopK(),
+				request.getSimilarityThreshold(),
+				request.hasFilterExpression() ? Objects.toString(request.getFilterExpression()) : null);
+
+		return get(this.results, key, () -> List.copyOf(loader.get()));
+	}
+
+	/**
+	 * Invalidate the retrieval results of one store, called after every write to it.
+	 */
+	public void invalidateResults(String store) {
+
+		long current = version(store).incrementAndGet();
+		this.results.asMap().keySet().removeIf(key -> key.store().equals(store) && key.version() < current);
+	}
+
+	public void invalidateAll() {
+		this.embeddings.invalidateAll();
+		this.results.invalidateAll();
+	}
+
+	public Map<String, Object> stats() {
+
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("embedding", toMap(this.embeddings.stats(), this.embeddings.size()));
+		stats.put("retrieval", toMap(this.results.stats(), this.results.size()));
+
+		return stats;
+	}
+
+	static String normalize(String query) {
+		return query.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+	}
+
+	private AtomicLong version(String store) {
+		return this.versions.computeIfAbsent(store, name -> new AtomicLong());
+	}
+
+	private static <K, V> V get(Cache<K, V> cache, K key, Supplier<V> loader) {
+
+		try {
+			return cache.get(key, loader::get);
+		}
+		catch (ExecutionException | UncheckedExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new SAAAppException("Failed to load retrieval cache: " + e.getMessage());
+		}
+	}
+
+	private static Map<String, Object> toMap(CacheStats stats, long size) {
+
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("size", size);
+		map.put("hitCount", stats.hitCount());
+		map.put("missCount", stats.missCount());
+		map.put("hitRate", stats.hitRate());
+		map.put("evictionCount", stats.evictionCount());
+
+		return map;
+	}
+
+	private record ResultKey(String store, long version, String query, int topK, double similarityThreshold,
+			String filter) {
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.vectorstore;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.filter.converter.SimpleVectorStoreFilterExpressionConverter;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * Text and metadata of a document held by the in-process vector stores, the embedding is
+ * kept separately in primitive storage.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+record StoredDocument(String id, String text, Map<String, Object> metadata) {
+
+	private static final SpelExpressionParser EXPRESSION_PARSER = new SpelExpressionParser();
+
+	private static final SimpleVectorStoreFilterExpressionConverter FILTER_EXPRESSION_CONVERTER =
+			new SimpleVectorStoreFilterExpressionConverter();
+
+	/**
+	 * Compile a portable filter expression into a metadata predicate, the same way
+	 * {@code SimpleVectorStore} evaluates it.
+	 */
+	static Predicate<StoredDocument> filter(Filter.Expression filterExpression) {
+
+		Expression expression = EXPRESSION_PARSER.parseExpression(
+				FILTER_EXPRESSION_CONVERTER.convertExpression(filterExpression));
+
+		return document -> {
+			StandardEvaluationContext context = new StandardEvaluationContext();
+			context.setVariable("metadata", document.metadata());
+			return Boolean.TRUE.equals(expression.getValue(context, Boolean.class));
+		};
+	}
+
+	Document toDocument(double score) {
+
+		Map<String, Object> meta = new HashMap<>(this.metadata);
+		meta.put("distance", 1 - score);
+
+		return Document.builder()
+				.id(this.id)
+				.text(this.text)
+				.metadata(meta)
+				.score(score)
+				.build();
+	}
+
+}
@@ -15,38 +15,48 @@
  * limitations under the License.
  */
 
-package com.alibaba.cloud.ai.application.config.mcp;
-
-import io.modelcontextprotocol.client.McpSyncClient;
-import org.springframework.ai.mcp.SyncMcpToolCallback;
-
-import java.lang.reflect.Field;
+package com.alibaba.cloud.ai.application.vectorstore;
 
 /**
- * Get MCP Server name, return to frontend show.
- * There's no good way, let's do it like this first~~~~
+ * Vector helpers shared by the in-process vector stores. Stored vectors are normalized once,
+ * so cosine similarity reduces to a dot product.
  *
  * @author yuluo
  * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
  */
 
-public class SyncMcpToolCallbackWrapper {
+final class VectorMath {
+
+	private VectorMath() {
+	}
+
+	static float[] normalize(float[] vector) {
 
-	private final SyncMcpToolCallback callback;
+		double norm = 0d;
+		for (float value : vector) {
+			norm += (double) value * value;
+		}
+		norm = Math.sqrt(norm);
 
-	public SyncMcpToolCallbackWrapper(SyncMcpToolCallback callback) {
-		this.callback = callback;
+		float[] normalized = new float[vector.length];
+		if (norm == 0d) {
+			return normalized;
+		}
+		for (int i = 0; i < vector.length; i++) {
+			normalized[i] = (float) (vector[i] / norm);
+		}
+
+		return normalized;
 	}
 
-	public McpSyncClient getMcpClient() {
+	static double dot(float[] a, float[] b) {
 
-		try {
-			Field field = SyncMcpToolCallback.class.getDeclaredField("mcpClient");
-			field.setAccessible(true);
-			return (McpSyncClient) field.get(callback);
-		} catch (NoSuchFieldException | IllegalAccessException e) {
-			throw new RuntimeException(e);
+		double sum = 0d;
+		for (int i = 0; i < a.length; i++) {
+			sum += a[i] * b[i];
 		}
+
+		return sum;
 	}
 
 }
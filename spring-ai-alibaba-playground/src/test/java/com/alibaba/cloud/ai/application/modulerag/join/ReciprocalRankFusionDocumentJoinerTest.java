@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.modulerag.join;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+class ReciprocalRankFusionDocumentJoinerTest {
+
+	@Test
+	void ordersByFusedReciprocalRank() {
+
+		Map<Query, List<List<Document>>> documentsForQuery = new LinkedHashMap<>();
+		documentsForQuery.put(new Query("q1"), List.of(List.of(doc("a", 0.9), doc("b", 0.8), doc("c", 0.7))));
+		documentsForQuery.put(new Query("q2"), List.of(List.of(doc("b", 0.95), doc("d", 0.5))));
+
+		List<Document> joined = new ReciprocalRankFusionDocumentJoiner().join(documentsForQuery);
+
+		// b: 1/62 + 1/61, a: 1/61, d: 1/62, c: 1/63
+		assertEquals(List.of("b", "a", "d", "c"), ids(joined));
+		assertEquals(1.0 / 62 + 1.0 / 61, joined.get(0).getScore(), 1e-12);
+		assertEquals(1.0 / 63, joined.get(3).getScore(), 1e-12);
+	}
+
+	@Test
+	void ranksUnsortedListsByScore() {
+
+		Map<Query, List<List<Document>>> documentsForQuery = Map.of(new Query("q"),
+				List.of(List.of(doc("low", 0.1), doc("high", 0.9), doc("mid", 0.5))));
+
+		List<Document> joined = new ReciprocalRankFusionDocumentJoiner().join(documentsForQuery);
+
+		assertEquals(List.of("high", "mid", "low"), ids(joined));
+	}
+
+	@Test
+	void breaksFusedTiesByBestScore() {
+
+		Map<Query, List<List<Document>>> documentsForQuery = new LinkedHashMap<>();
+		documentsForQuery.put(new Query("q1"), List.of(List.of(doc("weak", 0.2))));
+		documentsForQuery.put(new Query("q2"), List.of(List.of(doc("strong", 0.8))));
+
+		List<Document> joined = new ReciprocalRankFusionDocumentJoiner().join(documentsForQuery);
+
+		assertEquals(List.of("strong", "weak"), ids(joined));
+	}
+
+	@Test
+	void dedupesOnLinkThenSourceThenId() {
+
+		Map<Query, List<List<Document>>> documentsForQuery = new LinkedHashMap<>();
+		documentsForQuery.put(new Query("q1"), List.of(
+				List.of(doc("link-1", 0.9, Map.of("link", "https://example.com/a")),
+						doc("source-1", 0.8, Map.of("source", "manual.pdf")),
+						doc("id", 0.7)),
+				List.of(doc("link-2", 0.9, Map.of("link", "https://example.com/a")))));
+		documentsForQuery.put(new Query("q2"), List.of(List.of(
+				doc("source-2", 0.9, Map.of("source", "manual.pdf")),
+				doc("id", 0.8))));
+
+		List<Document> joined = new ReciprocalRankFusionDocumentJoiner().join(documentsForQuery);
+
+		// the first occurrence of a duplicate is the one kept
+		assertEquals(List.of("link-1", "source-1", "id"), ids(joined));
+		assertEquals(2.0 / 61, joined.get(0).getScore(), 1e-12);
+	}
+
+	@Test
+	void keepsOnlyTopK() {
+
+		Map<Query, List<List<Document>>> documentsForQuery = Map.of(new Query("q"),
+				List.of(List.of(doc("a", 0.9), doc("b", 0.8), doc("c", 0.7), doc("d", 0.6))));
+
+		List<Document> joined = new ReciprocalRankFusionDocumentJoiner(2).join(documentsForQuery);
+
+		assertEquals(List.of("a", "b"), ids(joined));
+	}
+
+	private static Document doc(String id, double score) {
+		return doc(id, score, Map.of());
+	}
+
+	private static Document doc(String id, double score, Map<String, Object> metadata) {
+
+		return Document.builder()
+				.id(id)
+				.text("text of " + id)
+				.metadata(metadata)
+				.score(score)
+				.build();
+	}
+
+	private static List<String> ids(List<Document> documents) {
+		return documents.stream().map(Document::getId).toList();
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.modulerag.postretrieval;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+class LexicalDocumentRankerTest {
+
+	@Test
+	void tokenizesLatinWordsLowerCased() {
+
+		assertEquals(Map.of("spring", 2, "ai", 2, "1", 1, "0", 1),
+				LexicalDocumentRanker.tokenize("Spring AI, spring-ai 1.0"));
+	}
+
+	@Test
+	void tokenizesHanTextIntoBigrams() {
+
+		assertEquals(Map.of("向量", 1, "量数", 1, "数据", 1, "据库", 1),
+				LexicalDocumentRanker.tokenize("向量数据库"));
+		// 标点打断二元组，不会跨标点组合
+		assertEquals(Map.of("检索", 1, "增强", 1), LexicalDocumentRanker.tokenize("检索，增强"));
+	}
+
+	@Test
+	void tokenizesMixedScripts() {
+
+		assertEquals(Map.of("rag", 1, "检索", 1, "索增", 1, "增强", 1),
+				LexicalDocumentRanker.tokenize("RAG检索增强"));
+		// 单个汉字没有二元组，按单字计入
+		assertEquals(Map.of("a", 1, "中", 1, "b", 1), LexicalDocumentRanker.tokenize("a中b"));
+		// 扩展区汉字是代理对，按码点组合
+		assertEquals(Map.of("𠀀𠀁", 1),
+				LexicalDocumentRanker.tokenize("𠀀𠀁"));
+		assertTrue(LexicalDocumentRanker.tokenize("  ").isEmpty());
+	}
+
+	@Test
+	void ranksByBm25() {
+
+		List<Document> documents = List.of(
+				doc("weather", "今天天气很好"),
+				doc("full", "向量数据库支持近似最近邻检索"),
+				doc("long", "数据库索引"),
+				doc("short", "向量检索"));
+
+		List<Document> reranked = LexicalDocumentRanker.builder()
+				.topN(4)
+				.executor(Runnable::run)
+				.build()
+				.process(new Query("向量数据库 检索"), documents);
+
+		// 命中词数相同时，较短的文档得分更高；没有命中的文档保持在最后
+		assertEquals(List.of("full", "short", "long", "weather"), ids(reranked));
+		assertEquals(0d, reranked.get(3).getScore());
+		for (int i = 1; i < reranked.size(); i++) {
+			assertTrue(reranked.get(i - 1).getScore() >= reranked.get(i).getScore());
+		}
+	}
+
+	@Test
+	void keepsJoinedOrderForTies() {
+
+		List<Document> documents = List.of(doc("a", "天气"), doc("b", "晴天"), doc("c", "向量检索"));
+
+		List<Document> reranked = LexicalDocumentRanker.builder()
+				.topN(2)
+				.executor(Runnable::run)
+				.build()
+				.process(new Query("检索"), documents);
+
+		assertEquals(List.of("c", "a"), ids(reranked));
+	}
+
+	@Test
+	void keepsJoinedOrderWhenTheBudgetIsExceeded() {
+
+		List<Document> documents = List.of(doc("a", "天气"), doc("b", "向量检索"), doc("c", "检索"));
+
+		// 任务永远不会执行，超出预算后按 joiner 的顺序返回
+		List<Document> reranked = LexicalDocumentRanker.builder()
+				.topN(2)
+				.budget(Duration.ofMillis(20))
+				.executor(task -> {
+				})
+				.build()
+				.process(new Query("检索"), documents);
+
+		assertEquals(List.of("a", "b"), ids(reranked));
+	}
+
+	@Test
+	void keepsRejectedDocumentsUnscored() {
+
+		List<Document> documents = List.of(doc("a", "天气"), doc("b", "向量检索"), doc("c", "检索"));
+
+		// 第一个文档被线程池拒绝，不参与打分，排在已打分的文档之后
+		List<Document> reranked = LexicalDocumentRanker.builder()
+				.topN(3)
+				.executor(new Executor() {
+
+					private int submitted;
+
+					@Override
+					public void execute(Runnable task) {
+						if (submitted++ == 0) {
+							throw new RejectedExecutionException("pool is full");
+						}
+						task.run();
+					}
+				})
+				.build()
+				.process(new Query("检索"), documents);
+
+		assertEquals(List.of("c", "b", "a"), ids(reranked));
+	}
+
+	private static Document doc(String id, String text) {
+		return new Document(id, text, Map.of());
+	}
+
+	private static List<String> ids(List<Document> documents) {
+		return documents.stream().map(Document::getId).toList();
+	}
+
+}
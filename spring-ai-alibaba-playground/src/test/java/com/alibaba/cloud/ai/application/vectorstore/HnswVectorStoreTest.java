@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.application.vectorstore;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the HNSW search with an exhaustive cosine scan over the same random vectors.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+class HnswVectorStoreTest {
+
+	private static final int DOCUMENTS = 2000;
+
+	private static final int QUERIES = 50;
+
+	private static final int DIMENSIONS = 32;
+
+	private static final int TOP_K = 10;
+
+	private final Random random = new Random(42);
+
+	private final FixedEmbeddingModel embeddingModel = new FixedEmbeddingModel();
+
+	@Test
+	void recallMatchesExhaustiveSearch() {
+
+		HnswVectorStore store = newStore();
+		List<Document> documents = documents();
+		store.add(documents);
+
+		int hits = 0;
+		for (int q = 0; q < QUERIES; q++) {
+			String query = "query-" + q;
+			embeddingModel.put(query, randomVector());
+
+			Set<String> expected = exhaustiveSearch(query, documents);
+			List<Document> results = store.similaritySearch(
+					SearchRequest.builder().query(query).topK(TOP_K).similarityThresholdAll().build());
+
+			assertEquals(TOP_K, results.size());
+			for (int i = 1; i < results.size(); i++) {
+				assertTrue(results.get(i - 1).getScore() >= results.get(i).getScore());
+			}
+			hits += (int) results.stream().map(Document::getId).filter(expected::contains).count();
+		}
+
+		double recall = (double) hits / (QUERIES * TOP_K);
+		assertTrue(recall >= 0.95, () -> "recall@" + TOP_K + " was " + recall);
+	}
+
+	@Test
+	void deletedDocumentsAreNeverReturned() {
+
+		HnswVectorStore store = newStore();
+		List<Document> documents = documents();
+		store.add(documents);
+
+		// more than the compaction ratio, so the graph is rebuilt from the live nodes
+		List<String> deleted = IntStream.range(0, DOCUMENTS / 2)
+				.mapToObj(i -> documents.get(i * 2).getId())
+				.toList();
+		store.delete(deleted);
+		assertEquals(DOCUMENTS - deleted.size(), store.size());
+
+		Set<String> removed = new HashSet<>(deleted);
+		List<Document> live = documents.stream().filter(document -> !removed.contains(document.getId())).toList();
+		for (int q = 0; q < 10; q++) {
+			String query = "query-" + q;
+			embeddingModel.put(query, randomVector());
+
+			List<Document> results = store.similaritySearch(
+					SearchRequest.builder().query(query).topK(TOP_K).similarityThresholdAll().build());
+
+			assertEquals(TOP_K, results.size());
+			assertTrue(results.stream().map(Document::getId).noneMatch(removed::contains));
+			assertEquals(exhaustiveSearch(query, live).iterator().next(), results.get(0).getId());
+		}
+	}
+
+	@Test
+	void reAddingAnUnchangedDocumentOnlyRefreshesIt() {
+
+		HnswVectorStore store = newStore();
+		List<Document> documents = documents().subList(0, 100);
+		store.add(documents);
+
+		Document first = documents.get(0);
+		store.add(List.of(new Document(first.getId(), first.getText(), Map.of("version", 2))));
+		assertEquals(100, store.size());
+
+		embeddingModel.put("query", embeddingModel.vectors.get(first.getText()));
+		List<Document> results = store.similaritySearch(
+				SearchRequest.builder().query("query").topK(1).similarityThresholdAll().build());
+
+		assertEquals(first.getId(), results.get(0).getId());
+		assertEquals(2, results.get(0).getMetadata().get("version"));
+	}
+
+	private HnswVectorStore newStore() {
+
+		return HnswVectorStore.builder(embeddingModel)
+				.m(16)
+				.efConstruction(200)
+				.efSearch(64)
+				.random(new Random(7))
+				.build();
+	}
+
+	private List<Document> documents() {
+
+		List<Document> documents = new ArrayList<>(DOCUMENTS);
+		for (int i = 0; i < DOCUMENTS; i++) {
+			String text = "doc-" + i;
+			embeddingModel.put(text, randomVector());
+			documents.add(new Document("id-" + i, text, Map.of()));
+		}
+
+		return documents;
+	}
+
+	private Set<String> exhaustiveSearch(String query, List<Document> documents) {
+
+		float[] q = VectorMath.normalize(embeddingModel.vectors.get(query));
+
+		return documents.stream()
+				.sorted(Comparator.comparingDouble((Document document) -> VectorMath.dot(q,
+						VectorMath.normalize(embeddingModel.vectors.get(document.getText())))).reversed())
+				.limit(TOP_K)
+				.map(Document::getId)
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+
+	private float[] randomVector() {
+
+		float[] vector = new float[DIMENSIONS];
+		for (int i = 0; i < DIMENSIONS; i++) {
+			vector[i] = (float) random.nextGaussian();
+		}
+
+		return vector;
+	}
+
+	/**
+	 * Looks every text up in a fixed table instead of calling a model.
+	 */
+	private static final class FixedEmbeddingModel implements EmbeddingModel {
+
+		private final Map<String, float[]> vectors = new HashMap<>();
+
+		void put(String text, float[] vector) {
+			vectors.put(text, vector);
+		}
+
+		@Override
+		public EmbeddingResponse call(EmbeddingRequest request) {
+
+			List<Embedding> embeddings = new ArrayList<>();
+			List<String> texts = request.getInstructions();
+			for (int i = 0; i < texts.size(); i++) {
+				embeddings.add(new Embedding(vectors.get(texts.get(i)), i));
+			}
+
+			return new EmbeddingResponse(embeddings);
+		}
+
+		@Override
+		public float[] embed(Document document) {
+			return vectors.get(document.getText());
+		}
+
+		@Override
+		public int dimensions() {
+			return DIMENSIONS;
+		}
+
+	}
+
+}